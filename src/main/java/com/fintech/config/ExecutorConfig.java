@@ -0,0 +1,95 @@
+package com.fintech.config;
+
+import com.fintech.service.PartitionedExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${rules.recategorization.pool-size:2}")
+    private int recategorizationPoolSize;
+
+    @Value("${rules.recategorization.queue-capacity:20}")
+    private int recategorizationQueueCapacity;
+
+    @Value("${imports.jobs.pool-size:2}")
+    private int importPoolSize;
+
+    @Value("${imports.jobs.queue-capacity:10}")
+    private int importQueueCapacity;
+
+    @Value("${webhooks.executor.partitions:4}")
+    private int webhookPartitions;
+
+    @Value("${webhooks.executor.queue-capacity:200}")
+    private int webhookQueueCapacity;
+
+    @Value("${webhooks.executor.virtual-threads:false}")
+    private boolean webhookVirtualThreads;
+
+    @Value("${rules.backtest.parallelism:0}")
+    private int backtestParallelism;
+
+    @Value("${imports.parallel-parsing.parallelism:0}")
+    private int csvParseParallelism;
+
+    @Bean(name = "recategorizationExecutor")
+    public ThreadPoolTaskExecutor recategorizationExecutor() {
+        return boundedExecutor("recategorize-", recategorizationPoolSize, recategorizationQueueCapacity);
+    }
+
+    @Bean(name = "importExecutor")
+    public ThreadPoolTaskExecutor importExecutor() {
+        return boundedExecutor("import-", importPoolSize, importQueueCapacity);
+    }
+
+    /**
+     * Workers for webhook events, one per partition, with the queue capacity
+     * split evenly between the partitions. The partition count bounds how
+     * many events are processed at once, and so how many database connections
+     * they hold, even when the workers are virtual threads; a full partition
+     * rejects new events for the accounts that hash to it.
+     */
+    @Bean(name = "webhookExecutor", destroyMethod = "shutdown")
+    public PartitionedExecutor webhookExecutor() {
+        int partitions = Math.max(1, webhookPartitions);
+        int queueCapacityPerPartition = (webhookQueueCapacity + partitions - 1) / partitions;
+        return new PartitionedExecutor("webhook-", partitions, queueCapacityPerPartition, webhookVirtualThreads);
+    }
+
+    /**
+     * Dedicated pool for backtest evaluation so parallel streams don't compete
+     * with the JVM-wide common pool. Defaults to one worker per core.
+     */
+    @Bean(name = "ruleBacktestPool", destroyMethod = "shutdown")
+    public ForkJoinPool ruleBacktestPool() {
+        int parallelism = backtestParallelism > 0 ? backtestParallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Pool for parsing large CSV uploads in parallel chunks. Defaults to one
+     * worker per core.
+     */
+    @Bean(name = "csvParsePool", destroyMethod = "shutdown")
+    public ForkJoinPool csvParsePool() {
+        int parallelism = csvParseParallelism > 0 ? csvParseParallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism);
+    }
+
+    private ThreadPoolTaskExecutor boundedExecutor(String threadNamePrefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
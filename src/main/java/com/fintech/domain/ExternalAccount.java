@@ -0,0 +1,56 @@
+package com.fintech.domain;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "external_accounts",
+       uniqueConstraints = @UniqueConstraint(name = "uk_external_accounts_provider_external_id", columnNames = {"provider", "external_account_id"}))
+public class ExternalAccount extends BaseEntity {
+
+    @Column(nullable = false, length = 50)
+    private String provider;
+
+    @Column(name = "external_account_id", nullable = false, length = 255)
+    private String externalAccountId;
+
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+
+    @Column(name = "bank_connection_id")
+    private UUID bankConnectionId;
+
+    // Getters and Setters
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public String getExternalAccountId() {
+        return externalAccountId;
+    }
+
+    public void setExternalAccountId(String externalAccountId) {
+        this.externalAccountId = externalAccountId;
+    }
+
+    public UUID getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(UUID accountId) {
+        this.accountId = accountId;
+    }
+
+    public UUID getBankConnectionId() {
+        return bankConnectionId;
+    }
+
+    public void setBankConnectionId(UUID bankConnectionId) {
+        this.bankConnectionId = bankConnectionId;
+    }
+}
@@ -0,0 +1,72 @@
+package com.fintech.domain;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "import_digests",
+       uniqueConstraints = @UniqueConstraint(name = "uk_import_digests_account_digest", columnNames = {"account_id", "digest_type", "digest"}))
+public class ImportDigest extends BaseEntity {
+
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "digest_type", nullable = false, length = 20)
+    private DigestType digestType;
+
+    @Column(nullable = false, length = 64)
+    private String digest;
+
+    @Column(name = "row_count", nullable = false)
+    private Integer rowCount;
+
+    @Column(name = "file_name", length = 255)
+    private String fileName;
+
+    public enum DigestType {
+        FILE, PREFIX
+    }
+
+    // Getters and Setters
+    public UUID getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(UUID accountId) {
+        this.accountId = accountId;
+    }
+
+    public DigestType getDigestType() {
+        return digestType;
+    }
+
+    public void setDigestType(DigestType digestType) {
+        this.digestType = digestType;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public Integer getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(Integer rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+}
@@ -0,0 +1,68 @@
+package com.fintech.domain;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@Table(name = "rule_hit_counts",
+       uniqueConstraints = @UniqueConstraint(name = "uk_rule_hit_counts_rule_date", columnNames = {"rule_id", "bucket_date"}))
+public class RuleHitCount extends BaseEntity {
+
+    @Column(name = "rule_id", nullable = false)
+    private UUID ruleId;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(nullable = false)
+    private Long evaluations = 0L;
+
+    @Column(nullable = false)
+    private Long matches = 0L;
+
+    @Column(nullable = false)
+    private Long errors = 0L;
+
+    // Getters and Setters
+    public UUID getRuleId() {
+        return ruleId;
+    }
+
+    public void setRuleId(UUID ruleId) {
+        this.ruleId = ruleId;
+    }
+
+    public LocalDate getBucketDate() {
+        return bucketDate;
+    }
+
+    public void setBucketDate(LocalDate bucketDate) {
+        this.bucketDate = bucketDate;
+    }
+
+    public Long getEvaluations() {
+        return evaluations;
+    }
+
+    public void setEvaluations(Long evaluations) {
+        this.evaluations = evaluations;
+    }
+
+    public Long getMatches() {
+        return matches;
+    }
+
+    public void setMatches(Long matches) {
+        this.matches = matches;
+    }
+
+    public Long getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Long errors) {
+        this.errors = errors;
+    }
+}
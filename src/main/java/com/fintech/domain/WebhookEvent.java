@@ -31,8 +31,23 @@ public class WebhookEvent extends BaseEntity {
     @Column(name = "retry_count")
     private Integer retryCount = 0;
 
+    // Instance holding a PROCESSING event, and when its claim expires
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    // When a FAILED event is next retried
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    // Events with the same key are processed in order; the sender's account id
+    @Column(name = "partition_key")
+    private String partitionKey;
+
     public enum EventStatus {
-        PENDING, PROCESSED, FAILED
+        PENDING, PROCESSING, PROCESSED, FAILED, DEAD_LETTER
     }
 
     // Getters and Setters
@@ -91,4 +106,36 @@ public class WebhookEvent extends BaseEntity {
     public void setRetryCount(Integer retryCount) {
         this.retryCount = retryCount;
     }
+
+    public String getLockedBy() {
+        return lockedBy;
+    }
+
+    public void setLockedBy(String lockedBy) {
+        this.lockedBy = lockedBy;
+    }
+
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public void setPartitionKey(String partitionKey) {
+        this.partitionKey = partitionKey;
+    }
 }
@@ -31,6 +31,10 @@ public class CreateTransactionRequest {
     @Size(max = 1000, message = "Notes must be 1000 characters or less")
     private String notes;
 
+    // Set for imported rows the bank gave an id; generated otherwise
+    @Size(max = 255, message = "External ID must be 255 characters or less")
+    private String externalId;
+
     // Getters and Setters
     public LocalDateTime getPostedAt() {
         return postedAt;
@@ -87,4 +91,12 @@ public class CreateTransactionRequest {
     public void setNotes(String notes) {
         this.notes = notes;
     }
+
+    public String getExternalId() {
+        return externalId;
+    }
+
+    public void setExternalId(String externalId) {
+        this.externalId = externalId;
+    }
 }
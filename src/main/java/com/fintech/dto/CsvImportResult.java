@@ -8,6 +8,9 @@ public class CsvImportResult {
     private int failedImports;
     private List<String> errors;
     private List<TransactionDto> importedTransactions;
+    private boolean errorsTruncated;
+    // Rows already imported by an earlier upload of the same content
+    private int skippedRows;
 
     // Constructors
     public CsvImportResult() {}
@@ -60,4 +63,20 @@ public class CsvImportResult {
     public void setImportedTransactions(List<TransactionDto> importedTransactions) {
         this.importedTransactions = importedTransactions;
     }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public int getSkippedRows() {
+        return skippedRows;
+    }
+
+    public void setSkippedRows(int skippedRows) {
+        this.skippedRows = skippedRows;
+    }
 }
@@ -0,0 +1,116 @@
+package com.fintech.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class RecategorizationJobDto {
+    private UUID id;
+    private UUID userId;
+    private String status;
+    private boolean onlyUncategorized;
+    private long scannedTransactions;
+    private long matchedTransactions;
+    private long updatedTransactions;
+    private int chunksProcessed;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public boolean isOnlyUncategorized() {
+        return onlyUncategorized;
+    }
+
+    public void setOnlyUncategorized(boolean onlyUncategorized) {
+        this.onlyUncategorized = onlyUncategorized;
+    }
+
+    public long getScannedTransactions() {
+        return scannedTransactions;
+    }
+
+    public void setScannedTransactions(long scannedTransactions) {
+        this.scannedTransactions = scannedTransactions;
+    }
+
+    public long getMatchedTransactions() {
+        return matchedTransactions;
+    }
+
+    public void setMatchedTransactions(long matchedTransactions) {
+        this.matchedTransactions = matchedTransactions;
+    }
+
+    public long getUpdatedTransactions() {
+        return updatedTransactions;
+    }
+
+    public void setUpdatedTransactions(long updatedTransactions) {
+        this.updatedTransactions = updatedTransactions;
+    }
+
+    public int getChunksProcessed() {
+        return chunksProcessed;
+    }
+
+    public void setChunksProcessed(int chunksProcessed) {
+        this.chunksProcessed = chunksProcessed;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
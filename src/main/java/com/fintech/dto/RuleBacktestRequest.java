@@ -0,0 +1,50 @@
+package com.fintech.dto;
+
+public class RuleBacktestRequest {
+    private String conditions;
+    private String actions;
+    private Integer priority;
+    private boolean includeExistingRules;
+    private Integer sampleSize;
+
+    // Getters and Setters
+    public String getConditions() {
+        return conditions;
+    }
+
+    public void setConditions(String conditions) {
+        this.conditions = conditions;
+    }
+
+    public String getActions() {
+        return actions;
+    }
+
+    public void setActions(String actions) {
+        this.actions = actions;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
+    public boolean isIncludeExistingRules() {
+        return includeExistingRules;
+    }
+
+    public void setIncludeExistingRules(boolean includeExistingRules) {
+        this.includeExistingRules = includeExistingRules;
+    }
+
+    public Integer getSampleSize() {
+        return sampleSize;
+    }
+
+    public void setSampleSize(Integer sampleSize) {
+        this.sampleSize = sampleSize;
+    }
+}
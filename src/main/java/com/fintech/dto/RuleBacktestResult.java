@@ -0,0 +1,160 @@
+package com.fintech.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public class RuleBacktestResult {
+    private long totalTransactions;
+    private long matchedTransactions;
+    private long changedTransactions;
+    private long durationMs;
+    private List<SampleHit> sampleHits;
+    private List<CategoryDelta> categoryDeltas;
+
+    // Getters and Setters
+    public long getTotalTransactions() {
+        return totalTransactions;
+    }
+
+    public void setTotalTransactions(long totalTransactions) {
+        this.totalTransactions = totalTransactions;
+    }
+
+    public long getMatchedTransactions() {
+        return matchedTransactions;
+    }
+
+    public void setMatchedTransactions(long matchedTransactions) {
+        this.matchedTransactions = matchedTransactions;
+    }
+
+    public long getChangedTransactions() {
+        return changedTransactions;
+    }
+
+    public void setChangedTransactions(long changedTransactions) {
+        this.changedTransactions = changedTransactions;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public List<SampleHit> getSampleHits() {
+        return sampleHits;
+    }
+
+    public void setSampleHits(List<SampleHit> sampleHits) {
+        this.sampleHits = sampleHits;
+    }
+
+    public List<CategoryDelta> getCategoryDeltas() {
+        return categoryDeltas;
+    }
+
+    public void setCategoryDeltas(List<CategoryDelta> categoryDeltas) {
+        this.categoryDeltas = categoryDeltas;
+    }
+
+    public static class SampleHit {
+        private UUID transactionId;
+        private String merchant;
+        private String description;
+        private UUID currentCategoryId;
+        private UUID proposedCategoryId;
+        private UUID ruleId;
+        private String ruleName;
+
+        // Getters and Setters
+        public UUID getTransactionId() {
+            return transactionId;
+        }
+
+        public void setTransactionId(UUID transactionId) {
+            this.transactionId = transactionId;
+        }
+
+        public String getMerchant() {
+            return merchant;
+        }
+
+        public void setMerchant(String merchant) {
+            this.merchant = merchant;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+
+        public UUID getCurrentCategoryId() {
+            return currentCategoryId;
+        }
+
+        public void setCurrentCategoryId(UUID currentCategoryId) {
+            this.currentCategoryId = currentCategoryId;
+        }
+
+        public UUID getProposedCategoryId() {
+            return proposedCategoryId;
+        }
+
+        public void setProposedCategoryId(UUID proposedCategoryId) {
+            this.proposedCategoryId = proposedCategoryId;
+        }
+
+        public UUID getRuleId() {
+            return ruleId;
+        }
+
+        public void setRuleId(UUID ruleId) {
+            this.ruleId = ruleId;
+        }
+
+        public String getRuleName() {
+            return ruleName;
+        }
+
+        public void setRuleName(String ruleName) {
+            this.ruleName = ruleName;
+        }
+    }
+
+    public static class CategoryDelta {
+        private UUID fromCategoryId;
+        private UUID toCategoryId;
+        private long transactionCount;
+
+        // Getters and Setters
+        public UUID getFromCategoryId() {
+            return fromCategoryId;
+        }
+
+        public void setFromCategoryId(UUID fromCategoryId) {
+            this.fromCategoryId = fromCategoryId;
+        }
+
+        public UUID getToCategoryId() {
+            return toCategoryId;
+        }
+
+        public void setToCategoryId(UUID toCategoryId) {
+            this.toCategoryId = toCategoryId;
+        }
+
+        public long getTransactionCount() {
+            return transactionCount;
+        }
+
+        public void setTransactionCount(long transactionCount) {
+            this.transactionCount = transactionCount;
+        }
+    }
+}
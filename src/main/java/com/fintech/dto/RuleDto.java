@@ -16,6 +16,7 @@ public class RuleDto {
     private Boolean enabled;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private boolean regexBudgetExceeded;
 
     // Getters and Setters
     public UUID getId() {
@@ -98,6 +99,14 @@ public class RuleDto {
         this.updatedAt = updatedAt;
     }
 
+    public boolean isRegexBudgetExceeded() {
+        return regexBudgetExceeded;
+    }
+
+    public void setRegexBudgetExceeded(boolean regexBudgetExceeded) {
+        this.regexBudgetExceeded = regexBudgetExceeded;
+    }
+
     public static RuleDto fromEntity(Rule rule) {
         RuleDto dto = new RuleDto();
         dto.setId(rule.getId());
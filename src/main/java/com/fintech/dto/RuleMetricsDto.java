@@ -0,0 +1,138 @@
+package com.fintech.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public class RuleMetricsDto {
+    private int windowDays;
+    private LatencyStatsDto applyLatency;
+    private List<RuleStats> rules;
+
+    // Getters and Setters
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    public void setWindowDays(int windowDays) {
+        this.windowDays = windowDays;
+    }
+
+    public LatencyStatsDto getApplyLatency() {
+        return applyLatency;
+    }
+
+    public void setApplyLatency(LatencyStatsDto applyLatency) {
+        this.applyLatency = applyLatency;
+    }
+
+    public List<RuleStats> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<RuleStats> rules) {
+        this.rules = rules;
+    }
+
+    public static class RuleStats {
+        private UUID ruleId;
+        private String name;
+        private Integer priority;
+        private Boolean enabled;
+        private long evaluations;
+        private long matches;
+        private long errors;
+        private long windowEvaluations;
+        private long windowMatches;
+        private long windowErrors;
+        private double windowHitRate;
+
+        // Getters and Setters
+        public UUID getRuleId() {
+            return ruleId;
+        }
+
+        public void setRuleId(UUID ruleId) {
+            this.ruleId = ruleId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getPriority() {
+            return priority;
+        }
+
+        public void setPriority(Integer priority) {
+            this.priority = priority;
+        }
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getEvaluations() {
+            return evaluations;
+        }
+
+        public void setEvaluations(long evaluations) {
+            this.evaluations = evaluations;
+        }
+
+        public long getMatches() {
+            return matches;
+        }
+
+        public void setMatches(long matches) {
+            this.matches = matches;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public void setErrors(long errors) {
+            this.errors = errors;
+        }
+
+        public long getWindowEvaluations() {
+            return windowEvaluations;
+        }
+
+        public void setWindowEvaluations(long windowEvaluations) {
+            this.windowEvaluations = windowEvaluations;
+        }
+
+        public long getWindowMatches() {
+            return windowMatches;
+        }
+
+        public void setWindowMatches(long windowMatches) {
+            this.windowMatches = windowMatches;
+        }
+
+        public long getWindowErrors() {
+            return windowErrors;
+        }
+
+        public void setWindowErrors(long windowErrors) {
+            this.windowErrors = windowErrors;
+        }
+
+        public double getWindowHitRate() {
+            return windowHitRate;
+        }
+
+        public void setWindowHitRate(double windowHitRate) {
+            this.windowHitRate = windowHitRate;
+        }
+    }
+}
@@ -12,6 +12,8 @@ public class WebhookEventDto {
     private String source;
     private WebhookEvent.EventStatus status;
     private String errorMessage;
+    private Integer retryCount;
+    private LocalDateTime nextAttemptAt;
     private LocalDateTime processedAt;
     private LocalDateTime createdAt;
 
@@ -64,6 +66,22 @@ public class WebhookEventDto {
         this.errorMessage = errorMessage;
     }
 
+    public Integer getRetryCount() {
+        return retryCount;
+    }
+
+    public void setRetryCount(Integer retryCount) {
+        this.retryCount = retryCount;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
     public LocalDateTime getProcessedAt() {
         return processedAt;
     }
@@ -88,6 +106,8 @@ public class WebhookEventDto {
         dto.setSource(event.getSource());
         dto.setStatus(event.getStatus());
         dto.setErrorMessage(event.getErrorMessage());
+        dto.setRetryCount(event.getRetryCount());
+        dto.setNextAttemptAt(event.getNextAttemptAt());
         dto.setProcessedAt(event.getProcessedAt());
         dto.setCreatedAt(event.getCreatedAt());
         return dto;
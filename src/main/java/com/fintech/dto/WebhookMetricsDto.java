@@ -0,0 +1,106 @@
+package com.fintech.dto;
+
+import java.util.List;
+
+public class WebhookMetricsDto {
+    private int queueDepth;
+    private int queueCapacity;
+    private int activeWorkers;
+    private int poolSize;
+    private boolean virtualThreads;
+    private long accepted;
+    private long rejected;
+    private long completed;
+    private LatencyStatsDto queueWait;
+    private LatencyStatsDto processing;
+    private List<WebhookPartitionMetricsDto> partitions;
+
+    // Getters and Setters
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getActiveWorkers() {
+        return activeWorkers;
+    }
+
+    public void setActiveWorkers(int activeWorkers) {
+        this.activeWorkers = activeWorkers;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+
+    public LatencyStatsDto getQueueWait() {
+        return queueWait;
+    }
+
+    public void setQueueWait(LatencyStatsDto queueWait) {
+        this.queueWait = queueWait;
+    }
+
+    public LatencyStatsDto getProcessing() {
+        return processing;
+    }
+
+    public void setProcessing(LatencyStatsDto processing) {
+        this.processing = processing;
+    }
+
+    public List<WebhookPartitionMetricsDto> getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(List<WebhookPartitionMetricsDto> partitions) {
+        this.partitions = partitions;
+    }
+}
@@ -0,0 +1,86 @@
+package com.fintech.dto;
+
+public class WebhookPartitionMetricsDto {
+    private int partition;
+    private int queueDepth;
+    private int queueCapacity;
+    private boolean busy;
+    private long oldestWaitMillis;
+    private long accepted;
+    private long rejected;
+    private long completed;
+    private LatencyStatsDto queueWait;
+
+    // Getters and Setters
+    public int getPartition() {
+        return partition;
+    }
+
+    public void setPartition(int partition) {
+        this.partition = partition;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public boolean isBusy() {
+        return busy;
+    }
+
+    public void setBusy(boolean busy) {
+        this.busy = busy;
+    }
+
+    public long getOldestWaitMillis() {
+        return oldestWaitMillis;
+    }
+
+    public void setOldestWaitMillis(long oldestWaitMillis) {
+        this.oldestWaitMillis = oldestWaitMillis;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+
+    public LatencyStatsDto getQueueWait() {
+        return queueWait;
+    }
+
+    public void setQueueWait(LatencyStatsDto queueWait) {
+        this.queueWait = queueWait;
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -20,4 +21,6 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
     Account findByUserIdAndId(@Param("userId") UUID userId, @Param("accountId") UUID accountId);
     
     boolean existsByUserIdAndId(UUID userId, UUID accountId);
+
+    Optional<Account> findFirstByNameOrderByCreatedAtAsc(String name);
 }
@@ -0,0 +1,29 @@
+package com.fintech.repo;
+
+import com.fintech.domain.ExternalAccount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ExternalAccountRepository extends JpaRepository<ExternalAccount, UUID> {
+
+    Optional<ExternalAccount> findByProviderAndExternalAccountId(String provider, String externalAccountId);
+
+    // Linking an external account again points it at the new account and connection
+    @Modifying
+    @Query(value = "INSERT INTO external_accounts (id, provider, external_account_id, account_id, bank_connection_id, created_at, updated_at) " +
+                   "VALUES (uuid_generate_v4(), :provider, :externalAccountId, :accountId, :bankConnectionId, NOW(), NOW()) " +
+                   "ON CONFLICT (provider, external_account_id) DO UPDATE SET account_id = EXCLUDED.account_id, " +
+                   "bank_connection_id = EXCLUDED.bank_connection_id, updated_at = NOW()",
+           nativeQuery = true)
+    int link(@Param("provider") String provider,
+             @Param("externalAccountId") String externalAccountId,
+             @Param("accountId") UUID accountId,
+             @Param("bankConnectionId") UUID bankConnectionId);
+}
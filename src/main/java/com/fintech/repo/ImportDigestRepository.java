@@ -0,0 +1,37 @@
+package com.fintech.repo;
+
+import com.fintech.domain.ImportDigest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ImportDigestRepository extends JpaRepository<ImportDigest, UUID> {
+
+    Optional<ImportDigest> findByAccountIdAndDigestTypeAndDigest(UUID accountId, ImportDigest.DigestType digestType, String digest);
+
+    @Query("SELECT d.digest FROM ImportDigest d WHERE d.accountId = :accountId AND d.digestType = :digestType")
+    List<String> findDigests(@Param("accountId") UUID accountId, @Param("digestType") ImportDigest.DigestType digestType);
+
+    // Concurrent imports of the same content may record the same digest
+    @Modifying
+    @Query(value = "INSERT INTO import_digests (id, account_id, digest_type, digest, row_count, file_name, created_at, updated_at) " +
+                   "VALUES (uuid_generate_v4(), :accountId, :digestType, :digest, :rowCount, :fileName, NOW(), NOW()) " +
+                   "ON CONFLICT (account_id, digest_type, digest) DO NOTHING",
+           nativeQuery = true)
+    int addDigest(@Param("accountId") UUID accountId,
+                  @Param("digestType") String digestType,
+                  @Param("digest") String digest,
+                  @Param("rowCount") int rowCount,
+                  @Param("fileName") String fileName);
+
+    @Modifying
+    @Query("DELETE FROM ImportDigest d WHERE d.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") UUID accountId);
+}
@@ -0,0 +1,41 @@
+package com.fintech.repo;
+
+import com.fintech.domain.RuleHitCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RuleHitCountRepository extends JpaRepository<RuleHitCount, UUID> {
+
+    // Adds to the day's bucket; rules deleted since the counts were taken are skipped
+    @Modifying
+    @Query(value = "INSERT INTO rule_hit_counts (id, rule_id, bucket_date, evaluations, matches, errors, created_at, updated_at) " +
+                   "SELECT uuid_generate_v4(), r.id, :bucketDate, :evaluations, :matches, :errors, NOW(), NOW() " +
+                   "FROM rules r WHERE r.id = :ruleId " +
+                   "ON CONFLICT (rule_id, bucket_date) DO UPDATE SET " +
+                   "evaluations = rule_hit_counts.evaluations + EXCLUDED.evaluations, " +
+                   "matches = rule_hit_counts.matches + EXCLUDED.matches, " +
+                   "errors = rule_hit_counts.errors + EXCLUDED.errors, " +
+                   "updated_at = NOW()",
+           nativeQuery = true)
+    int addCounts(@Param("ruleId") UUID ruleId,
+                  @Param("bucketDate") LocalDate bucketDate,
+                  @Param("evaluations") long evaluations,
+                  @Param("matches") long matches,
+                  @Param("errors") long errors);
+
+    @Query("SELECT h.ruleId, SUM(h.evaluations), SUM(h.matches), SUM(h.errors) FROM RuleHitCount h " +
+           "WHERE h.ruleId IN :ruleIds AND h.bucketDate >= :since GROUP BY h.ruleId")
+    List<Object[]> sumCountsSince(@Param("ruleIds") List<UUID> ruleIds, @Param("since") LocalDate since);
+
+    @Modifying
+    @Query("DELETE FROM RuleHitCount h WHERE h.bucketDate < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDate cutoff);
+}
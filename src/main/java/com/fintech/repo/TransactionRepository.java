@@ -7,6 +7,7 @@ import com.fintech.dto.TrendReportDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,6 +16,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -40,6 +42,8 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
 
     List<Transaction> findByAccountIdAndExternalId(UUID accountId, String externalId);
 
+    List<Transaction> findByAccountIdAndExternalIdIn(UUID accountId, Collection<String> externalIds);
+
     @Query("SELECT t FROM Transaction t WHERE t.accountId = :accountId " +
            "AND t.postedAt = :postedAt " +
            "AND t.amount = :amount " +
@@ -52,6 +56,19 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
             @Param("merchant") String merchant,
             @Param("description") String description);
 
+    @Query("SELECT t.postedAt, t.amount, t.merchant, t.description FROM Transaction t " +
+           "WHERE t.accountId = :accountId AND t.postedAt >= :from AND t.postedAt < :to")
+    List<Object[]> findDuplicateKeysBetween(
+            @Param("accountId") UUID accountId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT t.externalId FROM Transaction t " +
+           "WHERE t.accountId = :accountId AND t.externalId IN :externalIds")
+    List<String> findExistingExternalIds(
+            @Param("accountId") UUID accountId,
+            @Param("externalIds") Collection<String> externalIds);
+
     @Query("SELECT COUNT(t) FROM Transaction t WHERE t.accountId = :accountId")
     long countByAccountId(UUID accountId);
 
@@ -185,4 +202,20 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
     }
 
     Optional<Transaction> findByExternalId(String externalId);
+
+    // Keyset-paginated scan used by rule re-categorization; pass a Pageable with only a size
+    @Query("SELECT t.id, t.merchant, t.description, t.categoryId, t.amount, t.accountId, t.postedAt FROM Transaction t " +
+           "WHERE t.accountId IN :accountIds AND t.id > :afterId " +
+           "AND (:onlyUncategorized = false OR t.categoryId IS NULL) " +
+           "ORDER BY t.id")
+    List<Object[]> findRuleCandidatesAfter(@Param("accountIds") List<UUID> accountIds,
+                                           @Param("afterId") UUID afterId,
+                                           @Param("onlyUncategorized") boolean onlyUncategorized,
+                                           Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Transaction t SET t.categoryId = :categoryId, t.updatedAt = :updatedAt WHERE t.id IN :ids")
+    int updateCategoryForIds(@Param("categoryId") UUID categoryId,
+                             @Param("ids") List<UUID> ids,
+                             @Param("updatedAt") LocalDateTime updatedAt);
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.fintech.repo;
 
 import com.fintech.domain.WebhookEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,4 +24,65 @@ public interface WebhookEventRepository extends JpaRepository<WebhookEvent, UUID
 
     @Query("SELECT COUNT(we) FROM WebhookEvent we WHERE we.status = :status")
     long countByStatus(@Param("status") WebhookEvent.EventStatus status);
+
+    // Oldest PENDING events not locked by another poller; the row locks last until the claiming transaction ends
+    @Query(value = "SELECT id, partition_key AS \"partitionKey\" FROM webhook_events WHERE status = 'PENDING' " +
+                   "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<ClaimedEvent> lockPending(@Param("limit") int limit);
+
+    // FAILED events due for another attempt, locked the same way
+    @Query(value = "SELECT id, partition_key AS \"partitionKey\" FROM webhook_events WHERE status = 'FAILED' " +
+                   "AND next_attempt_at <= :now ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<ClaimedEvent> lockRetries(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE WebhookEvent we SET we.status = :status, we.lockedBy = :owner, we.lockedUntil = :lockedUntil " +
+           "WHERE we.id IN :ids")
+    int markProcessing(@Param("ids") List<UUID> ids,
+                       @Param("status") WebhookEvent.EventStatus status,
+                       @Param("owner") String owner,
+                       @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    // Claims whose instance died or overran its lease go back to the queue; a
+    // claimed retry still has its next_attempt_at and goes back to FAILED
+    @Modifying
+    @Query(value = "UPDATE webhook_events SET status = CASE WHEN next_attempt_at IS NULL THEN 'PENDING' ELSE 'FAILED' END, " +
+                   "locked_by = NULL, locked_until = NULL " +
+                   "WHERE status = 'PROCESSING' AND locked_until < :now",
+           nativeQuery = true)
+    int releaseExpired(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "UPDATE webhook_events SET status = CASE WHEN next_attempt_at IS NULL THEN 'PENDING' ELSE 'FAILED' END, " +
+                   "locked_by = NULL, locked_until = NULL " +
+                   "WHERE id = :id AND status = 'PROCESSING' AND locked_by = :owner",
+           nativeQuery = true)
+    int release(@Param("id") UUID id, @Param("owner") String owner);
+
+    // The oldest DEAD_LETTER events created before the cutoff, optionally from one
+    // source, back to the queue with a fresh set of attempts
+    @Modifying
+    @Query(value = "UPDATE webhook_events SET status = 'PENDING', retry_count = 0, next_attempt_at = NULL, " +
+                   "error_message = NULL, processed_at = NULL " +
+                   "WHERE id IN (SELECT id FROM webhook_events WHERE status = 'DEAD_LETTER' AND created_at < :before " +
+                   "AND (CAST(:source AS text) IS NULL OR source = CAST(:source AS text)) " +
+                   "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int replayDeadLetters(@Param("before") LocalDateTime before,
+                          @Param("source") String source,
+                          @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE WebhookEvent we SET we.status = :pending, we.retryCount = 0, we.nextAttemptAt = NULL, " +
+           "we.errorMessage = NULL, we.processedAt = NULL " +
+           "WHERE we.id IN :ids AND we.status IN ('FAILED', 'DEAD_LETTER')")
+    int replay(@Param("pending") WebhookEvent.EventStatus pending, @Param("ids") List<UUID> ids);
+
+    interface ClaimedEvent {
+        UUID getId();
+
+        String getPartitionKey();
+    }
 }
@@ -11,6 +11,8 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -75,6 +77,26 @@ public class AuditLogService {
         logAction(action, "Transaction", entityId, transaction, oldTransaction);
     }
 
+    /**
+     * Log an UPDATE for each transaction, saved together. {@code oldTransactions}
+     * holds the values before each update, in the same order.
+     */
+    public void logTransactionUpdates(List<?> transactions, List<?> oldTransactions) {
+        List<AuditLog> auditLogs = new ArrayList<>(transactions.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < transactions.size(); i++) {
+            AuditLog auditLog = new AuditLog();
+            auditLog.setEntityType("Transaction");
+            auditLog.setEntityId(extractId(transactions.get(i)));
+            auditLog.setAction(AuditLog.AuditAction.UPDATE);
+            auditLog.setCreatedAt(now);
+            auditLog.setOldValues(toJson(oldTransactions.get(i)));
+            auditLog.setNewValues(toJson(transactions.get(i)));
+            auditLogs.add(auditLog);
+        }
+        auditLogRepository.saveAll(auditLogs);
+    }
+
     /**
      * Log category actions
      */
@@ -184,6 +206,14 @@ public class AuditLogService {
         auditLogRepository.save(auditLog);
     }
 
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (Exception e) {
+            return payload.toString();
+        }
+    }
+
     /**
      * Extract ID from an object using reflection
      */
@@ -0,0 +1,111 @@
+package com.fintech.service;
+
+import com.fintech.domain.Category;
+import com.fintech.repo.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory category dictionary keyed by user ID, mapping names to category
+ * ids for webhook and import categorization.
+ *
+ * Names match case-insensitively and cover the user's active categories and
+ * the global ones, with the user's own category winning when both have the
+ * same name. A user's dictionary is loaded on first use and dropped whenever
+ * {@link CategoryService} changes one of their categories.
+ */
+@Component
+public class CategoryLookupCache {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final Map<UUID, Map<String, UUID>> dictionaries = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation so a load racing with a category change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * The id of the user's category with this name, or null.
+     */
+    public UUID findCategoryId(UUID userId, String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        return getDictionary(userId).get(normalize(name));
+    }
+
+    /**
+     * Like {@link #findCategoryId}, for category paths from imported files:
+     * {@code Food:Groceries} falls back to {@code Food} when there is no
+     * category with the full name.
+     */
+    public UUID findImportedCategoryId(UUID userId, String name) {
+        UUID categoryId = findCategoryId(userId, name);
+        if (categoryId == null && name != null && name.indexOf(':') > 0) {
+            categoryId = findCategoryId(userId, name.substring(0, name.indexOf(':')));
+        }
+        return categoryId;
+    }
+
+    private Map<String, UUID> getDictionary(UUID userId) {
+        Map<String, UUID> dictionary = dictionaries.get(userId);
+        if (dictionary != null) {
+            return dictionary;
+        }
+
+        long loadGeneration = generation.get();
+        Map<String, UUID> loaded = new HashMap<>();
+        addAll(loaded, categoryRepository.findGlobalCategories());
+        addAll(loaded, categoryRepository.findByUserIdAndIsActiveTrue(userId));
+
+        if (generation.get() == loadGeneration) {
+            Map<String, UUID> existing = dictionaries.putIfAbsent(userId, loaded);
+            return existing != null ? existing : loaded;
+        }
+        return loaded;
+    }
+
+    private static void addAll(Map<String, UUID> dictionary, List<Category> categories) {
+        for (Category category : categories) {
+            if (category.getName() != null) {
+                dictionary.put(normalize(category.getName()), category.getId());
+            }
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Drop the user's dictionary now and again once the current transaction
+     * commits, so readers never keep one built from uncommitted state.
+     */
+    public void invalidate(UUID userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private void evict(UUID userId) {
+        generation.incrementAndGet();
+        dictionaries.remove(userId);
+    }
+}
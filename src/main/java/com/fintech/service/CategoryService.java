@@ -21,6 +21,9 @@ public class CategoryService {
     @Autowired
     private AuditLogService auditLogService;
 
+    @Autowired
+    private CategoryLookupCache categoryLookupCache;
+
     public List<CategoryDto> getUserCategories(UUID userId) {
         List<Category> categories = categoryRepository.findByUserIdAndIsActiveTrue(userId);
         List<Category> globalCategories = categoryRepository.findGlobalCategories();
@@ -65,6 +68,7 @@ public class CategoryService {
         category.setIsActive(true);
 
         Category savedCategory = categoryRepository.save(category);
+        categoryLookupCache.invalidate(userId);
         
         // Log audit
         auditLogService.logCategoryAction(com.fintech.domain.AuditLog.AuditAction.CREATE, savedCategory, null);
@@ -111,6 +115,7 @@ public class CategoryService {
         Category oldCategory = createCategoryCopy(category);
 
         Category savedCategory = categoryRepository.save(category);
+        categoryLookupCache.invalidate(userId);
         
         // Log audit
         auditLogService.logCategoryAction(com.fintech.domain.AuditLog.AuditAction.UPDATE, savedCategory, oldCategory);
@@ -136,6 +141,7 @@ public class CategoryService {
         auditLogService.logCategoryAction(com.fintech.domain.AuditLog.AuditAction.DELETE, category, null);
         
         categoryRepository.save(category);
+        categoryLookupCache.invalidate(userId);
     }
 
     private Category createCategoryCopy(Category original) {
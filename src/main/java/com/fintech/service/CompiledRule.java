@@ -0,0 +1,69 @@
+package com.fintech.service;
+
+import com.fintech.domain.Rule;
+
+import java.util.BitSet;
+import java.util.UUID;
+
+/**
+ * A rule whose conditions and actions have been parsed into a predicate tree
+ * once, so it can be evaluated without any parsing or I/O.
+ */
+public class CompiledRule {
+
+    private final UUID ruleId;
+    private final String ruleName;
+    private final int priority;
+    private final RuleCondition condition;
+    private final RuleService.RuleMatchResult matchResult;
+    // Null when evaluations of this copy of the rule should not be counted
+    private final RuleMetrics.RuleStats stats;
+
+    private CompiledRule(Rule rule, RuleCondition condition, UUID targetCategoryId, RuleMetrics.RuleStats stats) {
+        this.ruleId = rule.getId();
+        this.ruleName = rule.getName();
+        this.priority = rule.getPriority() != null ? rule.getPriority() : 0;
+        this.condition = condition;
+        this.matchResult = RuleService.RuleMatchResult.match(ruleId, ruleName, targetCategoryId);
+        this.stats = stats;
+    }
+
+    public static CompiledRule compile(Rule rule) {
+        return compile(rule, RegexGuard.UNBOUNDED, null);
+    }
+
+    public static CompiledRule compile(Rule rule, RegexGuard regexGuard, RuleMetrics.RuleStats stats) {
+        RuleCondition condition = RuleDefinitionParser.parseConditions(rule.getConditions(), rule.getId(), regexGuard);
+        RuleDefinitionParser.RuleActions actions = RuleDefinitionParser.parseActions(rule.getActions());
+        return new CompiledRule(rule, condition, actions.getTargetCategoryId(), stats);
+    }
+
+    public boolean matches(RuleInput input) {
+        return matches(input, null, null);
+    }
+
+    /**
+     * Evaluate using literal hits already found by the rule set's {@link MultiPatternMatcher}
+     * scans; only patterns that are not plain literals run through the regex engine.
+     */
+    public boolean matches(RuleInput input, BitSet merchantHits, BitSet descriptionHits) {
+        if (stats == null) {
+            return condition.test(input, merchantHits, descriptionHits);
+        }
+        boolean matched;
+        try {
+            matched = condition.test(input, merchantHits, descriptionHits);
+        } catch (RuntimeException e) {
+            stats.recordError();
+            throw e;
+        }
+        stats.recordEvaluation(matched);
+        return matched;
+    }
+
+    public UUID getRuleId() { return ruleId; }
+    public String getRuleName() { return ruleName; }
+    public int getPriority() { return priority; }
+    public RuleCondition getCondition() { return condition; }
+    public RuleService.RuleMatchResult getMatchResult() { return matchResult; }
+}
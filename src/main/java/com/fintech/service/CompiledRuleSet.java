@@ -0,0 +1,371 @@
+package com.fintech.service;
+
+import com.fintech.domain.Rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Precompiled view of a user's enabled rules in priority order. Safe to share
+ * between threads.
+ *
+ * When multi-pattern matching is enabled, every literal merchant and description
+ * pattern is folded into one automaton per field. A transaction is then scanned
+ * once per field, and only rules whose literals were found, plus rules that need
+ * the regex engine, are evaluated, still in priority order.
+ *
+ * All regex rules evaluated for one transaction share a single step budget
+ * from the {@link RegexGuard}.
+ *
+ * With adaptive ordering, rules that share a priority are evaluated most-hit
+ * first. The order is recomputed from decayed hit counts by {@link #reorder};
+ * rules of different priorities are never reordered relative to each other.
+ */
+public class CompiledRuleSet {
+
+    private static final CompiledRuleSet EMPTY =
+            new CompiledRuleSet(List.of(), RegexGuard.UNBOUNDED, null, null, null, null, null, null);
+
+    private final List<CompiledRule> rules;
+    private final RegexGuard regexGuard;
+    private final MultiPatternMatcher merchantMatcher;
+    private final MultiPatternMatcher descriptionMatcher;
+    // Automaton slot -> index of the rule that needs it to match, or -1
+    private final int[] merchantSlotRules;
+    private final int[] descriptionSlotRules;
+    // Rules that cannot be ruled out by the automata and always have to be evaluated
+    private final BitSet alwaysEvaluate;
+    // Null unless adaptive ordering is on and at least two rules share a priority
+    private final AdaptiveOrder adaptiveOrder;
+
+    private CompiledRuleSet(List<CompiledRule> rules, RegexGuard regexGuard, MultiPatternMatcher merchantMatcher,
+                            MultiPatternMatcher descriptionMatcher, int[] merchantSlotRules,
+                            int[] descriptionSlotRules, BitSet alwaysEvaluate, AdaptiveOrder adaptiveOrder) {
+        this.rules = rules;
+        this.regexGuard = regexGuard;
+        this.merchantMatcher = merchantMatcher;
+        this.descriptionMatcher = descriptionMatcher;
+        this.merchantSlotRules = merchantSlotRules;
+        this.descriptionSlotRules = descriptionSlotRules;
+        this.alwaysEvaluate = alwaysEvaluate;
+        this.adaptiveOrder = adaptiveOrder;
+    }
+
+    public static CompiledRuleSet empty() {
+        return EMPTY;
+    }
+
+    public static CompiledRuleSet compile(List<Rule> rulesByPriority) {
+        return compile(rulesByPriority, false);
+    }
+
+    /**
+     * Compile rules that are already sorted by priority. Rules whose definitions
+     * cannot be parsed are skipped, matching the old behaviour of treating them
+     * as non-matching on every evaluation.
+     */
+    public static CompiledRuleSet compile(List<Rule> rulesByPriority, boolean multiPatternMatching) {
+        return compile(rulesByPriority, multiPatternMatching, RegexGuard.UNBOUNDED);
+    }
+
+    public static CompiledRuleSet compile(List<Rule> rulesByPriority, boolean multiPatternMatching, RegexGuard regexGuard) {
+        return compile(rulesByPriority, multiPatternMatching, regexGuard, null, false);
+    }
+
+    /**
+     * @param metrics          where to count evaluations of these rules, or null to not count them
+     * @param adaptiveOrdering evaluate equal-priority rules most-hit first, seeded from {@code metrics}
+     */
+    public static CompiledRuleSet compile(List<Rule> rulesByPriority, boolean multiPatternMatching,
+                                          RegexGuard regexGuard, RuleMetrics metrics, boolean adaptiveOrdering) {
+        List<CompiledRule> compiled = new ArrayList<>(rulesByPriority.size());
+        for (Rule rule : rulesByPriority) {
+            try {
+                RuleMetrics.RuleStats stats = metrics != null && rule.getId() != null ? metrics.statsFor(rule.getId()) : null;
+                compiled.add(CompiledRule.compile(rule, regexGuard, stats));
+            } catch (Exception e) {
+                System.err.println("Error compiling rule " + rule.getId() + ": " + e.getMessage());
+            }
+        }
+        List<CompiledRule> rules = List.copyOf(compiled);
+        AdaptiveOrder adaptiveOrder = adaptiveOrdering ? AdaptiveOrder.create(rules, metrics) : null;
+
+        if (!multiPatternMatching) {
+            return new CompiledRuleSet(rules, regexGuard, null, null, null, null, null, adaptiveOrder);
+        }
+
+        // Every literal pattern gets a slot in its field's automaton. Slots a rule
+        // requires (it can't match unless one of them is found) point back at the
+        // rule so a scan can nominate it; the others are just cheap lookups.
+        List<String> merchantLiterals = new ArrayList<>();
+        List<String> descriptionLiterals = new ArrayList<>();
+        List<Integer> merchantSlotRules = new ArrayList<>();
+        List<Integer> descriptionSlotRules = new ArrayList<>();
+        BitSet alwaysEvaluate = new BitSet(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            RuleCondition condition = rules.get(i).getCondition();
+            for (RuleCondition.PatternMatch pattern : condition.patterns()) {
+                if (pattern.getLiteral() == null) {
+                    continue;
+                }
+                List<String> literals = pattern.isMerchantField() ? merchantLiterals : descriptionLiterals;
+                pattern.setSlot(literals.size());
+                literals.add(pattern.getLiteral());
+                (pattern.isMerchantField() ? merchantSlotRules : descriptionSlotRules).add(-1);
+            }
+
+            List<RuleCondition.PatternMatch> required = condition.requiredLiterals();
+            if (required == null) {
+                alwaysEvaluate.set(i);
+                continue;
+            }
+            for (RuleCondition.PatternMatch pattern : required) {
+                (pattern.isMerchantField() ? merchantSlotRules : descriptionSlotRules).set(pattern.getSlot(), i);
+            }
+        }
+
+        if (merchantLiterals.isEmpty() && descriptionLiterals.isEmpty()) {
+            // Nothing for the automata to do; plain priority-order evaluation is cheaper
+            return new CompiledRuleSet(rules, regexGuard, null, null, null, null, null, adaptiveOrder);
+        }
+
+        return new CompiledRuleSet(rules, regexGuard,
+                MultiPatternMatcher.build(merchantLiterals),
+                MultiPatternMatcher.build(descriptionLiterals),
+                toArray(merchantSlotRules),
+                toArray(descriptionSlotRules),
+                alwaysEvaluate,
+                adaptiveOrder);
+    }
+
+    public RuleService.RuleMatchResult match(String merchant, String description) {
+        return match(RuleInput.of(merchant, description));
+    }
+
+    public RuleService.RuleMatchResult match(RuleInput input) {
+        RegexGuard.Budget budget = regexGuard.newBudget();
+        if (budget != null) {
+            input = input.withRegexBudget(budget);
+        }
+        if (merchantMatcher == null) {
+            return matchSequentially(input);
+        }
+
+        BitSet merchantHits = new BitSet(merchantSlotRules.length);
+        BitSet descriptionHits = new BitSet(descriptionSlotRules.length);
+        if (input.getMerchant() != null) {
+            merchantMatcher.scan(input.getMerchant(), merchantHits);
+        }
+        if (input.getDescription() != null) {
+            descriptionMatcher.scan(input.getDescription(), descriptionHits);
+        }
+
+        BitSet candidates = (BitSet) alwaysEvaluate.clone();
+        nominate(merchantHits, merchantSlotRules, candidates);
+        nominate(descriptionHits, descriptionSlotRules, candidates);
+
+        if (adaptiveOrder == null) {
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                if (evaluate(i, input, merchantHits, descriptionHits)) {
+                    return rules.get(i).getMatchResult();
+                }
+            }
+            return RuleService.RuleMatchResult.noMatch();
+        }
+
+        int[] rank = adaptiveOrder.rank;
+        int i = candidates.nextSetBit(0);
+        while (i >= 0) {
+            int groupEnd = adaptiveOrder.groupEnd[i];
+            int[] group = rankedCandidates(candidates, i, groupEnd, rank);
+            for (int index : group) {
+                if (evaluate(index, input, merchantHits, descriptionHits)) {
+                    adaptiveOrder.recordHit(index);
+                    return rules.get(index).getMatchResult();
+                }
+            }
+            i = groupEnd < rules.size() ? candidates.nextSetBit(groupEnd) : -1;
+        }
+        return RuleService.RuleMatchResult.noMatch();
+    }
+
+    private RuleService.RuleMatchResult matchSequentially(RuleInput input) {
+        if (adaptiveOrder == null) {
+            for (int i = 0; i < rules.size(); i++) {
+                if (evaluate(i, input, null, null)) {
+                    return rules.get(i).getMatchResult();
+                }
+            }
+            return RuleService.RuleMatchResult.noMatch();
+        }
+
+        for (int index : adaptiveOrder.order) {
+            if (evaluate(index, input, null, null)) {
+                adaptiveOrder.recordHit(index);
+                return rules.get(index).getMatchResult();
+            }
+        }
+        return RuleService.RuleMatchResult.noMatch();
+    }
+
+    private boolean evaluate(int index, RuleInput input, BitSet merchantHits, BitSet descriptionHits) {
+        CompiledRule rule = rules.get(index);
+        try {
+            return rule.matches(input, merchantHits, descriptionHits);
+        } catch (Exception e) {
+            // Log error but don't fail the transaction
+            System.err.println("Error evaluating rule " + rule.getRuleId() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Candidate rule indices in [from, to), all of one priority, in their current rank order.
+     */
+    private static int[] rankedCandidates(BitSet candidates, int from, int to, int[] rank) {
+        int count = 0;
+        for (int i = from; i >= 0 && i < to; i = candidates.nextSetBit(i + 1)) {
+            count++;
+        }
+        int[] group = new int[count];
+        int size = 0;
+        for (int i = from; i >= 0 && i < to; i = candidates.nextSetBit(i + 1)) {
+            // Insertion sort; groups of candidates are small
+            int position = size++;
+            while (position > 0 && rank[group[position - 1]] > rank[i]) {
+                group[position] = group[position - 1];
+                position--;
+            }
+            group[position] = i;
+        }
+        return group;
+    }
+
+    /**
+     * Fold the hits since the last call into each rule's decayed score and
+     * re-sort every equal-priority group by it. Called from one thread at a time.
+     */
+    public void reorder(double decay) {
+        if (adaptiveOrder != null) {
+            adaptiveOrder.reorder(decay);
+        }
+    }
+
+    private static void nominate(BitSet hits, int[] slotRules, BitSet candidates) {
+        for (int slot = hits.nextSetBit(0); slot >= 0; slot = hits.nextSetBit(slot + 1)) {
+            if (slotRules[slot] >= 0) {
+                candidates.set(slotRules[slot]);
+            }
+        }
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    public List<CompiledRule> getRules() {
+        return rules;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    public boolean usesMultiPatternMatching() {
+        return merchantMatcher != null;
+    }
+
+    private static final class AdaptiveOrder {
+        // groupEnd[i] is the exclusive end index of the equal-priority run containing rule i
+        private final int[] groupEnd;
+        private final AtomicLongArray hits;
+        // Only touched by reorder()
+        private final double[] scores;
+        // Evaluation order over all rules, and each rule's position in it; replaced wholesale
+        private volatile int[] order;
+        private volatile int[] rank;
+
+        private AdaptiveOrder(int[] groupEnd, double[] scores) {
+            this.groupEnd = groupEnd;
+            this.hits = new AtomicLongArray(groupEnd.length);
+            this.scores = scores;
+        }
+
+        static AdaptiveOrder create(List<CompiledRule> rules, RuleMetrics metrics) {
+            int[] groupEnd = new int[rules.size()];
+            boolean anyTies = false;
+            int start = 0;
+            while (start < rules.size()) {
+                int end = start + 1;
+                while (end < rules.size() && rules.get(end).getPriority() == rules.get(start).getPriority()) {
+                    end++;
+                }
+                anyTies |= end - start > 1;
+                for (int i = start; i < end; i++) {
+                    groupEnd[i] = end;
+                }
+                start = end;
+            }
+            if (!anyTies) {
+                return null;
+            }
+
+            // Seed with matches seen since startup so a recompiled set keeps its learned order
+            double[] scores = new double[rules.size()];
+            if (metrics != null) {
+                for (int i = 0; i < rules.size(); i++) {
+                    RuleMetrics.RuleStats stats = rules.get(i).getRuleId() != null ? metrics.peek(rules.get(i).getRuleId()) : null;
+                    scores[i] = stats != null ? stats.getMatches() : 0;
+                }
+            }
+            AdaptiveOrder adaptiveOrder = new AdaptiveOrder(groupEnd, scores);
+            adaptiveOrder.sort();
+            return adaptiveOrder;
+        }
+
+        void recordHit(int index) {
+            hits.incrementAndGet(index);
+        }
+
+        void reorder(double decay) {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = scores[i] * decay + hits.getAndSet(i, 0);
+            }
+            sort();
+        }
+
+        private void sort() {
+            int size = scores.length;
+            Integer[] sorted = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = i;
+            }
+            int start = 0;
+            while (start < size) {
+                int end = groupEnd[start];
+                // Highest score first; ties keep priority-query order
+                Arrays.sort(sorted, start, end, (a, b) -> {
+                    int byScore = Double.compare(scores[b], scores[a]);
+                    return byScore != 0 ? byScore : Integer.compare(a, b);
+                });
+                start = end;
+            }
+
+            int[] newOrder = new int[size];
+            int[] newRank = new int[size];
+            for (int position = 0; position < size; position++) {
+                newOrder[position] = sorted[position];
+                newRank[sorted[position]] = position;
+            }
+            rank = newRank;
+            order = newOrder;
+        }
+    }
+}
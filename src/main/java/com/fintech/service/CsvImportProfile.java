@@ -0,0 +1,135 @@
+package com.fintech.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How to read one bank's CSV export.
+ *
+ * {@code columns} maps a transaction field to a column, given either as a
+ * zero-based index ({@code "2"}) or as a header name matched case-insensitively.
+ * Fields: {@code postedAt}, {@code amount}, or {@code debit} and {@code credit}
+ * for exports that split them, then {@code merchant}, {@code description},
+ * {@code categoryId}, {@code category} and {@code notes}, all optional. With
+ * split columns the amount is credit minus debit, and debits may be written
+ * with or without a minus sign. A {@code category} column holds category names,
+ * used for rows without a {@code categoryId}.
+ *
+ * Profiles are plain definitions; {@link CsvRowMapper#compile} turns one into
+ * the field indexes and parsers used per row.
+ */
+public class CsvImportProfile {
+
+    public static final String DEFAULT_NAME = "default";
+
+    public enum Header {
+        /** The first row is a header if its date column doesn't hold a date. */
+        AUTO,
+        PRESENT,
+        ABSENT
+    }
+
+    private String name;
+    private String description;
+    private String delimiter = ",";
+    private Header header = Header.AUTO;
+    private Map<String, String> columns = new LinkedHashMap<>();
+    private List<String> dateFormats = List.of("yyyy-MM-dd", "yyyy-MM-dd HH:mm:ss");
+    private String decimalSeparator = ".";
+    private String groupingSeparator;
+    private boolean negateAmounts;
+
+    /**
+     * The built-in layout: postedAt, amount, merchant, description, categoryId,
+     * notes, with no header row.
+     */
+    public static CsvImportProfile defaultProfile() {
+        CsvImportProfile profile = new CsvImportProfile();
+        profile.setName(DEFAULT_NAME);
+        profile.setDescription("postedAt, amount, merchant, description[, categoryId[, notes]] without a header row");
+        profile.setHeader(Header.ABSENT);
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("postedAt", "0");
+        columns.put("amount", "1");
+        columns.put("merchant", "2");
+        columns.put("description", "3");
+        columns.put("categoryId", "4");
+        columns.put("notes", "5");
+        profile.setColumns(columns);
+        return profile;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getDelimiter() {
+        return delimiter;
+    }
+
+    public void setDelimiter(String delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    public Header getHeader() {
+        return header;
+    }
+
+    public void setHeader(Header header) {
+        this.header = header;
+    }
+
+    public Map<String, String> getColumns() {
+        return columns;
+    }
+
+    public void setColumns(Map<String, String> columns) {
+        this.columns = columns;
+    }
+
+    public List<String> getDateFormats() {
+        return dateFormats;
+    }
+
+    public void setDateFormats(List<String> dateFormats) {
+        this.dateFormats = dateFormats;
+    }
+
+    public String getDecimalSeparator() {
+        return decimalSeparator;
+    }
+
+    public void setDecimalSeparator(String decimalSeparator) {
+        this.decimalSeparator = decimalSeparator;
+    }
+
+    public String getGroupingSeparator() {
+        return groupingSeparator;
+    }
+
+    public void setGroupingSeparator(String groupingSeparator) {
+        this.groupingSeparator = groupingSeparator;
+    }
+
+    public boolean isNegateAmounts() {
+        return negateAmounts;
+    }
+
+    public void setNegateAmounts(boolean negateAmounts) {
+        this.negateAmounts = negateAmounts;
+    }
+}
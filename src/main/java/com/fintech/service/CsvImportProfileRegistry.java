@@ -0,0 +1,74 @@
+package com.fintech.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The named CSV import profiles, compiled once at startup.
+ *
+ * Besides the built-in {@code default} layout, profiles are read from the JSON
+ * array at {@code imports.profiles-location}, if it exists. A profile that
+ * doesn't compile fails startup rather than the first import that uses it.
+ */
+@Component
+public class CsvImportProfileRegistry {
+
+    @Value("${imports.profiles-location:classpath:import-profiles.json}")
+    private Resource profilesLocation;
+
+    private final Map<String, CsvImportProfile> profiles = new LinkedHashMap<>();
+    private final Map<String, CsvRowMapper> mappers = new LinkedHashMap<>();
+
+    @PostConstruct
+    void init() throws IOException {
+        register(CsvImportProfile.defaultProfile());
+        if (profilesLocation == null || !profilesLocation.exists()) {
+            return;
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        try (InputStream in = profilesLocation.getInputStream()) {
+            List<CsvImportProfile> loaded = objectMapper.readValue(in, new TypeReference<List<CsvImportProfile>>() {});
+            for (CsvImportProfile profile : loaded) {
+                register(profile);
+            }
+        }
+    }
+
+    private void register(CsvImportProfile profile) {
+        if (profile.getName() == null || profile.getName().isBlank()) {
+            throw new RuntimeException("Import profile without a name in " + profilesLocation);
+        }
+        if (profiles.containsKey(profile.getName())) {
+            throw new RuntimeException("Duplicate import profile: " + profile.getName());
+        }
+        mappers.put(profile.getName(), CsvRowMapper.compile(profile));
+        profiles.put(profile.getName(), profile);
+    }
+
+    /**
+     * The compiled mapper for a profile; a null or blank name means the default.
+     */
+    public CsvRowMapper getMapper(String name) {
+        String key = name == null || name.isBlank() ? CsvImportProfile.DEFAULT_NAME : name;
+        CsvRowMapper mapper = mappers.get(key);
+        if (mapper == null) {
+            throw new RuntimeException("Unknown import profile: " + name);
+        }
+        return mapper;
+    }
+
+    public List<CsvImportProfile> getProfiles() {
+        return new ArrayList<>(profiles.values());
+    }
+}
@@ -0,0 +1,317 @@
+package com.fintech.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A {@link CsvImportProfile} compiled into column indexes and parsers.
+ *
+ * All profile validation, date pattern compilation and header-name lookups
+ * happen once, in {@link #compile} and {@link #withHeader}; {@link #map} only
+ * indexes into the tokenizer's current record. Instances are immutable and can
+ * be shared between threads.
+ */
+public final class CsvRowMapper {
+
+    private static final String[] FIELDS = {"postedAt", "amount", "debit", "credit", "merchant", "description", "categoryId", "notes", "category"};
+    private static final int POSTED_AT = 0;
+    private static final int AMOUNT = 1;
+    private static final int DEBIT = 2;
+    private static final int CREDIT = 3;
+    private static final int MERCHANT = 4;
+    private static final int DESCRIPTION = 5;
+    private static final int CATEGORY_ID = 6;
+    private static final int NOTES = 7;
+    private static final int CATEGORY = 8;
+    // Fields that must be present in every row
+    private static final int[] REQUIRED = {POSTED_AT, AMOUNT, DEBIT, CREDIT, MERCHANT, DESCRIPTION};
+
+    private final String profileName;
+    private final CsvImportProfile.Header header;
+    private final char delimiter;
+    private final DatePattern[] datePatterns;
+    private final char decimalSeparator;
+    private final char groupingSeparator;
+    private final boolean negateAmounts;
+    // Column name for fields mapped by header name, null otherwise
+    private final String[] columnNames;
+    // Column index per field, -1 when unmapped or not yet resolved
+    private final int[] indexes;
+    private final int minFields;
+    private final String formatError;
+
+    private CsvRowMapper(CsvRowMapper template, int[] indexes) {
+        this.profileName = template.profileName;
+        this.header = template.header;
+        this.delimiter = template.delimiter;
+        this.datePatterns = template.datePatterns;
+        this.decimalSeparator = template.decimalSeparator;
+        this.groupingSeparator = template.groupingSeparator;
+        this.negateAmounts = template.negateAmounts;
+        this.columnNames = template.columnNames;
+        this.indexes = indexes;
+
+        int required = 0;
+        List<String> requiredNames = new ArrayList<>();
+        for (int field : REQUIRED) {
+            required = Math.max(required, indexes[field] + 1);
+        }
+        for (int column = 0; column < required; column++) {
+            for (int field : REQUIRED) {
+                if (indexes[field] == column) {
+                    requiredNames.add(FIELDS[field]);
+                }
+            }
+        }
+        this.minFields = required;
+        this.formatError = "Invalid CSV format. Expected at least " + required + " fields: " + String.join(", ", requiredNames);
+    }
+
+    private CsvRowMapper(CsvImportProfile profile) {
+        this.profileName = profile.getName();
+        this.header = profile.getHeader() != null ? profile.getHeader() : CsvImportProfile.Header.AUTO;
+        this.delimiter = singleChar("delimiter", profile.getDelimiter());
+        this.decimalSeparator = singleChar("decimalSeparator", profile.getDecimalSeparator());
+        this.groupingSeparator = profile.getGroupingSeparator() == null || profile.getGroupingSeparator().isEmpty()
+                ? CsvTokenizer.NO_GROUPING
+                : singleChar("groupingSeparator", profile.getGroupingSeparator());
+        if (decimalSeparator == groupingSeparator) {
+            throw new RuntimeException("Import profile '" + profileName + "': decimal and grouping separators are the same");
+        }
+        this.negateAmounts = profile.isNegateAmounts();
+
+        List<String> formats = profile.getDateFormats();
+        if (formats == null || formats.isEmpty()) {
+            throw new RuntimeException("Import profile '" + profileName + "' has no date formats");
+        }
+        this.datePatterns = new DatePattern[formats.size()];
+        for (int i = 0; i < formats.size(); i++) {
+            datePatterns[i] = DatePattern.compile(formats.get(i));
+        }
+
+        this.columnNames = new String[FIELDS.length];
+        this.indexes = new int[FIELDS.length];
+        java.util.Arrays.fill(indexes, -1);
+        Map<String, String> columns = profile.getColumns() != null ? profile.getColumns() : Map.of();
+        for (Map.Entry<String, String> column : columns.entrySet()) {
+            int field = fieldIndex(column.getKey());
+            String spec = column.getValue() != null ? column.getValue().trim() : "";
+            if (spec.isEmpty()) {
+                continue;
+            }
+            if (spec.chars().allMatch(Character::isDigit)) {
+                indexes[field] = Integer.parseInt(spec);
+            } else {
+                columnNames[field] = spec.toLowerCase(Locale.ROOT);
+            }
+        }
+
+        if (!isMapped(POSTED_AT)) {
+            throw new RuntimeException("Import profile '" + profileName + "' has no postedAt column");
+        }
+        if (isMapped(AMOUNT) == (isMapped(DEBIT) || isMapped(CREDIT))) {
+            throw new RuntimeException("Import profile '" + profileName + "' needs either an amount column or debit/credit columns");
+        }
+        if (needsHeader() && header == CsvImportProfile.Header.ABSENT) {
+            throw new RuntimeException("Import profile '" + profileName + "' maps columns by name but has no header row");
+        }
+
+        this.minFields = 0;
+        this.formatError = null;
+    }
+
+    /**
+     * Validate and compile a profile. When columns are mapped by header name,
+     * the result has to be completed with {@link #withHeader} before use.
+     */
+    public static CsvRowMapper compile(CsvImportProfile profile) {
+        CsvRowMapper template = new CsvRowMapper(profile);
+        return template.needsHeader() ? template : new CsvRowMapper(template, template.indexes.clone());
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public boolean needsHeader() {
+        for (String name : columnNames) {
+            if (name != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the first non-empty record of a file is a header row.
+     */
+    public boolean isHeader(CsvTokenizer record) {
+        switch (header) {
+            case PRESENT:
+                return true;
+            case ABSENT:
+                return false;
+            default:
+                if (needsHeader()) {
+                    return true;
+                }
+                int postedAt = indexes[POSTED_AT];
+                return postedAt >= record.getFieldCount() || record.getDateTime(postedAt, datePatterns) == null;
+        }
+    }
+
+    /**
+     * Resolve columns mapped by name against a header record.
+     */
+    public CsvRowMapper withHeader(CsvTokenizer headerRecord) {
+        if (!needsHeader()) {
+            return this;
+        }
+        int[] resolved = indexes.clone();
+        for (int field = 0; field < FIELDS.length; field++) {
+            if (columnNames[field] == null) {
+                continue;
+            }
+            for (int column = 0; column < headerRecord.getFieldCount(); column++) {
+                String name = headerRecord.getString(column);
+                if (name != null && name.toLowerCase(Locale.ROOT).equals(columnNames[field])) {
+                    resolved[field] = column;
+                    break;
+                }
+            }
+            if (resolved[field] < 0 && field != DEBIT && field != CREDIT && field != CATEGORY_ID && field != NOTES && field != CATEGORY) {
+                throw new RuntimeException("Column '" + columnNames[field] + "' of import profile '" + profileName
+                        + "' is not in the header");
+            }
+        }
+        return new CsvRowMapper(this, resolved);
+    }
+
+    /**
+     * Build a row from the tokenizer's current record. Problems are reported on
+     * the row rather than thrown.
+     */
+    public CsvTransactionParser.CsvTransactionRow map(CsvTokenizer record) {
+        CsvTransactionParser.CsvTransactionRow row = new CsvTransactionParser.CsvTransactionRow();
+        int lineNumber = record.getRecordLine();
+        row.setLineNumber(lineNumber);
+
+        if (record.hasUnterminatedQuote()) {
+            return error(row, "Unterminated quoted field");
+        }
+        if (record.getFieldCount() < minFields) {
+            return error(row, formatError);
+        }
+
+        // Parse postedAt
+        LocalDateTime postedAt = record.getDateTime(indexes[POSTED_AT], datePatterns);
+        if (postedAt == null) {
+            return error(row, "Invalid date format: " + nullToEmpty(record.getString(indexes[POSTED_AT]))
+                    + ". Expected " + describeDateFormats());
+        }
+        row.setPostedAt(postedAt);
+
+        // Parse amount
+        BigDecimal amount;
+        if (indexes[AMOUNT] >= 0) {
+            amount = record.getDecimal(indexes[AMOUNT], decimalSeparator, groupingSeparator);
+            if (amount == null) {
+                return error(row, "Invalid amount: " + nullToEmpty(record.getString(indexes[AMOUNT])));
+            }
+        } else {
+            amount = debitCreditAmount(record);
+            if (amount == null) {
+                return error(row, "Invalid amount: expected a debit or credit");
+            }
+        }
+        row.setAmount(negateAmounts ? amount.negate() : amount);
+
+        row.setMerchant(optionalString(record, indexes[MERCHANT]));
+        row.setDescription(optionalString(record, indexes[DESCRIPTION]));
+
+        // Parse optional fields
+        int categoryIdColumn = indexes[CATEGORY_ID];
+        if (categoryIdColumn >= 0 && categoryIdColumn < record.getFieldCount() && !record.isEmpty(categoryIdColumn)) {
+            String categoryIdStr = record.getString(categoryIdColumn);
+            try {
+                row.setCategoryId(UUID.fromString(categoryIdStr));
+            } catch (IllegalArgumentException e) {
+                return error(row, "Invalid category ID format: " + categoryIdStr);
+            }
+        }
+
+        row.setCategoryName(optionalString(record, indexes[CATEGORY]));
+        row.setNotes(optionalString(record, indexes[NOTES]));
+        return row;
+    }
+
+    private BigDecimal debitCreditAmount(CsvTokenizer record) {
+        BigDecimal debit = optionalDecimal(record, indexes[DEBIT]);
+        BigDecimal credit = optionalDecimal(record, indexes[CREDIT]);
+        if (debit == null && credit == null) {
+            return null;
+        }
+        BigDecimal amount = credit != null ? credit : BigDecimal.ZERO;
+        return debit != null ? amount.subtract(debit.abs()) : amount;
+    }
+
+    private BigDecimal optionalDecimal(CsvTokenizer record, int column) {
+        if (column < 0 || column >= record.getFieldCount()) {
+            return null;
+        }
+        return record.getDecimal(column, decimalSeparator, groupingSeparator);
+    }
+
+    private static String optionalString(CsvTokenizer record, int column) {
+        return column >= 0 && column < record.getFieldCount() ? record.getString(column) : null;
+    }
+
+    private String describeDateFormats() {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < datePatterns.length; i++) {
+            if (i > 0) {
+                description.append(i == datePatterns.length - 1 ? " or " : ", ");
+            }
+            description.append(datePatterns[i].getPattern());
+        }
+        return description.toString();
+    }
+
+    private boolean isMapped(int field) {
+        return indexes[field] >= 0 || columnNames[field] != null;
+    }
+
+    private int fieldIndex(String name) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (FIELDS[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new RuntimeException("Import profile '" + profileName + "': unknown column field '" + name + "'");
+    }
+
+    private char singleChar(String property, String value) {
+        if (value == null || value.length() != 1) {
+            throw new RuntimeException("Import profile '" + profileName + "': " + property + " must be a single character");
+        }
+        return value.charAt(0);
+    }
+
+    private static CsvTransactionParser.CsvTransactionRow error(CsvTransactionParser.CsvTransactionRow row, String message) {
+        row.setError("Error parsing line " + row.getLineNumber() + ": " + message);
+        return row;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
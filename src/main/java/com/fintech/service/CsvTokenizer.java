@@ -0,0 +1,315 @@
+package com.fintech.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * RFC 4180 record reader that reuses its buffers across records.
+ *
+ * Input is read through one char buffer, and the unquoted content of the
+ * current record's fields is copied into a second, growable buffer with the
+ * field bounds kept in int arrays, so reading a record allocates nothing.
+ * Quoted fields may contain commas, doubled quotes and line breaks; CRLF, LF
+ * and CR all end a record. Strings are only created when a caller asks for one,
+ * and amounts and dates are parsed straight from the buffer.
+ *
+ * Field accessors trim leading and trailing characters up to {@code ' '}, the
+ * same as {@link String#trim()}.
+ */
+public final class CsvTokenizer {
+
+    /** Passed as the grouping separator when numbers have none. */
+    public static final char NO_GROUPING = 0;
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private static final DatePattern[] DEFAULT_DATE_PATTERNS = {
+            DatePattern.compile("yyyy-MM-dd HH:mm:ss"), DatePattern.compile("yyyy-MM-dd")};
+
+    private final Reader reader;
+    private final char delimiter;
+    private final char[] input = new char[READ_BUFFER_SIZE];
+    private int inputPos;
+    private int inputLimit;
+    private boolean eof;
+
+    private char[] chars = new char[256];
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int fieldCount;
+
+    private int line;
+    private int recordLine;
+    private boolean unterminatedQuote;
+
+    public CsvTokenizer(Reader reader) {
+        this(reader, ',', 1);
+    }
+
+    /**
+     * @param delimiter field separator, usually {@code ,} or {@code ;}
+     * @param firstLine line number of the input's first line, for readers that
+     *                  start part-way into a file
+     */
+    public CsvTokenizer(Reader reader, char delimiter, int firstLine) {
+        if (delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Invalid CSV delimiter");
+        }
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.line = firstLine;
+    }
+
+    /**
+     * Advance to the next record. Returns false at the end of the input.
+     */
+    public boolean nextRecord() throws IOException {
+        fieldCount = 0;
+        unterminatedQuote = false;
+        int length = 0;
+        int start = 0;
+        boolean inQuotes = false;
+        boolean any = false;
+        recordLine = line;
+
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                if (!any) {
+                    return false;
+                }
+                unterminatedQuote = inQuotes;
+                break;
+            }
+            any = true;
+
+            if (inQuotes) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        inputPos++;
+                        length = append(length, '"');
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                        line++;
+                    }
+                    length = append(length, (char) c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == delimiter) {
+                addField(start, length);
+                start = length;
+            } else if (c == '\n') {
+                line++;
+                break;
+            } else if (c == '\r') {
+                if (peek() == '\n') {
+                    inputPos++;
+                }
+                line++;
+                break;
+            } else {
+                length = append(length, (char) c);
+            }
+        }
+
+        addField(start, length);
+        return true;
+    }
+
+    /** Physical line on which the current record starts, from 1. */
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    /** True when the input ended inside a quoted field of the current record. */
+    public boolean hasUnterminatedQuote() {
+        return unterminatedQuote;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public boolean isEmpty(int field) {
+        return trimmedStart(field) == trimmedEnd(field);
+    }
+
+    /** The trimmed field, or null when it is empty. */
+    public String getString(int field) {
+        int start = trimmedStart(field);
+        int end = trimmedEnd(field);
+        return start == end ? null : new String(chars, start, end - start);
+    }
+
+    /**
+     * Parse a plain decimal such as {@code -1234.50}. Anything else, exponents
+     * included, goes through {@link BigDecimal}'s own parser. Returns null when
+     * the field is empty or not a number.
+     */
+    public BigDecimal getDecimal(int field) {
+        return getDecimal(field, '.', NO_GROUPING);
+    }
+
+    /**
+     * Parse a decimal with the given separators, such as {@code -1.234,50} with
+     * {@code ','} and {@code '.'}. Grouping separators are skipped wherever they
+     * appear. Returns null when the field is empty or not a number.
+     *
+     * @param groupingSeparator {@link #NO_GROUPING} when there is none
+     */
+    public BigDecimal getDecimal(int field, char decimalSeparator, char groupingSeparator) {
+        int start = trimmedStart(field);
+        int end = trimmedEnd(field);
+        if (start == end) {
+            return null;
+        }
+
+        int i = start;
+        boolean negative = false;
+        if (chars[i] == '-' || chars[i] == '+') {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                if (++digits > 18) {
+                    return parseDecimalSlow(start, end, decimalSeparator, groupingSeparator);
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == decimalSeparator && scale < 0) {
+                scale = 0;
+            } else if (c != groupingSeparator || groupingSeparator == NO_GROUPING || scale >= 0) {
+                return parseDecimalSlow(start, end, decimalSeparator, groupingSeparator);
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    /**
+     * Parse {@code yyyy-MM-dd} or {@code yyyy-MM-dd HH:mm:ss}. Returns null when
+     * the field has neither form.
+     */
+    public LocalDateTime getDateTime(int field) {
+        return getDateTime(field, DEFAULT_DATE_PATTERNS);
+    }
+
+    /**
+     * Parse the field with the first pattern that matches it, or return null.
+     */
+    public LocalDateTime getDateTime(int field, DatePattern[] patterns) {
+        int start = trimmedStart(field);
+        int end = trimmedEnd(field);
+        if (start == end) {
+            return null;
+        }
+        for (DatePattern pattern : patterns) {
+            LocalDateTime parsed = pattern.parse(chars, start, end);
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        return null;
+    }
+
+    private BigDecimal parseDecimalSlow(int start, int end, char decimalSeparator, char groupingSeparator) {
+        try {
+            if (decimalSeparator == '.' && groupingSeparator == NO_GROUPING) {
+                return new BigDecimal(chars, start, end - start);
+            }
+            // Long or otherwise unusual numbers in a localized format; rare enough to copy
+            StringBuilder normalized = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                char c = chars[i];
+                if (c == decimalSeparator) {
+                    normalized.append('.');
+                } else if (c != groupingSeparator || groupingSeparator == NO_GROUPING) {
+                    normalized.append(c);
+                }
+            }
+            return new BigDecimal(normalized.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private int trimmedStart(int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimmedEnd(int field) {
+        int start = trimmedStart(field);
+        int end = fieldEnd[field];
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private int read() throws IOException {
+        if (inputPos == inputLimit && !fill()) {
+            return -1;
+        }
+        return input[inputPos++];
+    }
+
+    private int peek() throws IOException {
+        if (inputPos == inputLimit && !fill()) {
+            return -1;
+        }
+        return input[inputPos];
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int n = reader.read(input, 0, input.length);
+        if (n <= 0) {
+            eof = true;
+            return false;
+        }
+        inputPos = 0;
+        inputLimit = n;
+        return true;
+    }
+
+    private int append(int length, char c) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, chars.length * 2);
+        }
+        chars[length] = c;
+        return length + 1;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldCount++;
+    }
+}
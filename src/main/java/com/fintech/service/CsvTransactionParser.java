@@ -2,141 +2,142 @@ package com.fintech.service;
 
 import com.fintech.domain.Transaction;
 import com.fintech.dto.CreateTransactionRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 
 @Service
 public class CsvTransactionParser {
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final DateTimeFormatter DATE_ONLY_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    @Autowired
+    @Qualifier("csvParsePool")
+    private ForkJoinPool csvParsePool;
+
+    @Value("${imports.parallel-parsing.chunk-mb:8}")
+    private int parallelChunkMb;
+
+    @Autowired
+    private CsvImportProfileRegistry profileRegistry;
+
+    // The built-in layout, for callers outside the application context
+    private static final CsvRowMapper DEFAULT_MAPPER = CsvRowMapper.compile(CsvImportProfile.defaultProfile());
 
     public List<CsvTransactionRow> parseCsv(MultipartFile file) throws IOException {
+        return parseCsv(file, null);
+    }
+
+    public List<CsvTransactionRow> parseCsv(MultipartFile file, String profile) throws IOException {
         List<CsvTransactionRow> rows = new ArrayList<>();
         
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            String line;
-            int lineNumber = 0;
-            
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                
-                // Skip empty lines
-                if (line.trim().isEmpty()) {
-                    continue;
-                }
-                
-                try {
-                    CsvTransactionRow row = parseCsvLine(line, lineNumber);
-                    rows.add(row);
-                } catch (Exception e) {
-                    CsvTransactionRow errorRow = new CsvTransactionRow();
-                    errorRow.setLineNumber(lineNumber);
-                    errorRow.setError("Error parsing line " + lineNumber + ": " + e.getMessage());
-                    rows.add(errorRow);
-                }
+        try (RowReader reader = openReader(file.getInputStream(), profileRegistry.getMapper(profile))) {
+            CsvTransactionRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
             }
         }
         
         return rows;
     }
 
-    private CsvTransactionRow parseCsvLine(String line, int lineNumber) {
-        String[] fields = parseCsvFields(line);
-        
-        if (fields.length < 4) {
-            throw new IllegalArgumentException("Invalid CSV format. Expected at least 4 fields: postedAt, amount, merchant, description");
-        }
-        
-        CsvTransactionRow row = new CsvTransactionRow();
-        row.setLineNumber(lineNumber);
-        
-        try {
-            // Parse postedAt
-            String dateStr = fields[0].trim();
-            LocalDateTime postedAt = parseDateTime(dateStr);
-            row.setPostedAt(postedAt);
-            
-            // Parse amount
-            String amountStr = fields[1].trim();
-            BigDecimal amount = new BigDecimal(amountStr);
-            row.setAmount(amount);
-            
-            // Parse merchant
-            String merchant = fields[2].trim();
-            row.setMerchant(merchant.isEmpty() ? null : merchant);
-            
-            // Parse description
-            String description = fields[3].trim();
-            row.setDescription(description.isEmpty() ? null : description);
-            
-            // Parse optional fields
-            if (fields.length > 4) {
-                String categoryIdStr = fields[4].trim();
-                if (!categoryIdStr.isEmpty()) {
-                    try {
-                        row.setCategoryId(UUID.fromString(categoryIdStr));
-                    } catch (IllegalArgumentException e) {
-                        throw new IllegalArgumentException("Invalid category ID format: " + categoryIdStr);
-                    }
+    /**
+     * Read rows one at a time so an import never has to hold the whole file.
+     */
+    public RowReader openReader(InputStream inputStream) {
+        return openReader(inputStream, DEFAULT_MAPPER);
+    }
+
+    /**
+     * Read rows with a named import profile; null means the default layout.
+     */
+    public RowReader openReader(InputStream inputStream, String profile) {
+        return openReader(inputStream, profileRegistry.getMapper(profile));
+    }
+
+    public RowReader openReader(InputStream inputStream, CsvRowMapper mapper) {
+        return new RowReader(new InputStreamReader(inputStream), mapper);
+    }
+
+    /**
+     * Parse a spooled file on the {@code csvParsePool}, in record-aligned chunks
+     * read through memory mappings. Rows come back in file order.
+     */
+    public ParallelCsvRowReader openParallelReader(Path file, String profile) throws IOException {
+        return new ParallelCsvRowReader(this, file, csvParsePool, parallelChunkMb * 1024L * 1024L, profileRegistry.getMapper(profile));
+    }
+
+    public class RowReader implements TransactionRowReader {
+        private final Reader reader;
+        private final CsvTokenizer tokenizer;
+        private CsvRowMapper mapper;
+        private boolean headerChecked;
+
+        private RowReader(Reader reader, CsvRowMapper mapper) {
+            this.reader = reader;
+            this.tokenizer = new CsvTokenizer(reader, mapper.getDelimiter(), 1);
+            this.mapper = mapper;
+        }
+
+        /**
+         * Returns the next non-empty row, carrying an error if it could not be
+         * parsed, or null at the end of the input. A row's line number is the
+         * line its record starts on, since quoted fields may span lines. A
+         * header row is consumed, not returned.
+         */
+        @Override
+        public CsvTransactionRow next() throws IOException {
+            if (!headerChecked) {
+                headerChecked = true;
+                if (!nextRecord(tokenizer)) {
+                    return null;
                 }
+                if (!mapper.isHeader(tokenizer)) {
+                    return mapper.map(tokenizer);
+                }
+                mapper = mapper.withHeader(tokenizer);
             }
-            
-            if (fields.length > 5) {
-                String notes = fields[5].trim();
-                row.setNotes(notes.isEmpty() ? null : notes);
-            }
-            
-        } catch (Exception e) {
-            row.setError("Error parsing line " + lineNumber + ": " + e.getMessage());
+            return nextRow(tokenizer, mapper);
         }
-        
-        return row;
-    }
 
-    private String[] parseCsvFields(String line) {
-        List<String> fields = new ArrayList<>();
-        StringBuilder currentField = new StringBuilder();
-        boolean inQuotes = false;
-        
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-            
-            if (c == '"') {
-                inQuotes = !inQuotes;
-            } else if (c == ',' && !inQuotes) {
-                fields.add(currentField.toString());
-                currentField = new StringBuilder();
-            } else {
-                currentField.append(c);
-            }
+        @Override
+        public void close() throws IOException {
+            reader.close();
         }
-        
-        fields.add(currentField.toString());
-        return fields.toArray(new String[0]);
     }
 
-    private LocalDateTime parseDateTime(String dateStr) {
-        try {
-            return LocalDateTime.parse(dateStr, DATE_FORMATTER);
-        } catch (DateTimeParseException e1) {
-            try {
-                return LocalDateTime.parse(dateStr + " 00:00:00", DATE_FORMATTER);
-            } catch (DateTimeParseException e2) {
-                throw new IllegalArgumentException("Invalid date format: " + dateStr + ". Expected yyyy-MM-dd or yyyy-MM-dd HH:mm:ss");
+    /**
+     * Parse the tokenizer's next non-empty record, or return null at the end of
+     * its input.
+     */
+    CsvTransactionRow nextRow(CsvTokenizer tokenizer, CsvRowMapper mapper) throws IOException {
+        return nextRecord(tokenizer) ? mapper.map(tokenizer) : null;
+    }
+
+    /**
+     * Advance to the next non-empty record.
+     */
+    static boolean nextRecord(CsvTokenizer tokenizer) throws IOException {
+        while (tokenizer.nextRecord()) {
+            // Skip empty lines
+            if (tokenizer.getFieldCount() == 1 && tokenizer.isEmpty(0)) {
+                continue;
             }
+            return true;
         }
+        return false;
     }
 
     public static class CsvTransactionRow {
@@ -146,7 +147,11 @@ public class CsvTransactionParser {
         private String merchant;
         private String description;
         private UUID categoryId;
+        // Category given by name, resolved against the user's categories on import
+        private String categoryName;
         private String notes;
+        // Id the bank gave the transaction, such as an OFX FITID
+        private String externalId;
         private String error;
 
         // Getters and Setters
@@ -198,6 +203,14 @@ public class CsvTransactionParser {
             this.categoryId = categoryId;
         }
 
+        public String getCategoryName() {
+            return categoryName;
+        }
+
+        public void setCategoryName(String categoryName) {
+            this.categoryName = categoryName;
+        }
+
         public String getNotes() {
             return notes;
         }
@@ -218,6 +231,14 @@ public class CsvTransactionParser {
             return error != null && !error.isEmpty();
         }
 
+        public String getExternalId() {
+            return externalId;
+        }
+
+        public void setExternalId(String externalId) {
+            this.externalId = externalId;
+        }
+
         public CreateTransactionRequest toCreateRequest() {
             CreateTransactionRequest request = new CreateTransactionRequest();
             request.setPostedAt(this.postedAt);
@@ -226,6 +247,7 @@ public class CsvTransactionParser {
             request.setDescription(this.description);
             request.setCategoryId(this.categoryId);
             request.setNotes(this.notes);
+            request.setExternalId(this.externalId);
             return request;
         }
     }
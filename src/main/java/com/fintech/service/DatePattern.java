@@ -0,0 +1,154 @@
+package com.fintech.service;
+
+import java.text.ParsePosition;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * A date or date-time format compiled for parsing straight from a char buffer.
+ *
+ * Patterns made only of {@code yyyy}, {@code MM}, {@code dd}, {@code HH},
+ * {@code mm}, {@code ss} and punctuation are read by fixed position with no
+ * allocation beyond the result. Any other {@link DateTimeFormatter} pattern
+ * works too, through a formatter that first parses without resolving, so text
+ * in the wrong format is rejected without an exception. Patterns without a
+ * time yield midnight. Parse methods return null when the text doesn't match.
+ */
+public final class DatePattern {
+
+    private static final int YEAR = 0;
+    private static final int MONTH = 1;
+    private static final int DAY = 2;
+    private static final int HOUR = 3;
+    private static final int MINUTE = 4;
+    private static final int SECOND = 5;
+
+    private final String pattern;
+    private final int length;
+    // Fixed-position form: offset of each field, or -1, and the literal chars
+    private final int[] offsets;
+    private final char[] literals;
+    // Fallback for other patterns
+    private final DateTimeFormatter formatter;
+
+    private DatePattern(String pattern, int[] offsets, char[] literals, DateTimeFormatter formatter) {
+        this.pattern = pattern;
+        this.length = pattern.length();
+        this.offsets = offsets;
+        this.literals = literals;
+        this.formatter = formatter;
+    }
+
+    public static DatePattern compile(String pattern) {
+        int[] offsets = {-1, -1, -1, -1, -1, -1};
+        char[] literals = new char[pattern.length()];
+        int i = 0;
+        boolean fixed = true;
+        while (i < pattern.length() && fixed) {
+            char c = pattern.charAt(i);
+            int run = 1;
+            while (i + run < pattern.length() && pattern.charAt(i + run) == c) {
+                run++;
+            }
+            int field = fieldOf(c, run);
+            if (field >= 0 && offsets[field] < 0) {
+                offsets[field] = i;
+            } else if (Character.isLetter(c) || c == '\'' || field >= 0) {
+                fixed = false;
+            } else {
+                for (int k = 0; k < run; k++) {
+                    literals[i + k] = c;
+                }
+            }
+            i += run;
+        }
+
+        if (fixed && offsets[YEAR] >= 0 && offsets[MONTH] >= 0 && offsets[DAY] >= 0) {
+            return new DatePattern(pattern, offsets, literals, null);
+        }
+        try {
+            return new DatePattern(pattern, null, null, DateTimeFormatter.ofPattern(pattern));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid date format '" + pattern + "': " + e.getMessage());
+        }
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public LocalDateTime parse(char[] chars, int start, int end) {
+        if (formatter != null) {
+            return parseWithFormatter(new String(chars, start, end - start));
+        }
+        if (end - start != length) {
+            return null;
+        }
+        for (int i = 0; i < length; i++) {
+            char literal = literals[i];
+            if (literal != 0 && chars[start + i] != literal) {
+                return null;
+            }
+        }
+
+        int year = digits(chars, start, YEAR, 4);
+        int month = digits(chars, start, MONTH, 2);
+        int day = digits(chars, start, DAY, 2);
+        int hour = digits(chars, start, HOUR, 2);
+        int minute = digits(chars, start, MINUTE, 2);
+        int second = digits(chars, start, SECOND, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+        // A day past the end of the month resolves to its last day, like DateTimeFormatter's SMART style
+        int lastDay = YearMonth.of(year, month).lengthOfMonth();
+        return LocalDateTime.of(year, month, Math.min(day, lastDay), hour, minute, second);
+    }
+
+    private int digits(char[] chars, int start, int field, int count) {
+        int offset = offsets[field];
+        if (offset < 0) {
+            return 0;
+        }
+        int value = 0;
+        for (int i = start + offset; i < start + offset + count; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private LocalDateTime parseWithFormatter(String text) {
+        ParsePosition position = new ParsePosition(0);
+        if (formatter.parseUnresolved(text, position) == null || position.getIndex() != text.length()) {
+            return null;
+        }
+        try {
+            TemporalAccessor parsed = formatter.parseBest(text, LocalDateTime::from, LocalDate::from);
+            return parsed instanceof LocalDateTime ? (LocalDateTime) parsed : ((LocalDate) parsed).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            // Well-formed but not a valid date, such as month 13
+            return null;
+        }
+    }
+
+    private static int fieldOf(char c, int run) {
+        switch (c) {
+            case 'y': return run == 4 ? YEAR : -1;
+            case 'M': return run == 2 ? MONTH : -1;
+            case 'd': return run == 2 ? DAY : -1;
+            case 'H': return run == 2 ? HOUR : -1;
+            case 'm': return run == 2 ? MINUTE : -1;
+            case 's': return run == 2 ? SECOND : -1;
+            default: return -1;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.fintech.service;
+
+import com.fintech.repo.TransactionRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based duplicate check for one import into one account.
+ *
+ * Instead of one {@code findDuplicates} query per row, the keys of the account's
+ * existing transactions are loaded for the rows' date window and kept as 64-bit
+ * fingerprints of (postedAt, amount, merchant, description). Rows accepted by the
+ * import are added too, so repeated lines within the same file are caught as well.
+ *
+ * The semantics of {@code findDuplicates} are kept: a row without a merchant or
+ * description matches existing transactions with any value there. Every known
+ * transaction is therefore stored under four fingerprints, with merchant and/or
+ * description replaced by a wildcard, and a row is looked up with a wildcard in
+ * place of each missing field. Amounts compare numerically (10.5 equals 10.50).
+ *
+ * The loaded window is tracked by day and only grows: when a chunk falls outside
+ * it, the missing side is loaded and stretched to at least the current span, so
+ * a file sorted by date needs a logarithmic number of queries rather than one
+ * per chunk.
+ *
+ * Rows that carry the bank's own id (an OFX FITID) are also matched by that id,
+ * since the account's external ids are unique. Those are looked up per chunk.
+ * Instances are not thread-safe.
+ */
+public class DuplicateDetector {
+
+    private static final long NULL_FIELD = 0x6a09e667f3bcc908L;
+    private static final long ANY_FIELD = 0xbb67ae8584caa73bL;
+
+    private final TransactionRepository transactionRepository;
+    private final UUID accountId;
+    private final LongHashSet known = new LongHashSet();
+    // Rows accepted since the last commit(); dropped if their chunk rolls back
+    private final LongHashSet pending = new LongHashSet();
+    private final Set<String> knownExternalIds = new HashSet<>();
+    private final Set<String> pendingExternalIds = new HashSet<>();
+    private LocalDate loadedFrom;
+    private LocalDate loadedTo;
+    private int queries;
+
+    public DuplicateDetector(TransactionRepository transactionRepository, UUID accountId) {
+        this.transactionRepository = transactionRepository;
+        this.accountId = accountId;
+    }
+
+    /**
+     * Make sure the existing transactions for the rows' date window are loaded.
+     * Rows with errors are ignored.
+     */
+    public void prepare(List<CsvTransactionParser.CsvTransactionRow> rows) {
+        LocalDate min = null;
+        LocalDate max = null;
+        Set<String> externalIds = new HashSet<>();
+        for (CsvTransactionParser.CsvTransactionRow row : rows) {
+            if (row.hasError()) {
+                continue;
+            }
+            if (row.getExternalId() != null && !knownExternalIds.contains(row.getExternalId())) {
+                externalIds.add(row.getExternalId());
+            }
+            if (row.getPostedAt() == null) {
+                continue;
+            }
+            LocalDate date = row.getPostedAt().toLocalDate();
+            if (min == null || date.isBefore(min)) {
+                min = date;
+            }
+            if (max == null || date.isAfter(max)) {
+                max = date;
+            }
+        }
+        if (!externalIds.isEmpty()) {
+            queries++;
+            knownExternalIds.addAll(transactionRepository.findExistingExternalIds(accountId, externalIds));
+        }
+        if (min == null) {
+            return;
+        }
+
+        if (loadedFrom == null) {
+            load(min, max.plusDays(1));
+            loadedFrom = min;
+            loadedTo = max.plusDays(1);
+            return;
+        }
+
+        long span = ChronoUnit.DAYS.between(loadedFrom, loadedTo);
+        if (!max.isBefore(loadedTo)) {
+            LocalDate to = later(max.plusDays(1), loadedTo.plusDays(span));
+            load(loadedTo, to);
+            loadedTo = to;
+        }
+        if (min.isBefore(loadedFrom)) {
+            LocalDate from = earlier(min, loadedFrom.minusDays(span));
+            load(from, loadedFrom);
+            loadedFrom = from;
+        }
+    }
+
+    public boolean isDuplicate(CsvTransactionParser.CsvTransactionRow row) {
+        String externalId = row.getExternalId();
+        if (externalId != null && (knownExternalIds.contains(externalId) || pendingExternalIds.contains(externalId))) {
+            return true;
+        }
+        if (row.getPostedAt() == null || row.getAmount() == null) {
+            // findDuplicates never matches a null posting date or amount
+            return false;
+        }
+        long key = fingerprint(row.getPostedAt(), row.getAmount(),
+                row.getMerchant() != null ? fieldHash(row.getMerchant()) : ANY_FIELD,
+                row.getDescription() != null ? fieldHash(row.getDescription()) : ANY_FIELD);
+        return known.contains(key) || pending.contains(key);
+    }
+
+    /**
+     * Record a row that has been imported, so later identical rows are reported
+     * as duplicates. It only counts for rows outside the current chunk after
+     * {@link #commit()}.
+     */
+    public void add(CsvTransactionParser.CsvTransactionRow row) {
+        if (row.getPostedAt() != null && row.getAmount() != null) {
+            addVariants(pending, row.getPostedAt(), row.getAmount(), row.getMerchant(), row.getDescription());
+        }
+        if (row.getExternalId() != null) {
+            pendingExternalIds.add(row.getExternalId());
+        }
+    }
+
+    /** The rows added since the last commit have been persisted. */
+    public void commit() {
+        known.addAll(pending);
+        pending.clear();
+        knownExternalIds.addAll(pendingExternalIds);
+        pendingExternalIds.clear();
+    }
+
+    /** The rows added since the last commit were rolled back. */
+    public void discard() {
+        pending.clear();
+        pendingExternalIds.clear();
+    }
+
+    int getQueryCount() {
+        return queries;
+    }
+
+    private void load(LocalDate from, LocalDate to) {
+        queries++;
+        List<Object[]> rows = transactionRepository.findDuplicateKeysBetween(
+                accountId, from.atStartOfDay(), to.atStartOfDay());
+        for (Object[] row : rows) {
+            addVariants(known, (LocalDateTime) row[0], (BigDecimal) row[1], (String) row[2], (String) row[3]);
+        }
+    }
+
+    private static void addVariants(LongHashSet set, LocalDateTime postedAt, BigDecimal amount,
+                                    String merchant, String description) {
+        long merchantHash = merchant != null ? fieldHash(merchant) : NULL_FIELD;
+        long descriptionHash = description != null ? fieldHash(description) : NULL_FIELD;
+        set.add(fingerprint(postedAt, amount, merchantHash, descriptionHash));
+        set.add(fingerprint(postedAt, amount, ANY_FIELD, descriptionHash));
+        set.add(fingerprint(postedAt, amount, merchantHash, ANY_FIELD));
+        set.add(fingerprint(postedAt, amount, ANY_FIELD, ANY_FIELD));
+    }
+
+    static long fingerprint(LocalDateTime postedAt, BigDecimal amount, long merchantHash, long descriptionHash) {
+        BigDecimal normalized = amount.stripTrailingZeros();
+        long h = mix(0, postedAt.toEpochSecond(ZoneOffset.UTC));
+        h = mix(h, postedAt.getNano());
+        h = mix(h, normalized.scale());
+        h = mix(h, normalized.unscaledValue().longValue());
+        h = mix(h, merchantHash);
+        h = mix(h, descriptionHash);
+        // murmur3 finalizer
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** 64-bit FNV-1a over the UTF-16 code units. */
+    static long fieldHash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static long mix(long h, long value) {
+        h ^= value;
+        h *= 0x9e3779b97f4a7c15L;
+        return Long.rotateLeft(h, 31);
+    }
+
+    private static LocalDate later(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate earlier(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Open-addressing set of longs, so large windows don't cost a boxed Long and
+     * a map entry per fingerprint.
+     */
+    static final class LongHashSet {
+        private static final long EMPTY = 0;
+
+        private long[] table = new long[1024];
+        private boolean containsEmpty;
+        private int size;
+
+        boolean add(long value) {
+            if (value == EMPTY) {
+                boolean added = !containsEmpty;
+                containsEmpty = true;
+                return added;
+            }
+            if ((size + 1) * 2 > table.length) {
+                resize();
+            }
+            if (insert(table, value)) {
+                size++;
+                return true;
+            }
+            return false;
+        }
+
+        boolean contains(long value) {
+            if (value == EMPTY) {
+                return containsEmpty;
+            }
+            int mask = table.length - 1;
+            for (int i = index(value, mask); ; i = (i + 1) & mask) {
+                long slot = table[i];
+                if (slot == value) {
+                    return true;
+                }
+                if (slot == EMPTY) {
+                    return false;
+                }
+            }
+        }
+
+        void addAll(LongHashSet other) {
+            if (other.containsEmpty) {
+                add(EMPTY);
+            }
+            for (long value : other.table) {
+                if (value != EMPTY) {
+                    add(value);
+                }
+            }
+        }
+
+        void clear() {
+            if (size > 0) {
+                Arrays.fill(table, EMPTY);
+            }
+            size = 0;
+            containsEmpty = false;
+        }
+
+        int size() {
+            return size + (containsEmpty ? 1 : 0);
+        }
+
+        private void resize() {
+            long[] grown = new long[table.length * 2];
+            for (long value : table) {
+                if (value != EMPTY) {
+                    insert(grown, value);
+                }
+            }
+            table = grown;
+        }
+
+        private static boolean insert(long[] table, long value) {
+            int mask = table.length - 1;
+            for (int i = index(value, mask); ; i = (i + 1) & mask) {
+                long slot = table[i];
+                if (slot == value) {
+                    return false;
+                }
+                if (slot == EMPTY) {
+                    table[i] = value;
+                    return true;
+                }
+            }
+        }
+
+        private static int index(long value, int mask) {
+            // Fingerprints are already well mixed
+            return (int) (value ^ (value >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.fintech.service;
+
+import com.fintech.domain.Account;
+import com.fintech.domain.ExternalAccount;
+import com.fintech.repo.AccountRepository;
+import com.fintech.repo.ExternalAccountRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves a provider's account id to the internal account it was linked to.
+ *
+ * Lookups go through a bounded LRU cache in front of the unique index on
+ * {@code external_accounts}, so resolving an account for a webhook is a cache
+ * hit or a single indexed query. Linking evicts the entry on this instance;
+ * another instance keeps its cached account until the entry ages out, which
+ * only matters when an external account is re-linked to a different one.
+ *
+ * Ids without a mapping fall back to an account named after the external id,
+ * which is how accounts were matched before mappings existed.
+ */
+@Component
+public class ExternalAccountResolver {
+
+    @Autowired
+    private ExternalAccountRepository externalAccountRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Value("${webhooks.accounts.cache-size:10000}")
+    private int cacheSize;
+
+    private Map<String, AccountRef> cache;
+
+    // Bumped on every link so a lookup racing with it is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AccountRef> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public AccountRef resolve(String provider, String externalAccountId) {
+        String key = key(provider, externalAccountId);
+        synchronized (cache) {
+            AccountRef cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        long loadGeneration = generation.get();
+        AccountRef ref = load(provider, externalAccountId)
+                .orElseThrow(() -> new RuntimeException("Account not found for external ID: " + externalAccountId));
+        synchronized (cache) {
+            if (generation.get() == loadGeneration) {
+                cache.put(key, ref);
+            }
+        }
+        return ref;
+    }
+
+    /**
+     * Map an external account to an internal one, replacing any earlier
+     * mapping. The cached entry is dropped now and again once the current
+     * transaction completes, so no lookup caches the mapping it replaced.
+     */
+    public void link(String provider, String externalAccountId, UUID accountId, UUID bankConnectionId) {
+        externalAccountRepository.link(provider, externalAccountId, accountId, bankConnectionId);
+        String key = key(provider, externalAccountId);
+        evict(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(key);
+                }
+            });
+        }
+    }
+
+    private void evict(String key) {
+        generation.incrementAndGet();
+        synchronized (cache) {
+            cache.remove(key);
+        }
+    }
+
+    private Optional<AccountRef> load(String provider, String externalAccountId) {
+        Optional<ExternalAccount> mapping = externalAccountRepository.findByProviderAndExternalAccountId(provider, externalAccountId);
+        if (mapping.isPresent()) {
+            return accountRepository.findById(mapping.get().getAccountId()).map(AccountRef::of);
+        }
+        return accountRepository.findFirstByNameOrderByCreatedAtAsc(externalAccountId).map(AccountRef::of);
+    }
+
+    private static String key(String provider, String externalAccountId) {
+        return provider + '\u0000' + externalAccountId;
+    }
+
+    /**
+     * The parts of an account webhook ingestion needs, safe to share between
+     * threads unlike the entity.
+     */
+    public static class AccountRef {
+        private final UUID accountId;
+        private final UUID userId;
+
+        public AccountRef(UUID accountId, UUID userId) {
+            this.accountId = accountId;
+            this.userId = userId;
+        }
+
+        static AccountRef of(Account account) {
+            return new AccountRef(account.getId(), account.getUserId());
+        }
+
+        public UUID getAccountId() {
+            return accountId;
+        }
+
+        public UUID getUserId() {
+            return userId;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.fintech.service;
+
+import com.fintech.domain.ImportDigest;
+import com.fintech.dto.CsvImportResult;
+import com.fintech.repo.ImportDigestRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Content hashes that make re-uploads cheap.
+ *
+ * A FILE digest is the SHA-256 of an upload's bytes, salted with its format and
+ * CSV profile since those change what the bytes mean. It is recorded once an
+ * import finishes without a rolled-back chunk, and an identical upload then
+ * returns straight away without being parsed.
+ *
+ * A PREFIX digest hashes the parsed rows from the start of a file up to a chunk
+ * boundary, and is recorded in the same transaction as that chunk. An upload
+ * whose leading rows were already committed by an earlier import, such as a
+ * statement re-exported with more recent rows appended, skips those chunks
+ * without a duplicate query. Rows are hashed after parsing, so the digests do
+ * not depend on the file format. Checkpoints fall every
+ * {@code imports.chunk-size} rows and at the end of each file.
+ *
+ * Digests only stand for rows that are still stored, so deleting any of an
+ * account's transactions clears the account's digests; the next upload is
+ * then checked row by row for duplicates.
+ */
+@Service
+public class ImportDigestService {
+
+    @Autowired
+    private ImportDigestRepository importDigestRepository;
+
+    @Value("${imports.chunk-size:1000}")
+    private int checkpointInterval;
+
+    /**
+     * Start a FILE digest; feed it the upload's bytes and pass the result to
+     * {@link #toHex}.
+     */
+    public MessageDigest startFileDigest(TransactionFileFormat format, String profile) {
+        MessageDigest digest = sha256();
+        String salt = format.name() + "\n" + (format == TransactionFileFormat.CSV && profile != null ? profile : "") + "\n";
+        digest.update(salt.getBytes(StandardCharsets.UTF_8));
+        return digest;
+    }
+
+    public String hashFile(InputStream in, TransactionFileFormat format, String profile) throws IOException {
+        MessageDigest digest = startFileDigest(format, profile);
+        byte[] buffer = new byte[64 * 1024];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            digest.update(buffer, 0, n);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * The earlier import of the same file into this account, or null.
+     */
+    public ImportDigest findImportedFile(UUID accountId, String fileHash) {
+        if (fileHash == null) {
+            return null;
+        }
+        return importDigestRepository.findByAccountIdAndDigestTypeAndDigest(accountId, ImportDigest.DigestType.FILE, fileHash)
+                .orElse(null);
+    }
+
+    @Transactional
+    public void recordFile(UUID accountId, String fileHash, String fileName, int rowCount) {
+        importDigestRepository.addDigest(accountId, ImportDigest.DigestType.FILE.name(), fileHash, rowCount, truncate(fileName));
+    }
+
+    public Set<String> loadPrefixDigests(UUID accountId) {
+        return new HashSet<>(importDigestRepository.findDigests(accountId, ImportDigest.DigestType.PREFIX));
+    }
+
+    /**
+     * Record that the first {@code rowCount} rows hashing to {@code digest} are
+     * imported. Call inside the transaction that commits the last of them.
+     */
+    @Transactional
+    public void recordPrefix(UUID accountId, String digest, int rowCount, String fileName) {
+        importDigestRepository.addDigest(accountId, ImportDigest.DigestType.PREFIX.name(), digest, rowCount, truncate(fileName));
+    }
+
+    /**
+     * Forget every import into the account, once rows it recorded may be gone.
+     */
+    public void clearDigests(UUID accountId) {
+        importDigestRepository.deleteByAccountId(accountId);
+    }
+
+    /**
+     * The result reported for an upload identical to an earlier import.
+     */
+    public CsvImportResult alreadyImported(ImportDigest file) {
+        CsvImportResult result = new CsvImportResult(file.getRowCount(), 0, 0, new ArrayList<>(), List.of());
+        result.setSkippedRows(file.getRowCount());
+        return result;
+    }
+
+    /**
+     * For imports that hold all their rows: how many leading rows an earlier
+     * import already committed, at the latest matching checkpoint.
+     */
+    public int findImportedPrefix(UUID accountId, List<CsvTransactionParser.CsvTransactionRow> rows) {
+        Set<String> known = loadPrefixDigests(accountId);
+        if (known.isEmpty()) {
+            return 0;
+        }
+        int imported = 0;
+        RowDigest digest = new RowDigest();
+        for (CsvTransactionParser.CsvTransactionRow row : rows) {
+            digest.update(row);
+            if (isCheckpoint(digest.getRowCount(), rows.size()) && known.contains(digest.current())) {
+                imported = digest.getRowCount();
+            }
+        }
+        return imported;
+    }
+
+    /**
+     * For imports that hold all their rows: record every checkpoint of the list.
+     */
+    public void recordPrefixes(UUID accountId, List<CsvTransactionParser.CsvTransactionRow> rows, String fileName) {
+        RowDigest digest = new RowDigest();
+        for (CsvTransactionParser.CsvTransactionRow row : rows) {
+            digest.update(row);
+            if (isCheckpoint(digest.getRowCount(), rows.size())) {
+                recordPrefix(accountId, digest.current(), digest.getRowCount(), fileName);
+            }
+        }
+    }
+
+    private boolean isCheckpoint(int rowCount, int totalRows) {
+        return rowCount % checkpointInterval == 0 || rowCount == totalRows;
+    }
+
+    public static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    }
+
+    private static String truncate(String fileName) {
+        return fileName != null && fileName.length() > 255 ? fileName.substring(0, 255) : fileName;
+    }
+
+    /**
+     * Running hash over the parsed rows of a file. Rows that failed to parse
+     * are hashed by their error, so an unchanged prefix matches even with bad
+     * lines in it.
+     */
+    public static class RowDigest {
+        private final MessageDigest digest = sha256();
+        private final StringBuilder text = new StringBuilder();
+        private int rowCount;
+
+        public void update(CsvTransactionParser.CsvTransactionRow row) {
+            text.setLength(0);
+            if (row.hasError()) {
+                append(row.getError());
+            } else {
+                append(row.getPostedAt());
+                append(row.getAmount() != null ? row.getAmount().stripTrailingZeros().toPlainString() : null);
+                append(row.getMerchant());
+                append(row.getDescription());
+                append(row.getCategoryId());
+                append(row.getNotes());
+                // Only when present, so digests of rows without one stay as before
+                if (row.getCategoryName() != null) {
+                    append(row.getCategoryName());
+                }
+            }
+            text.append('\n');
+            digest.update(text.toString().getBytes(StandardCharsets.UTF_8));
+            rowCount++;
+        }
+
+        /** The digest of the rows so far; more rows can still be added. */
+        public String current() {
+            try {
+                return toHex(((MessageDigest) digest.clone()).digest());
+            } catch (CloneNotSupportedException e) {
+                throw new RuntimeException("SHA-256 digest cannot be cloned", e);
+            }
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        private void append(Object value) {
+            // Fields are separated by a unit separator, with null distinct from empty
+            text.append(value != null ? value.toString() : "\u0000").append('\u001f');
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.fintech.service;
+
+import com.fintech.domain.ImportDigest;
+import com.fintech.dto.CsvImportResult;
+import com.fintech.dto.ImportJobDto;
+import com.fintech.repo.AccountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs CSV, OFX and QIF imports in the background.
+ *
+ * The upload is spooled to a temporary file on the request thread, since the
+ * multipart data is gone once the request completes, and the import then runs
+ * on the bounded {@code importExecutor} through the streaming
+ * {@link TransactionImportService}, one transaction per chunk. CSV files of at
+ * least {@code imports.parallel-parsing.min-file-size-mb} are parsed with a
+ * {@link ParallelCsvRowReader} over the spool file. Jobs can be
+ * polled, cancelled between chunks, and their result fetched once finished.
+ * A file already imported into the account finishes at once, from its hash.
+ * Finished jobs are kept in memory for an hour.
+ */
+@Service
+public class ImportJobService {
+
+    @Autowired
+    private TransactionImportService transactionImportService;
+
+    @Autowired
+    private CsvTransactionParser csvParser;
+
+    @Autowired
+    private TransactionFileParser transactionFileParser;
+
+    @Autowired
+    private ImportDigestService importDigestService;
+
+    @Autowired
+    private CsvImportProfileRegistry profileRegistry;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    @Qualifier("importExecutor")
+    private TaskExecutor importExecutor;
+
+    @Value("${imports.parallel-parsing.min-file-size-mb:64}")
+    private long parallelParsingMinMb;
+
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobDto startJob(UUID userId, UUID accountId, MultipartFile file, String profile) {
+        pruneFinishedJobs();
+        accountRepository.findById(accountId)
+                .filter(account -> account.getUserId().equals(userId))
+                .orElseThrow(() -> new RuntimeException("Account not found"));
+        // Reject an unknown profile before spooling the upload
+        profileRegistry.getMapper(profile);
+
+        // Hash the upload while spooling it, so a repeated file costs no second read
+        TransactionFileFormat format = TransactionFileParser.formatOf(file);
+        MessageDigest fileDigest = importDigestService.startFileDigest(format, profile);
+        Path spool;
+        try {
+            spool = Files.createTempFile("transaction-import-", ".tmp");
+            try (InputStream in = new DigestInputStream(file.getInputStream(), fileDigest)) {
+                Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error storing import file: " + e.getMessage());
+        }
+
+        Job job = new Job(userId, accountId, file.getOriginalFilename(), format, profile,
+                ImportDigestService.toHex(fileDigest.digest()), spool, file.getSize());
+        jobs.put(job.id, job);
+        try {
+            importExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            deleteSpool(job);
+            throw new RuntimeException("Too many imports queued, try again later");
+        }
+        return job.toDto();
+    }
+
+    public ImportJobDto getJob(UUID userId, UUID jobId) {
+        return findJob(userId, jobId).toDto();
+    }
+
+    /**
+     * Ask the job to stop. A queued job never starts; a running one stops before
+     * its next chunk and keeps what it has already committed.
+     */
+    public ImportJobDto cancelJob(UUID userId, UUID jobId) {
+        Job job = findJob(userId, jobId);
+        if (!job.isFinished()) {
+            job.cancelRequested = true;
+        }
+        return job.toDto();
+    }
+
+    public CsvImportResult getResult(UUID userId, UUID jobId) {
+        Job job = findJob(userId, jobId);
+        if (job.result == null) {
+            throw new RuntimeException("Import job " + jobId + " has no result (status " + job.status.name() + ")");
+        }
+        return job.result;
+    }
+
+    // Another user's job is reported as missing, like RecategorizationService does
+    private Job findJob(UUID userId, UUID jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new RuntimeException("Import job not found");
+        }
+        return job;
+    }
+
+    private void run(Job job) {
+        job.startedAt = LocalDateTime.now();
+        try {
+            if (job.cancelRequested) {
+                job.status = JobStatus.CANCELLED;
+                return;
+            }
+            job.status = JobStatus.RUNNING;
+            ImportDigest importedFile = importDigestService.findImportedFile(job.accountId, job.fileHash);
+            if (importedFile != null) {
+                job.result = importDigestService.alreadyImported(importedFile);
+                job.chunkImported(job.result.getTotalRows(), 0, 0);
+            } else {
+                try (InputStream in = Files.newInputStream(job.spool)) {
+                    transactionFileParser.checkSingleAccount(in, job.format);
+                }
+                try (TransactionRowReader reader = openReader(job)) {
+                    job.result = transactionImportService.importRows(job.accountId, reader, job.fileName, job.fileHash, job);
+                }
+            }
+            job.status = job.cancelRequested ? JobStatus.CANCELLED : JobStatus.COMPLETED;
+        } catch (Exception e) {
+            job.status = JobStatus.FAILED;
+            job.errorMessage = e.getMessage();
+            System.err.println("Import job " + job.id + " failed: " + e.getMessage());
+        } finally {
+            deleteSpool(job);
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private TransactionRowReader openReader(Job job) throws IOException {
+        if (job.format == TransactionFileFormat.CSV && job.fileSize >= parallelParsingMinMb * 1024L * 1024L) {
+            return csvParser.openParallelReader(job.spool, job.profile);
+        }
+        return transactionFileParser.openReader(Files.newInputStream(job.spool), job.format, job.profile);
+    }
+
+    private void deleteSpool(Job job) {
+        try {
+            Files.deleteIfExists(job.spool);
+        } catch (IOException e) {
+            System.err.println("Failed to delete import spool file " + job.spool + ": " + e.getMessage());
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(1);
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt.isBefore(cutoff));
+    }
+
+    private enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private static class Job implements TransactionImportService.ImportProgress {
+        private final UUID id = UUID.randomUUID();
+        private final UUID userId;
+        private final UUID accountId;
+        private final String fileName;
+        private final TransactionFileFormat format;
+        private final String profile;
+        private final String fileHash;
+        private final Path spool;
+        private final long fileSize;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        // Written by the worker thread only, apart from the cancel flag
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile boolean cancelRequested;
+        private volatile int rowsRead;
+        private volatile int successfulImports;
+        private volatile int failedImports;
+        private volatile CsvImportResult result;
+        private volatile String errorMessage;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        Job(UUID userId, UUID accountId, String fileName, TransactionFileFormat format, String profile, String fileHash,
+            Path spool, long fileSize) {
+            this.userId = userId;
+            this.accountId = accountId;
+            this.fileName = fileName;
+            this.format = format;
+            this.profile = profile;
+            this.fileHash = fileHash;
+            this.spool = spool;
+            this.fileSize = fileSize;
+        }
+
+        @Override
+        public void chunkImported(int rowsRead, int successfulImports, int failedImports) {
+            this.rowsRead = rowsRead;
+            this.successfulImports = successfulImports;
+            this.failedImports = failedImports;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelRequested;
+        }
+
+        boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        ImportJobDto toDto() {
+            ImportJobDto dto = new ImportJobDto();
+            dto.setId(id);
+            dto.setAccountId(accountId);
+            dto.setFileName(fileName);
+            dto.setProfile(profile != null ? profile : CsvImportProfile.DEFAULT_NAME);
+            dto.setStatus(status.name());
+            dto.setFileSizeBytes(fileSize);
+            dto.setRowsRead(rowsRead);
+            dto.setSuccessfulImports(successfulImports);
+            dto.setFailedImports(failedImports);
+            dto.setErrorMessage(errorMessage);
+            dto.setCreatedAt(createdAt);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.fintech.service;
+
+import com.fintech.dto.LatencyStatsDto;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets.
+ *
+ * Recording is a couple of atomic increments, so it is cheap enough for hot
+ * paths. Percentiles are reported as the upper bound of the bucket they fall
+ * in, i.e. accurate to within a factor of two.
+ */
+public class LatencyHistogram {
+
+    // Bucket b holds samples below 2^b microseconds; the last one is open-ended
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(0L, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        totalNanos.add(nanos);
+        if (nanos > maxNanos.get()) {
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    public LatencyStatsDto snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+
+        LatencyStatsDto stats = new LatencyStatsDto();
+        stats.setCount(count);
+        if (count > 0) {
+            stats.setMeanMicros(totalNanos.sum() / 1000.0 / count);
+            stats.setP50Micros(percentile(snapshot, count, 0.50));
+            stats.setP95Micros(percentile(snapshot, count, 0.95));
+            stats.setP99Micros(percentile(snapshot, count, 0.99));
+            stats.setMaxMicros(maxNanos.get() / 1000);
+        }
+        return stats;
+    }
+
+    private static long percentile(long[] snapshot, long count, double quantile) {
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (snapshot.length - 1);
+    }
+}
@@ -1,8 +1,10 @@
 package com.fintech.service;
 
+import com.fintech.domain.Account;
 import com.fintech.domain.BankConnection;
 import com.fintech.dto.BankConnectionDto;
 import com.fintech.dto.LinkBankRequest;
+import com.fintech.repo.AccountRepository;
 import com.fintech.repo.BankConnectionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -18,9 +20,18 @@ import java.util.stream.Collectors;
 @Transactional
 public class MockBankService {
 
+    // Provider name for mock bank accounts in external_accounts
+    public static final String PROVIDER = "mockbank";
+
     @Autowired
     private BankConnectionRepository bankConnectionRepository;
 
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ExternalAccountResolver externalAccountResolver;
+
     @Autowired
     private AuditLogService auditLogService;
 
@@ -47,6 +58,10 @@ public class MockBankService {
 
         BankConnection savedConnection = bankConnectionRepository.save(connection);
 
+        // Webhooks name the account by its number
+        Account account = findOrCreateAccount(userId, request);
+        externalAccountResolver.link(PROVIDER, request.getAccountNumber(), account.getId(), savedConnection.getId());
+
         // Log audit
         auditLogService.logBankConnectionAction(com.fintech.domain.AuditLog.AuditAction.CREATE, savedConnection, null);
 
@@ -92,6 +107,24 @@ public class MockBankService {
                 .orElseThrow(() -> new RuntimeException("Invalid access token"));
     }
 
+    /**
+     * The user's account with the linked account's name, created if the user
+     * has none.
+     */
+    private Account findOrCreateAccount(UUID userId, LinkBankRequest request) {
+        for (Account account : accountRepository.findByUserId(userId)) {
+            if (account.getName().equals(request.getAccountName())) {
+                return account;
+            }
+        }
+        Account account = new Account();
+        account.setUserId(userId);
+        account.setName(request.getAccountName());
+        account.setAccountType(Account.AccountType.CHECKING);
+        account.setCurrency(request.getCurrency());
+        return accountRepository.save(account);
+    }
+
     private String generateFakeAccessToken() {
         // Generate a fake access token for testing
         return "mock_token_" + UUID.randomUUID().toString().replace("-", "");
@@ -0,0 +1,263 @@
+package com.fintech.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over a set of ASCII literals.
+ *
+ * Matching is ASCII case-insensitive, the same folding {@code Pattern.CASE_INSENSITIVE}
+ * applies, and a single pass over the text reports every literal that occurs in it.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class MultiPatternMatcher {
+
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    // Per-state transitions: sorted keys and the matching child states
+    private final char[][] keys;
+    private final int[][] children;
+    private final int[] fail;
+    // Literal ids ending exactly at a state, and the next state on the fail chain that has any
+    private final int[][] outputs;
+    private final int[] outputLink;
+    private final int[] rootTransitions;
+
+    private MultiPatternMatcher(char[][] keys, int[][] children, int[] fail, int[][] outputs, int[] outputLink) {
+        this.keys = keys;
+        this.children = children;
+        this.fail = fail;
+        this.outputs = outputs;
+        this.outputLink = outputLink;
+
+        // Dense table for the root, which is where most characters land
+        this.rootTransitions = new int[128];
+        Arrays.fill(rootTransitions, 0);
+        for (int i = 0; i < keys[0].length; i++) {
+            rootTransitions[keys[0][i]] = children[0][i];
+        }
+    }
+
+    /**
+     * Build an automaton where {@code literals.get(i)} reports id {@code i}. Null
+     * entries are skipped. Every literal must be non-empty ASCII.
+     */
+    public static MultiPatternMatcher build(List<String> literals) {
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(new Node());
+
+        for (int id = 0; id < literals.size(); id++) {
+            String literal = literals.get(id);
+            if (literal == null) {
+                continue;
+            }
+            if (literal.isEmpty() || !isAscii(literal)) {
+                throw new IllegalArgumentException("Literal must be non-empty ASCII: " + literal);
+            }
+            int state = 0;
+            for (int i = 0; i < literal.length(); i++) {
+                char c = fold(literal.charAt(i));
+                int next = nodes.get(state).child(c);
+                if (next < 0) {
+                    next = nodes.size();
+                    nodes.add(new Node());
+                    nodes.get(state).addChild(c, next);
+                }
+                state = next;
+            }
+            nodes.get(state).addOutput(id);
+        }
+
+        int size = nodes.size();
+        int[] fail = new int[size];
+        int[] outputLink = new int[size];
+        Arrays.fill(outputLink, -1);
+
+        // Breadth-first so every fail target is resolved before it is needed
+        Queue<Integer> queue = new ArrayDeque<>();
+        Node root = nodes.get(0);
+        for (int i = 0; i < root.keyCount; i++) {
+            queue.add(root.childStates[i]);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            Node node = nodes.get(state);
+            for (int i = 0; i < node.keyCount; i++) {
+                char c = node.keys[i];
+                int child = node.childStates[i];
+
+                int f = fail[state];
+                int target = nodes.get(f).child(c);
+                while (target < 0 && f != 0) {
+                    f = fail[f];
+                    target = nodes.get(f).child(c);
+                }
+                fail[child] = target >= 0 && target != child ? target : 0;
+                outputLink[child] = nodes.get(fail[child]).outputCount > 0 ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+
+        char[][] keys = new char[size][];
+        int[][] children = new int[size][];
+        int[][] outputs = new int[size][];
+        for (int state = 0; state < size; state++) {
+            Node node = nodes.get(state);
+            int[] order = node.sortedOrder();
+            keys[state] = new char[node.keyCount];
+            children[state] = new int[node.keyCount];
+            for (int i = 0; i < order.length; i++) {
+                keys[state][i] = node.keys[order[i]];
+                children[state][i] = node.childStates[order[i]];
+            }
+            outputs[state] = Arrays.copyOf(node.outputs, node.outputCount);
+        }
+
+        return new MultiPatternMatcher(keys, children, fail, outputs, outputLink);
+    }
+
+    /**
+     * Scan the text once and set the id of every literal found in it.
+     */
+    public void scan(CharSequence text, BitSet hits) {
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = fold(text.charAt(i));
+            if (c >= 128) {
+                // Literals are ASCII, so no state can continue past this character
+                state = 0;
+                continue;
+            }
+            int next = transition(state, c);
+            while (next < 0) {
+                state = fail[state];
+                next = transition(state, c);
+            }
+            state = next;
+
+            for (int s = outputs[state].length > 0 ? state : outputLink[state]; s > 0; s = outputLink[s]) {
+                for (int id : outputs[s]) {
+                    hits.set(id);
+                }
+            }
+        }
+    }
+
+    public int stateCount() {
+        return fail.length;
+    }
+
+    private int transition(int state, char c) {
+        if (state == 0) {
+            return rootTransitions[c];
+        }
+        int index = Arrays.binarySearch(keys[state], c);
+        return index >= 0 ? children[state][index] : -1;
+    }
+
+    /**
+     * Return the literal a regex is equivalent to under {@code find()}, or null if
+     * the regex needs the full engine. Accepts plain ASCII text, text wrapped in
+     * leading/trailing {@code .*}, and backslash-escaped punctuation.
+     */
+    public static String extractLiteral(String regex) {
+        if (regex == null) {
+            return null;
+        }
+        String body = regex;
+        if (body.startsWith(".*")) {
+            body = body.substring(2);
+        }
+        if (body.endsWith(".*") && !body.endsWith("\\.*")) {
+            body = body.substring(0, body.length() - 2);
+        }
+
+        StringBuilder literal = new StringBuilder(body.length());
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c >= 128) {
+                return null;
+            }
+            if (c == '\\') {
+                if (i + 1 >= body.length()) {
+                    return null;
+                }
+                char escaped = body.charAt(++i);
+                // \d, \s, \Q and friends carry meaning; only escaped punctuation is literal
+                if (escaped >= 128 || Character.isLetterOrDigit(escaped)) {
+                    return null;
+                }
+                literal.append(escaped);
+            } else if (REGEX_METACHARACTERS.indexOf(c) >= 0) {
+                return null;
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.length() > 0 ? literal.toString() : null;
+    }
+
+    private static char fold(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Node {
+        private char[] keys = new char[2];
+        private int[] childStates = new int[2];
+        private int keyCount;
+        private int[] outputs = new int[0];
+        private int outputCount;
+
+        int child(char c) {
+            for (int i = 0; i < keyCount; i++) {
+                if (keys[i] == c) {
+                    return childStates[i];
+                }
+            }
+            return -1;
+        }
+
+        void addChild(char c, int state) {
+            if (keyCount == keys.length) {
+                keys = Arrays.copyOf(keys, keyCount * 2);
+                childStates = Arrays.copyOf(childStates, keyCount * 2);
+            }
+            keys[keyCount] = c;
+            childStates[keyCount] = state;
+            keyCount++;
+        }
+
+        void addOutput(int id) {
+            if (outputCount == outputs.length) {
+                outputs = Arrays.copyOf(outputs, Math.max(1, outputCount * 2));
+            }
+            outputs[outputCount++] = id;
+        }
+
+        int[] sortedOrder() {
+            Integer[] order = new Integer[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Character.compare(keys[a], keys[b]));
+            int[] result = new int[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                result[i] = order[i];
+            }
+            return result;
+        }
+    }
+}
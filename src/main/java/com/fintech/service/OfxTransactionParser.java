@@ -0,0 +1,408 @@
+package com.fintech.service;
+
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Streaming reader for OFX and QFX statements.
+ *
+ * One tag scanner handles both OFX 1.x, which is SGML whose leaf elements have
+ * no end tags, and the XML of OFX 2.x: a leaf's value is the text up to the
+ * next tag, whatever that tag is. Only the current element and the fields of
+ * the current {@code <STMTTRN>} are held, so memory does not depend on the
+ * size of the document.
+ *
+ * A file is imported into a single account, so it may hold only one bank,
+ * credit card or investment statement; reading a second one fails with an
+ * {@link IOException}. Callers that commit rows while reading check the whole
+ * file first with {@link TransactionFileParser#checkSingleAccount}.
+ *
+ * Rows carry the line their {@code <STMTTRN>} starts on and the transaction's
+ * {@code FITID} as their external id. {@code DTPOSTED} is taken as written,
+ * ignoring any time zone suffix.
+ */
+@Service
+public class OfxTransactionParser {
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    // Bytes examined for an encoding declaration
+    private static final int HEADER_PEEK_SIZE = 1024;
+
+    private static final DatePattern DATE = DatePattern.compile("yyyyMMdd");
+    private static final DatePattern DATE_TIME = DatePattern.compile("yyyyMMddHHmmss");
+
+    public RowReader openReader(InputStream inputStream) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(inputStream);
+        return new RowReader(new InputStreamReader(in, detectCharset(in)));
+    }
+
+    /**
+     * OFX 1.x declares {@code ENCODING:UTF-8} or {@code CHARSET:1252} in its
+     * plain-text header; OFX 2.x is XML and UTF-8 unless it says otherwise.
+     * Anything else is read as ISO-8859-1, which accepts every byte.
+     */
+    static Charset detectCharset(BufferedInputStream in) throws IOException {
+        in.mark(HEADER_PEEK_SIZE);
+        byte[] peek = in.readNBytes(HEADER_PEEK_SIZE);
+        in.reset();
+        String header = new String(peek, StandardCharsets.ISO_8859_1).toUpperCase(Locale.ROOT);
+        if (header.contains("ENCODING:UTF-8") || header.contains("ENCODING=\"UTF-8\"")) {
+            return StandardCharsets.UTF_8;
+        }
+        if (header.contains("CHARSET:1252") && Charset.isSupported("windows-1252")) {
+            return Charset.forName("windows-1252");
+        }
+        if (header.contains("<?XML") && !header.contains("ENCODING=")) {
+            return StandardCharsets.UTF_8;
+        }
+        return StandardCharsets.ISO_8859_1;
+    }
+
+    public static class RowReader implements TransactionRowReader {
+        private final Reader reader;
+        private final char[] input = new char[READ_BUFFER_SIZE];
+        private int inputPos;
+        private int inputLimit;
+        private int line = 1;
+
+        private final StringBuilder tag = new StringBuilder();
+        private final StringBuilder text = new StringBuilder();
+        // Open element whose text is being collected, null inside aggregates
+        private String leaf;
+
+        private int statements;
+        private boolean inTransaction;
+        private int transactionLine;
+        private String fitId;
+        private String datePosted;
+        private String amount;
+        private String name;
+        private String memo;
+
+        RowReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public CsvTransactionParser.CsvTransactionRow next() throws IOException {
+            int c;
+            while ((c = read()) >= 0) {
+                if (c != '<') {
+                    if (leaf != null) {
+                        text.append((char) c);
+                    }
+                    continue;
+                }
+                if (leaf != null) {
+                    setField(leaf, text);
+                    leaf = null;
+                }
+
+                int tagLine = line;
+                if (!readTag()) {
+                    continue;
+                }
+                if (tag.charAt(0) == '/') {
+                    if (inTransaction && equalsIgnoreCase(tag, 1, "STMTTRN")) {
+                        return finishTransaction();
+                    }
+                } else if (isStatement(tag)) {
+                    if (++statements > 1) {
+                        throw new IOException("Line " + tagLine + ": the file holds more than one statement; "
+                                + "export and import one account at a time");
+                    }
+                } else if (equalsIgnoreCase(tag, 0, "STMTTRN")) {
+                    CsvTransactionParser.CsvTransactionRow previous = inTransaction ? finishTransaction() : null;
+                    startTransaction(tagLine);
+                    if (previous != null) {
+                        return previous;
+                    }
+                } else {
+                    leaf = tag.toString().toUpperCase(Locale.ROOT);
+                    text.setLength(0);
+                }
+            }
+            // A transaction cut off by the end of the file
+            if (leaf != null) {
+                setField(leaf, text);
+                leaf = null;
+            }
+            return inTransaction ? finishTransaction() : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        /**
+         * Read a tag name after {@code <} into {@link #tag}, skipping attributes.
+         * Returns false for declarations, comments, processing instructions and
+         * self-closing elements, which carry nothing to import.
+         */
+        private boolean readTag() throws IOException {
+            tag.setLength(0);
+            int c = read();
+            if (c == '?' || c == '!') {
+                skipMarkup(c == '!' && peekComment());
+                return false;
+            }
+            while ((c >= 0 && c != '>' && c != '/' && !Character.isWhitespace(c)) || (c == '/' && tag.length() == 0)) {
+                tag.append((char) c);
+                c = read();
+            }
+            boolean selfClosing = false;
+            while (c >= 0 && c != '>') {
+                selfClosing = c == '/';
+                c = read();
+            }
+            return tag.length() > 0 && !selfClosing;
+        }
+
+        private boolean peekComment() throws IOException {
+            return read() == '-' && read() == '-';
+        }
+
+        private void skipMarkup(boolean comment) throws IOException {
+            int dashes = 0;
+            int c;
+            while ((c = read()) >= 0) {
+                if (c == '>' && (!comment || dashes >= 2)) {
+                    return;
+                }
+                dashes = c == '-' ? dashes + 1 : 0;
+            }
+        }
+
+        private void startTransaction(int tagLine) {
+            inTransaction = true;
+            transactionLine = tagLine;
+            fitId = null;
+            datePosted = null;
+            amount = null;
+            name = null;
+            memo = null;
+        }
+
+        private void setField(String element, StringBuilder content) {
+            if (!inTransaction) {
+                return;
+            }
+            switch (element) {
+                case "FITID":
+                    fitId = value(content);
+                    break;
+                case "DTPOSTED":
+                    datePosted = value(content);
+                    break;
+                case "TRNAMT":
+                    amount = value(content);
+                    break;
+                case "NAME":
+                    name = value(content);
+                    break;
+                case "MEMO":
+                    memo = value(content);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private CsvTransactionParser.CsvTransactionRow finishTransaction() {
+            inTransaction = false;
+            CsvTransactionParser.CsvTransactionRow row = new CsvTransactionParser.CsvTransactionRow();
+            row.setLineNumber(transactionLine);
+            row.setExternalId(fitId);
+
+            LocalDateTime postedAt = parseDate(datePosted);
+            if (postedAt == null) {
+                row.setError("Error parsing line " + transactionLine + ": Invalid DTPOSTED: " + nullToEmpty(datePosted));
+                return row;
+            }
+            row.setPostedAt(postedAt);
+
+            BigDecimal parsedAmount = parseAmount(amount);
+            if (parsedAmount == null) {
+                row.setError("Error parsing line " + transactionLine + ": Invalid TRNAMT: " + nullToEmpty(amount));
+                return row;
+            }
+            row.setAmount(parsedAmount);
+
+            row.setMerchant(name);
+            row.setDescription(memo != null ? memo : name);
+            return row;
+        }
+
+        private int read() throws IOException {
+            if (inputPos == inputLimit) {
+                int n = reader.read(input, 0, input.length);
+                if (n <= 0) {
+                    return -1;
+                }
+                inputPos = 0;
+                inputLimit = n;
+            }
+            char c = input[inputPos++];
+            if (c == '\n') {
+                line++;
+            }
+            return c;
+        }
+    }
+
+    /**
+     * Parse an OFX date: {@code yyyyMMdd[HHmmss[.SSS]][[offset:TZ]]}.
+     */
+    static LocalDateTime parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        int end = value.length();
+        int zone = value.indexOf('[');
+        if (zone >= 0) {
+            end = zone;
+        }
+        int fraction = value.indexOf('.');
+        if (fraction >= 0 && fraction < end) {
+            end = fraction;
+        }
+        char[] chars = value.toCharArray();
+        if (end == 8) {
+            return DATE.parse(chars, 0, end);
+        }
+        if (end == 14) {
+            return DATE_TIME.parse(chars, 0, end);
+        }
+        // Some servers send yyyyMMddHHmm
+        if (end == 12) {
+            LocalDateTime date = DATE.parse(chars, 0, 8);
+            int hour = twoDigits(chars, 8);
+            int minute = twoDigits(chars, 10);
+            if (date == null || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+                return null;
+            }
+            return date.withHour(hour).withMinute(minute);
+        }
+        return null;
+    }
+
+    /**
+     * Parse TRNAMT, which may carry a plus sign or, from some banks, a decimal
+     * comma.
+     */
+    static BigDecimal parseAmount(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.startsWith("+") ? value.substring(1) : value;
+        if (normalized.indexOf('.') < 0) {
+            normalized = normalized.replace(',', '.');
+        }
+        try {
+            return new BigDecimal(normalized);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int twoDigits(char[] chars, int offset) {
+        char tens = chars[offset];
+        char ones = chars[offset + 1];
+        if (tens < '0' || tens > '9' || ones < '0' || ones > '9') {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    /**
+     * The trimmed text of an element, with XML entities and SGML character
+     * references decoded, or null if empty.
+     */
+    private static String value(StringBuilder text) {
+        String trimmed = text.toString().trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        return trimmed.indexOf('&') >= 0 ? decodeEntities(trimmed) : trimmed;
+    }
+
+    static String decodeEntities(String text) {
+        StringBuilder decoded = new StringBuilder(text.length());
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int semicolon = c == '&' ? text.indexOf(';', i) : -1;
+            if (semicolon < 0 || semicolon - i > 10) {
+                decoded.append(c);
+                i++;
+                continue;
+            }
+            String entity = text.substring(i + 1, semicolon);
+            String replacement = decodeEntity(entity);
+            if (replacement == null) {
+                decoded.append(c);
+                i++;
+                continue;
+            }
+            decoded.append(replacement);
+            i = semicolon + 1;
+        }
+        return decoded.toString();
+    }
+
+    private static String decodeEntity(String entity) {
+        switch (entity) {
+            case "amp": return "&";
+            case "lt": return "<";
+            case "gt": return ">";
+            case "quot": return "\"";
+            case "apos": return "'";
+            case "nbsp": return " ";
+            default:
+                break;
+        }
+        if (entity.length() > 1 && entity.charAt(0) == '#') {
+            try {
+                int codePoint = entity.charAt(1) == 'x' || entity.charAt(1) == 'X'
+                        ? Integer.parseInt(entity.substring(2), 16)
+                        : Integer.parseInt(entity.substring(1));
+                return Character.isValidCodePoint(codePoint) ? new String(Character.toChars(codePoint)) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // Bank, credit card and investment statement aggregates
+    private static boolean isStatement(StringBuilder tag) {
+        return equalsIgnoreCase(tag, 0, "STMTRS") || equalsIgnoreCase(tag, 0, "CCSTMTRS") || equalsIgnoreCase(tag, 0, "INVSTMTRS");
+    }
+
+    private static boolean equalsIgnoreCase(StringBuilder builder, int offset, String expected) {
+        if (builder.length() - offset != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toUpperCase(builder.charAt(offset + i)) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
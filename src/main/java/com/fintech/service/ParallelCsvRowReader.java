@@ -0,0 +1,233 @@
+package com.fintech.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parses a CSV file on a ForkJoin pool in record-aligned chunks and hands the
+ * rows back in file order.
+ *
+ * The file is cut into segments of roughly {@code chunkBytes}. A first parallel
+ * pass counts quote characters and line feeds per segment; since a doubled
+ * quote leaves the parity unchanged, a line feed ends a record exactly when the
+ * number of quotes before it is even. Each cut is then moved forward to the
+ * first such line feed, and the line counts give every chunk its starting line
+ * number. Chunks are memory-mapped and decoded independently, with a bounded
+ * number parsed ahead of the reader so memory stays proportional to the pool
+ * size rather than the file. A header row is read and resolved against the
+ * import profile up front, then skipped by the first chunk.
+ *
+ * The file is decoded with the platform charset, like {@link CsvTransactionParser#openReader};
+ * it has to be ASCII-compatible, which UTF-8 and the ISO-8859 family are.
+ * Files that only use CR line endings have no cut points and parse as a single
+ * chunk.
+ */
+public class ParallelCsvRowReader implements TransactionRowReader {
+
+    private final CsvTransactionParser parser;
+    private final FileChannel channel;
+    private final CsvRowMapper mapper;
+    private final boolean skipHeader;
+    private final ForkJoinPool pool;
+    private final List<Chunk> chunks;
+    private final int lookahead;
+    private final Deque<ForkJoinTask<List<CsvTransactionParser.CsvTransactionRow>>> parsing = new ArrayDeque<>();
+    private int nextChunk;
+    private Iterator<CsvTransactionParser.CsvTransactionRow> current = Collections.emptyIterator();
+
+    ParallelCsvRowReader(CsvTransactionParser parser, Path file, ForkJoinPool pool, long chunkBytes,
+                         CsvRowMapper mapper) throws IOException {
+        this.parser = parser;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.pool = pool;
+        this.lookahead = pool.getParallelism() * 2;
+        try {
+            // Settle the header before any chunk is parsed, since every chunk needs the resolved columns.
+            // The reader is left open: closing it would close the channel.
+            CsvTokenizer first = new CsvTokenizer(Channels.newReader(channel, Charset.defaultCharset()), mapper.getDelimiter(), 1);
+            this.skipHeader = CsvTransactionParser.nextRecord(first) && mapper.isHeader(first);
+            this.mapper = skipHeader ? mapper.withHeader(first) : mapper;
+            this.chunks = split(Math.max(chunkBytes, 1));
+        } catch (RuntimeException | IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    int getChunkCount() {
+        return chunks.size();
+    }
+
+    @Override
+    public CsvTransactionParser.CsvTransactionRow next() throws IOException {
+        while (!current.hasNext()) {
+            while (parsing.size() < lookahead && nextChunk < chunks.size()) {
+                Chunk chunk = chunks.get(nextChunk++);
+                parsing.add(pool.submit(() -> parse(chunk)));
+            }
+            if (parsing.isEmpty()) {
+                return null;
+            }
+            try {
+                current = parsing.poll().join().iterator();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (ForkJoinTask<?> task : parsing) {
+            task.cancel(false);
+        }
+        parsing.clear();
+        channel.close();
+    }
+
+    private List<Chunk> split(long chunkBytes) throws IOException {
+        long size = channel.size();
+        int segments = (int) Math.max(1, (size + chunkBytes - 1) / chunkBytes);
+
+        // Quote and line feed counts per segment
+        List<long[]> counts = pool.submit(() -> IntStream.range(0, segments).parallel()
+                .mapToObj(k -> count(k * chunkBytes, Math.min(size, (k + 1) * chunkBytes)))
+                .collect(Collectors.toList())).join();
+
+        List<Chunk> result = new ArrayList<>();
+        long start = 0;
+        long startLine = 1;
+        long quotesBefore = 0;
+        long linesBefore = 0;
+        for (int k = 1; k < segments; k++) {
+            quotesBefore += counts.get(k - 1)[0];
+            linesBefore += counts.get(k - 1)[1];
+            long segmentStart = k * chunkBytes;
+            long[] cut = findCut(segmentStart, Math.min(size, segmentStart + chunkBytes), quotesBefore % 2 == 1);
+            if (cut != null) {
+                result.add(new Chunk(start, cut[0], startLine));
+                start = cut[0];
+                startLine = 1 + linesBefore + cut[1];
+            }
+        }
+        result.add(new Chunk(start, size, startLine));
+        return result;
+    }
+
+    /** Returns {quotes, line feeds} in [from, to). */
+    private long[] count(long from, long to) {
+        MappedByteBuffer buffer = map(from, to);
+        long quotes = 0;
+        long lines = 0;
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '"') {
+                quotes++;
+            } else if (b == '\n') {
+                lines++;
+            }
+        }
+        return new long[]{quotes, lines};
+    }
+
+    /**
+     * Find the first record boundary in [from, to): the position after a line
+     * feed outside quotes. Returns {position, line feeds in [from, position)}, or
+     * null if the segment has none.
+     */
+    private long[] findCut(long from, long to, boolean inQuotes) {
+        MappedByteBuffer buffer = map(from, to);
+        long lines = 0;
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            } else if (b == '\n') {
+                lines++;
+                if (!inQuotes) {
+                    return new long[]{from + buffer.position(), lines};
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<CsvTransactionParser.CsvTransactionRow> parse(Chunk chunk) {
+        CharBuffer text = Charset.defaultCharset().decode(map(chunk.start, chunk.end));
+        CsvTokenizer tokenizer = new CsvTokenizer(new CharBufferReader(text), mapper.getDelimiter(), (int) chunk.firstLine);
+        List<CsvTransactionParser.CsvTransactionRow> rows = new ArrayList<>();
+        try {
+            if (chunk.start == 0 && skipHeader) {
+                CsvTransactionParser.nextRecord(tokenizer);
+            }
+            CsvTransactionParser.CsvTransactionRow row;
+            while ((row = parser.nextRow(tokenizer, mapper)) != null) {
+                rows.add(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    private MappedByteBuffer map(long from, long to) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Chunk {
+        private final long start;
+        private final long end;
+        private final long firstLine;
+
+        Chunk(long start, long end, long firstLine) {
+            this.start = start;
+            this.end = end;
+            this.firstLine = firstLine;
+        }
+    }
+
+    private static final class CharBufferReader extends Reader {
+        private final CharBuffer buffer;
+
+        CharBufferReader(CharBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read(char[] target, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, n);
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.fintech.service;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A fixed set of single-worker partitions, each with its own bounded queue.
+ *
+ * Tasks submitted to the same partition run one at a time in submission
+ * order, while different partitions run concurrently. A full partition
+ * rejects new tasks without affecting the others, so one busy key only
+ * backs up its own partition.
+ */
+public class PartitionedExecutor {
+
+    private final ThreadPoolTaskExecutor[] partitions;
+    private final int queueCapacity;
+
+    public PartitionedExecutor(String threadNamePrefix, int partitionCount, int queueCapacity, boolean virtualThreads) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition count must be at least 1");
+        }
+        this.partitions = new ThreadPoolTaskExecutor[partitionCount];
+        this.queueCapacity = Math.max(1, queueCapacity);
+        for (int i = 0; i < partitionCount; i++) {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadNamePrefix(threadNamePrefix + i + "-");
+            executor.setCorePoolSize(1);
+            executor.setMaxPoolSize(1);
+            executor.setQueueCapacity(this.queueCapacity);
+            executor.setVirtualThreads(virtualThreads);
+            executor.setWaitForTasksToCompleteOnShutdown(true);
+            executor.setAwaitTerminationSeconds(30);
+            executor.initialize();
+            partitions[i] = executor;
+        }
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * The partition a key's tasks run on. The same key always maps to the
+     * same partition for a given partition count.
+     */
+    public int partitionOf(String key) {
+        int h = key.hashCode();
+        // Spread the high bits, since keys often differ only in their last characters
+        h ^= (h >>> 16);
+        return Math.floorMod(h, partitions.length);
+    }
+
+    /**
+     * @throws TaskRejectedException when the partition's queue is full or the
+     *         executor is shutting down
+     */
+    public void execute(int partition, Runnable task) {
+        partitions[partition].execute(new QueuedTask(task, System.nanoTime()));
+    }
+
+    public int getQueueSize(int partition) {
+        return partitions[partition].getQueueSize();
+    }
+
+    public int getRemainingCapacity(int partition) {
+        try {
+            return partitions[partition].getThreadPoolExecutor().getQueue().remainingCapacity();
+        } catch (IllegalStateException e) {
+            return 0;
+        }
+    }
+
+    public boolean isBusy(int partition) {
+        return partitions[partition].getActiveCount() > 0;
+    }
+
+    /**
+     * How long the oldest task still queued on the partition has been
+     * waiting, or 0 when nothing is queued.
+     */
+    public long getOldestWaitNanos(int partition) {
+        try {
+            BlockingQueue<Runnable> queue = partitions[partition].getThreadPoolExecutor().getQueue();
+            Runnable head = queue.peek();
+            return head instanceof QueuedTask queued ? Math.max(0, System.nanoTime() - queued.enqueuedAt) : 0;
+        } catch (IllegalStateException e) {
+            return 0;
+        }
+    }
+
+    public boolean isShutdown() {
+        try {
+            return partitions[0].getThreadPoolExecutor().isShutdown();
+        } catch (IllegalStateException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Stop taking tasks on every partition first, then wait for each to
+     * drain, so the partitions finish their queues in parallel.
+     */
+    public void shutdown() {
+        for (ThreadPoolTaskExecutor executor : partitions) {
+            executor.initiateShutdown();
+        }
+        for (ThreadPoolTaskExecutor executor : partitions) {
+            executor.shutdown();
+        }
+    }
+
+    private static class QueuedTask implements Runnable {
+        private final Runnable task;
+        private final long enqueuedAt;
+
+        QueuedTask(Runnable task, long enqueuedAt) {
+            this.task = task;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+}
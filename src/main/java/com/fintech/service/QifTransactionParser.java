@@ -0,0 +1,264 @@
+package com.fintech.service;
+
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Streaming reader for Quicken Interchange Format files.
+ *
+ * Records are read line by line and only the current one is held. Records of
+ * the bank, cash, credit card and other asset or liability types become rows;
+ * account lists, categories, classes, memorized payees and investment records
+ * are skipped. A file without any {@code !Type} line is read as bank records.
+ * A file is imported into a single account, so a second section of
+ * transactions, as in a multi-account export, fails with an
+ * {@link IOException}; see {@link TransactionFileParser#checkSingleAccount}.
+ * Split lines are ignored since {@code T} already holds the total. The
+ * {@code L} category is kept by name, and transfers to other accounts are left
+ * uncategorized.
+ *
+ * Dates are month first, as Quicken writes them: {@code 1/15/2024},
+ * {@code 01/15/24} or {@code 1/15'24}, where an apostrophe marks a 21st century
+ * year. Two-digit years after a slash below 70 are read as 20xx. ISO dates are
+ * accepted as well. Files are decoded with the platform charset, like CSV.
+ */
+@Service
+public class QifTransactionParser {
+
+    public RowReader openReader(InputStream inputStream) {
+        return new RowReader(new BufferedReader(new InputStreamReader(inputStream)));
+    }
+
+    public static class RowReader implements TransactionRowReader {
+        private final BufferedReader reader;
+        private int line;
+        private boolean transactionSection = true;
+        private int transactionSections;
+
+        private int recordLine;
+        private String date;
+        private String amount;
+        private String payee;
+        private String memo;
+        private String category;
+        private boolean inRecord;
+
+        RowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public CsvTransactionParser.CsvTransactionRow next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                char code = text.charAt(0);
+                String value = text.substring(1).trim();
+
+                if (code == '!') {
+                    CsvTransactionParser.CsvTransactionRow pending = inRecord ? finishRecord() : null;
+                    transactionSection = isTransactionType(value);
+                    if (transactionSection && ++transactionSections > 1) {
+                        throw new IOException("Line " + line + ": the file holds transactions for more than one account; "
+                                + "export and import one account at a time");
+                    }
+                    if (pending != null) {
+                        return pending;
+                    }
+                    continue;
+                }
+                if (code == '^') {
+                    if (inRecord) {
+                        return finishRecord();
+                    }
+                    continue;
+                }
+                if (!transactionSection) {
+                    continue;
+                }
+                if (!inRecord) {
+                    startRecord();
+                }
+                switch (code) {
+                    case 'D':
+                        date = value;
+                        break;
+                    case 'T':
+                        amount = value;
+                        break;
+                    case 'U':
+                        if (amount == null) {
+                            amount = value;
+                        }
+                        break;
+                    case 'P':
+                        payee = value;
+                        break;
+                    case 'M':
+                        memo = value;
+                        break;
+                    case 'L':
+                        category = categoryName(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            // A last record without its closing ^
+            return inRecord ? finishRecord() : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private void startRecord() {
+            inRecord = true;
+            recordLine = line;
+            date = null;
+            amount = null;
+            payee = null;
+            memo = null;
+            category = null;
+        }
+
+        private CsvTransactionParser.CsvTransactionRow finishRecord() {
+            inRecord = false;
+            CsvTransactionParser.CsvTransactionRow row = new CsvTransactionParser.CsvTransactionRow();
+            row.setLineNumber(recordLine);
+
+            LocalDateTime postedAt = parseDate(date);
+            if (postedAt == null) {
+                row.setError("Error parsing line " + recordLine + ": Invalid date: " + nullToEmpty(date));
+                return row;
+            }
+            row.setPostedAt(postedAt);
+
+            BigDecimal parsedAmount = parseAmount(amount);
+            if (parsedAmount == null) {
+                row.setError("Error parsing line " + recordLine + ": Invalid amount: " + nullToEmpty(amount));
+                return row;
+            }
+            row.setAmount(parsedAmount);
+
+            row.setMerchant(emptyToNull(payee));
+            row.setDescription(emptyToNull(memo != null ? memo : payee));
+            row.setCategoryName(category);
+            return row;
+        }
+    }
+
+    private static boolean isTransactionType(String header) {
+        String type = header.toUpperCase(Locale.ROOT);
+        if (!type.startsWith("TYPE:")) {
+            // !Account, !Option:AutoSwitch and the like
+            return false;
+        }
+        switch (type.substring(5).trim()) {
+            case "BANK":
+            case "CASH":
+            case "CCARD":
+            case "OTH A":
+            case "OTH L":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The category of an {@code L} line, {@code Category[:Subcategory][/Class]},
+     * without the class; null for transfers, written as {@code [Account]}.
+     */
+    static String categoryName(String value) {
+        if (value.isEmpty() || value.charAt(0) == '[') {
+            return null;
+        }
+        int classStart = value.indexOf('/');
+        return emptyToNull(classStart >= 0 ? value.substring(0, classStart).trim() : value);
+    }
+
+    static LocalDateTime parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        int[] parts = new int[3];
+        int[] digits = new int[3];
+        boolean apostrophe = false;
+        int part = 0;
+        for (int i = 0; i < value.length() && part < 3; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                parts[part] = parts[part] * 10 + (c - '0');
+                digits[part]++;
+            } else if (c == ' ' && digits[part] == 0) {
+                // Quicken pads single digits with a space: "1/ 5/24"
+                continue;
+            } else if (c == '/' || c == '-' || c == '.' || c == '\'') {
+                if (digits[part] == 0) {
+                    return null;
+                }
+                apostrophe = c == '\'';
+                part++;
+            } else {
+                return null;
+            }
+        }
+        if (part != 2 || digits[2] == 0) {
+            return null;
+        }
+
+        int year;
+        int month;
+        int day;
+        if (digits[0] == 4) {
+            year = parts[0];
+            month = parts[1];
+            day = parts[2];
+        } else {
+            month = parts[0];
+            day = parts[1];
+            year = parts[2];
+            if (digits[2] <= 2) {
+                year += apostrophe || year < 70 ? 2000 : 1900;
+            }
+        }
+        try {
+            return LocalDate.of(year, month, day).atStartOfDay();
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    static BigDecimal parseAmount(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.replace(",", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,223 @@
+package com.fintech.service;
+
+import com.fintech.domain.Account;
+import com.fintech.domain.AuditLog;
+import com.fintech.dto.RecategorizationJobDto;
+import com.fintech.repo.AccountRepository;
+import com.fintech.repo.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Re-runs a user's rules over their existing transactions in the background.
+ *
+ * Transactions are read in keyset-paginated chunks ordered by ID and every chunk
+ * is categorized and written in its own short transaction, so a job over millions
+ * of rows never holds one long-lived JPA transaction or persistence context.
+ * Not annotated with {@code @Transactional} for that reason.
+ */
+@Service
+public class RecategorizationService {
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RuleService ruleService;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("recategorizationExecutor")
+    private TaskExecutor recategorizationExecutor;
+
+    @Value("${rules.recategorization.chunk-size:1000}")
+    private int chunkSize;
+
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    public synchronized RecategorizationJobDto startJob(UUID userId, boolean onlyUncategorized) {
+        pruneFinishedJobs();
+
+        // One job per user at a time; a second request just reports the running one
+        for (Job job : jobs.values()) {
+            if (job.userId.equals(userId) && !job.isFinished()) {
+                return job.toDto();
+            }
+        }
+
+        Job job = new Job(userId, onlyUncategorized);
+        jobs.put(job.id, job);
+        try {
+            recategorizationExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            throw new RuntimeException("Too many re-categorization jobs queued, try again later");
+        }
+        return job.toDto();
+    }
+
+    public RecategorizationJobDto getJob(UUID userId, UUID jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new RuntimeException("Re-categorization job not found");
+        }
+        return job.toDto();
+    }
+
+    private void run(Job job) {
+        job.status = JobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        try {
+            List<UUID> accountIds = accountRepository.findByUserId(job.userId).stream()
+                    .map(Account::getId)
+                    .collect(Collectors.toList());
+            CompiledRuleSet ruleSet = ruleService.getCompiledRuleSet(job.userId);
+
+            if (!accountIds.isEmpty() && ruleSet.size() > 0) {
+                UUID afterId = FIRST_ID;
+                while (afterId != null) {
+                    UUID cursor = afterId;
+                    afterId = transactionTemplate.execute(status -> processChunk(job, ruleSet, accountIds, cursor));
+                }
+            }
+
+            job.status = JobStatus.COMPLETED;
+        } catch (Exception e) {
+            job.status = JobStatus.FAILED;
+            job.errorMessage = e.getMessage();
+            System.err.println("Re-categorization job " + job.id + " failed: " + e.getMessage());
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            logSummary(job);
+        }
+    }
+
+    /**
+     * Categorize one chunk and write the changes grouped by target category.
+     * Returns the cursor for the next chunk, or null when the scan is done.
+     */
+    private UUID processChunk(Job job, CompiledRuleSet ruleSet, List<UUID> accountIds, UUID afterId) {
+        List<Object[]> rows = transactionRepository.findRuleCandidatesAfter(
+                accountIds, afterId, job.onlyUncategorized, PageRequest.of(0, chunkSize));
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        Map<UUID, List<UUID>> idsByCategory = new HashMap<>();
+        for (Object[] row : rows) {
+            UUID transactionId = (UUID) row[0];
+            UUID currentCategoryId = (UUID) row[3];
+
+            RuleService.RuleMatchResult match = ruleSet.match(RuleInput.fromCandidateRow(row));
+            if (match.isMatch() && match.getTargetCategoryId() != null) {
+                job.matched++;
+                if (!match.getTargetCategoryId().equals(currentCategoryId)) {
+                    idsByCategory.computeIfAbsent(match.getTargetCategoryId(), id -> new ArrayList<>()).add(transactionId);
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<UUID, List<UUID>> entry : idsByCategory.entrySet()) {
+            job.updated += transactionRepository.updateCategoryForIds(entry.getKey(), entry.getValue(), now);
+        }
+
+        job.scanned += rows.size();
+        job.chunks++;
+        return rows.size() < chunkSize ? null : (UUID) rows.get(rows.size() - 1)[0];
+    }
+
+    private void logSummary(Job job) {
+        try {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("jobId", job.id);
+            summary.put("status", job.status.name());
+            summary.put("onlyUncategorized", job.onlyUncategorized);
+            summary.put("scannedTransactions", job.scanned);
+            summary.put("matchedTransactions", job.matched);
+            summary.put("updatedTransactions", job.updated);
+            summary.put("startedAt", job.startedAt);
+            summary.put("finishedAt", job.finishedAt);
+            auditLogService.logAction(AuditLog.AuditAction.UPDATE, "TransactionRecategorization", job.userId, summary);
+        } catch (Exception e) {
+            System.err.println("Failed to write audit entry for re-categorization job " + job.id + ": " + e.getMessage());
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(1);
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt.isBefore(cutoff));
+    }
+
+    private enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private static class Job {
+        private final UUID id = UUID.randomUUID();
+        private final UUID userId;
+        private final boolean onlyUncategorized;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        // Written by the worker thread only, read by status requests
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile long scanned;
+        private volatile long matched;
+        private volatile long updated;
+        private volatile int chunks;
+        private volatile String errorMessage;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        Job(UUID userId, boolean onlyUncategorized) {
+            this.userId = userId;
+            this.onlyUncategorized = onlyUncategorized;
+        }
+
+        boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        RecategorizationJobDto toDto() {
+            RecategorizationJobDto dto = new RecategorizationJobDto();
+            dto.setId(id);
+            dto.setUserId(userId);
+            dto.setStatus(status.name());
+            dto.setOnlyUncategorized(onlyUncategorized);
+            dto.setScannedTransactions(scanned);
+            dto.setMatchedTransactions(matched);
+            dto.setUpdatedTransactions(updated);
+            dto.setChunksProcessed(chunks);
+            dto.setErrorMessage(errorMessage);
+            dto.setCreatedAt(createdAt);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.fintech.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Bounds the work user-supplied regexes can do against one transaction.
+ *
+ * The input is wrapped in a CharSequence that counts character reads and aborts
+ * the match once the step budget is spent, so backtracking-heavy patterns cost
+ * at most a fixed number of steps per transaction instead of pinning a thread.
+ * {@link CompiledRuleSet} starts one {@link Budget} per transaction and every
+ * regex rule it evaluates draws on it, so many rules cannot multiply the cost.
+ * The rule that runs the budget out is treated as non-matching and remembered
+ * so it can be flagged to the user; regex rules evaluated after that do not
+ * match either, but are not flagged.
+ */
+public class RegexGuard {
+
+    public static final RegexGuard UNBOUNDED = new RegexGuard(0);
+
+    static final int MAX_PATTERN_LENGTH = 500;
+
+    private final long maxSteps;
+    private final Set<UUID> flaggedRules = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param maxSteps character reads allowed per transaction; 0 disables the budget
+     */
+    public RegexGuard(long maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * A budget for evaluating one transaction, or null when unbounded.
+     */
+    public Budget newBudget() {
+        return maxSteps > 0 ? new Budget(maxSteps) : null;
+    }
+
+    /**
+     * Run one find with a budget of its own.
+     */
+    public boolean find(Pattern pattern, String input, UUID ruleId) {
+        return find(pattern, input, ruleId, newBudget());
+    }
+
+    /**
+     * @param budget shared by the transaction's evaluation, or null for no limit
+     */
+    public boolean find(Pattern pattern, String input, UUID ruleId, Budget budget) {
+        if (budget == null) {
+            return pattern.matcher(input).find();
+        }
+        if (budget.remaining <= 0) {
+            return false;
+        }
+        try {
+            return pattern.matcher(new BudgetedCharSequence(input, 0, input.length(), budget)).find();
+        } catch (BudgetExceededException e) {
+            flag(ruleId, pattern);
+            return false;
+        }
+    }
+
+    /**
+     * The pattern to run with {@link #find}, without a leading or trailing
+     * {@code .*}. Neither changes whether find succeeds, but a leading one
+     * makes every start position scan the rest of the input, so ordinary rules
+     * such as {@code .*starbucks.*} would cost steps quadratic in the length
+     * of the description.
+     */
+    public static Pattern forFind(Pattern pattern) {
+        String regex = pattern.pattern();
+        if ((pattern.flags() & (Pattern.COMMENTS | Pattern.LITERAL)) != 0 || regex.contains("\\Q")) {
+            return pattern;
+        }
+        int start = 0;
+        int end = regex.length();
+        int leading = redundantDotStarLength(regex, 0);
+        if (leading > 0 && (leading == end || "*+?{".indexOf(regex.charAt(leading)) < 0)) {
+            start = leading;
+        }
+        if (end - start >= 3 && regex.endsWith(".*?") && !isEscaped(regex, end - 3)) {
+            end -= 3;
+        } else if (end - start >= 2 && regex.endsWith(".*") && !isEscaped(regex, end - 2)) {
+            end -= 2;
+        }
+        return start == 0 && end == regex.length() ? pattern : Pattern.compile(regex.substring(start, end), pattern.flags());
+    }
+
+    // Length of a greedy or lazy .* at the index, or 0; a possessive .*+ can change the result and is kept
+    private static int redundantDotStarLength(String regex, int i) {
+        if (!regex.startsWith(".*", i)) {
+            return 0;
+        }
+        if (regex.startsWith("?", i + 2)) {
+            return 3;
+        }
+        return regex.startsWith("+", i + 2) ? 0 : 2;
+    }
+
+    private static boolean isEscaped(String regex, int i) {
+        int backslashes = 0;
+        while (i - backslashes > 0 && regex.charAt(i - backslashes - 1) == '\\') {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    public boolean isFlagged(UUID ruleId) {
+        return ruleId != null && flaggedRules.contains(ruleId);
+    }
+
+    public void clearFlag(UUID ruleId) {
+        if (ruleId != null) {
+            flaggedRules.remove(ruleId);
+        }
+    }
+
+    private void flag(UUID ruleId, Pattern pattern) {
+        if (ruleId == null) {
+            return;
+        }
+        if (flaggedRules.add(ruleId)) {
+            System.err.println("Rule " + ruleId + " exceeded the regex budget of " + maxSteps
+                    + " steps with pattern: " + pattern.pattern());
+        }
+    }
+
+    /**
+     * Reject patterns that are likely to backtrack exponentially: overly long
+     * patterns and nested unbounded quantifiers such as {@code (a+)+} or {@code (.*x)*}.
+     */
+    public static void checkPattern(String regex) {
+        if (regex.length() > MAX_PATTERN_LENGTH) {
+            throw new RuntimeException("Pattern is longer than " + MAX_PATTERN_LENGTH + " characters");
+        }
+
+        // One entry per open group: does it contain an unbounded quantifier?
+        Deque<boolean[]> groups = new ArrayDeque<>();
+        groups.push(new boolean[1]);
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '[') {
+                i = skipCharacterClass(regex, i);
+            } else if (c == '(') {
+                groups.push(new boolean[1]);
+                i++;
+            } else if (c == ')') {
+                boolean innerUnbounded = groups.size() > 1 && groups.pop()[0];
+                i++;
+                int quantifierEnd = unboundedQuantifierEnd(regex, i);
+                if (quantifierEnd > i) {
+                    if (innerUnbounded) {
+                        throw new RuntimeException("Pattern has nested repetition that can backtrack exponentially: " + regex);
+                    }
+                    i = quantifierEnd;
+                    groups.peek()[0] = true;
+                } else if (innerUnbounded) {
+                    groups.peek()[0] = true;
+                }
+            } else {
+                int quantifierEnd = unboundedQuantifierEnd(regex, i);
+                if (quantifierEnd > i) {
+                    groups.peek()[0] = true;
+                    i = quantifierEnd;
+                } else {
+                    i++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index after an unbounded quantifier ({@code *}, {@code +} or
+     * {@code {n,}}) starting at {@code i}, or {@code i} when there is none.
+     */
+    private static int unboundedQuantifierEnd(String regex, int i) {
+        if (i >= regex.length()) {
+            return i;
+        }
+        char c = regex.charAt(i);
+        int end;
+        if (c == '*' || c == '+') {
+            end = i + 1;
+        } else if (c == '{') {
+            int close = regex.indexOf('}', i);
+            if (close < 0 || !regex.substring(i + 1, close).matches("\\d+,")) {
+                return i;
+            }
+            end = close + 1;
+        } else {
+            return i;
+        }
+        // Lazy and possessive modifiers don't change the backtracking shape enough to matter here
+        if (end < regex.length() && (regex.charAt(end) == '?' || regex.charAt(end) == '+')) {
+            end++;
+        }
+        return end;
+    }
+
+    private static int skipCharacterClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            i++;
+        }
+        while (i < regex.length() && regex.charAt(i) != ']') {
+            i += regex.charAt(i) == '\\' ? 2 : 1;
+        }
+        return i + 1;
+    }
+
+    /**
+     * Character reads left for one transaction's evaluation. Not thread-safe;
+     * each evaluation has its own.
+     */
+    public static final class Budget {
+        private long remaining;
+
+        private Budget(long steps) {
+            this.remaining = steps;
+        }
+
+        public long getRemaining() {
+            return Math.max(0, remaining);
+        }
+    }
+
+    private static final class BudgetExceededException extends RuntimeException {
+        BudgetExceededException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Read-only view of a string that throws once too many characters have been read.
+     */
+    private static final class BudgetedCharSequence implements CharSequence {
+        private final String text;
+        private final int offset;
+        private final int length;
+        private final Budget budget;
+
+        BudgetedCharSequence(String text, int offset, int length, Budget budget) {
+            this.text = text;
+            this.offset = offset;
+            this.length = length;
+            this.budget = budget;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (--budget.remaining < 0) {
+                throw new BudgetExceededException();
+            }
+            return text.charAt(offset + index);
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new BudgetedCharSequence(text, offset + start, end - start, budget);
+        }
+
+        @Override
+        public String toString() {
+            return text.substring(offset, offset + length);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.fintech.service;
+
+import com.fintech.domain.Account;
+import com.fintech.domain.Rule;
+import com.fintech.dto.RuleBacktestRequest;
+import com.fintech.dto.RuleBacktestResult;
+import com.fintech.repo.AccountRepository;
+import com.fintech.repo.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+
+/**
+ * Dry-runs a candidate rule, or the user's whole rule set, against their
+ * historical transactions without writing anything.
+ *
+ * Transactions are streamed in keyset-paginated chunks. Each chunk is evaluated
+ * in parallel on a dedicated fork/join pool while the next chunk is fetched.
+ */
+@Service
+public class RuleBacktestService {
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+    private static final int DEFAULT_SAMPLE_SIZE = 20;
+    private static final int MAX_SAMPLE_SIZE = 100;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RuleService ruleService;
+
+    @Autowired
+    private RuleSetCache ruleSetCache;
+
+    @Autowired
+    @Qualifier("ruleBacktestPool")
+    private ForkJoinPool ruleBacktestPool;
+
+    @Value("${rules.backtest.chunk-size:10000}")
+    private int chunkSize;
+
+    public RuleBacktestResult backtest(UUID userId, RuleBacktestRequest request) {
+        long startTime = System.currentTimeMillis();
+        CompiledRuleSet ruleSet = buildRuleSet(userId, request);
+        int sampleSize = request.getSampleSize() != null
+                ? Math.max(0, Math.min(request.getSampleSize(), MAX_SAMPLE_SIZE))
+                : DEFAULT_SAMPLE_SIZE;
+
+        List<UUID> accountIds = accountRepository.findByUserId(userId).stream()
+                .map(Account::getId)
+                .collect(Collectors.toList());
+
+        Tally total = new Tally(sampleSize);
+        if (!accountIds.isEmpty() && ruleSet.size() > 0) {
+            List<Object[]> rows = fetchChunk(accountIds, FIRST_ID);
+            while (!rows.isEmpty()) {
+                List<Object[]> chunk = rows;
+                ForkJoinTask<Tally> evaluation = ruleBacktestPool.submit(() -> chunk.parallelStream()
+                        .collect(() -> new Tally(sampleSize), (tally, row) -> tally.add(ruleSet, row), Tally::merge));
+
+                // Fetch the next chunk while this one is being evaluated
+                rows = chunk.size() < chunkSize
+                        ? List.of()
+                        : fetchChunk(accountIds, (UUID) chunk.get(chunk.size() - 1)[0]);
+
+                total.merge(evaluation.join());
+            }
+        }
+
+        RuleBacktestResult result = total.toResult();
+        result.setDurationMs(System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    private CompiledRuleSet buildRuleSet(UUID userId, RuleBacktestRequest request) {
+        Rule candidate = null;
+        if (request.getConditions() != null || request.getActions() != null) {
+            candidate = new Rule();
+            candidate.setUserId(userId);
+            candidate.setName("Backtest candidate");
+            candidate.setConditions(request.getConditions());
+            candidate.setActions(request.getActions());
+            candidate.setPriority(request.getPriority() != null ? request.getPriority() : 0);
+            try {
+                CompiledRule.compile(candidate);
+            } catch (Exception e) {
+                throw new RuntimeException("Invalid candidate rule: " + e.getMessage());
+            }
+        }
+
+        if (!request.isIncludeExistingRules()) {
+            if (candidate == null) {
+                throw new RuntimeException("A candidate rule is required unless existing rules are included");
+            }
+            return ruleSetCache.compile(List.of(candidate));
+        }
+
+        // Compiled separately from the cached set so backtests don't count towards rule metrics
+        List<Rule> rules = new ArrayList<>(ruleService.getEnabledRulesForUser(userId));
+        if (candidate != null) {
+            // Slot the candidate in after existing rules of the same priority
+            int index = 0;
+            while (index < rules.size() && priorityOf(rules.get(index)) <= candidate.getPriority()) {
+                index++;
+            }
+            rules.add(index, candidate);
+        }
+        return ruleSetCache.compile(rules);
+    }
+
+    private List<Object[]> fetchChunk(List<UUID> accountIds, UUID afterId) {
+        return transactionRepository.findRuleCandidatesAfter(accountIds, afterId, false, PageRequest.of(0, chunkSize));
+    }
+
+    private static int priorityOf(Rule rule) {
+        return rule.getPriority() != null ? rule.getPriority() : 0;
+    }
+
+    /**
+     * Mutable per-thread partial result; partial tallies are merged once a chunk is done.
+     */
+    private static class Tally {
+        private final int sampleSize;
+        private long total;
+        private long matched;
+        private long changed;
+        private final Map<CategoryChange, Long> deltas = new HashMap<>();
+        private final List<RuleBacktestResult.SampleHit> samples = new ArrayList<>();
+
+        Tally(int sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+
+        void add(CompiledRuleSet ruleSet, Object[] row) {
+            total++;
+            RuleService.RuleMatchResult match = ruleSet.match(RuleInput.fromCandidateRow(row));
+            if (!match.isMatch()) {
+                return;
+            }
+            matched++;
+
+            UUID currentCategoryId = (UUID) row[3];
+            UUID proposedCategoryId = match.getTargetCategoryId();
+            if (!Objects.equals(currentCategoryId, proposedCategoryId)) {
+                changed++;
+                deltas.merge(new CategoryChange(currentCategoryId, proposedCategoryId), 1L, Long::sum);
+            }
+
+            if (samples.size() < sampleSize) {
+                RuleBacktestResult.SampleHit hit = new RuleBacktestResult.SampleHit();
+                hit.setTransactionId((UUID) row[0]);
+                hit.setMerchant((String) row[1]);
+                hit.setDescription((String) row[2]);
+                hit.setCurrentCategoryId(currentCategoryId);
+                hit.setProposedCategoryId(proposedCategoryId);
+                hit.setRuleId(match.getRuleId());
+                hit.setRuleName(match.getRuleName());
+                samples.add(hit);
+            }
+        }
+
+        void merge(Tally other) {
+            total += other.total;
+            matched += other.matched;
+            changed += other.changed;
+            other.deltas.forEach((change, count) -> deltas.merge(change, count, Long::sum));
+            for (RuleBacktestResult.SampleHit hit : other.samples) {
+                if (samples.size() >= sampleSize) {
+                    break;
+                }
+                samples.add(hit);
+            }
+        }
+
+        RuleBacktestResult toResult() {
+            RuleBacktestResult result = new RuleBacktestResult();
+            result.setTotalTransactions(total);
+            result.setMatchedTransactions(matched);
+            result.setChangedTransactions(changed);
+            result.setSampleHits(samples);
+
+            List<RuleBacktestResult.CategoryDelta> categoryDeltas = new ArrayList<>(deltas.size());
+            deltas.forEach((change, count) -> {
+                RuleBacktestResult.CategoryDelta delta = new RuleBacktestResult.CategoryDelta();
+                delta.setFromCategoryId(change.from);
+                delta.setToCategoryId(change.to);
+                delta.setTransactionCount(count);
+                categoryDeltas.add(delta);
+            });
+            categoryDeltas.sort((a, b) -> Long.compare(b.getTransactionCount(), a.getTransactionCount()));
+            result.setCategoryDeltas(categoryDeltas);
+            return result;
+        }
+    }
+
+    private static final class CategoryChange {
+        private final UUID from;
+        private final UUID to;
+
+        CategoryChange(UUID from, UUID to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CategoryChange)) return false;
+            CategoryChange other = (CategoryChange) o;
+            return Objects.equals(from, other.from) && Objects.equals(to, other.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(from, to);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.fintech.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled node of a rule's predicate tree.
+ *
+ * Trees are built once by {@link RuleDefinitionParser} and are immutable apart
+ * from the automaton slot a {@link CompiledRuleSet} assigns to literal patterns
+ * before the set is published. AND/OR nodes keep their children sorted by
+ * estimated cost so cheap field comparisons short-circuit before any regex runs.
+ */
+public abstract class RuleCondition {
+
+    static final int FIELD_COST = 1;
+    static final int LITERAL_COST = 5;
+    static final int REGEX_COST = 20;
+
+    public static final RuleCondition NEVER = new Never();
+
+    /**
+     * @param merchantHits    literal slots found in the merchant by the rule set's automaton, or null
+     * @param descriptionHits literal slots found in the description, or null
+     */
+    abstract boolean test(RuleInput input, BitSet merchantHits, BitSet descriptionHits);
+
+    abstract int cost();
+
+    /**
+     * Literal patterns of which at least one has to be found for this node to
+     * match, or null when the node can match without any of them.
+     */
+    abstract List<PatternMatch> requiredLiterals();
+
+    abstract void collectPatterns(List<PatternMatch> patterns);
+
+    public List<PatternMatch> patterns() {
+        List<PatternMatch> patterns = new ArrayList<>();
+        collectPatterns(patterns);
+        return patterns;
+    }
+
+    static RuleCondition all(List<RuleCondition> children) {
+        return children.size() == 1 ? children.get(0) : new All(children);
+    }
+
+    static RuleCondition any(List<RuleCondition> children) {
+        return children.size() == 1 ? children.get(0) : new Any(children);
+    }
+
+    private static List<RuleCondition> byCost(List<RuleCondition> children) {
+        List<RuleCondition> sorted = new ArrayList<>(children);
+        sorted.sort(Comparator.comparingInt(RuleCondition::cost));
+        return List.copyOf(sorted);
+    }
+
+    private static int totalCost(List<RuleCondition> children) {
+        int cost = 0;
+        for (RuleCondition child : children) {
+            cost += child.cost();
+        }
+        return cost;
+    }
+
+    static final class All extends RuleCondition {
+        private final List<RuleCondition> children;
+        private final int cost;
+
+        All(List<RuleCondition> children) {
+            this.children = byCost(children);
+            this.cost = totalCost(children);
+        }
+
+        @Override
+        boolean test(RuleInput input, BitSet merchantHits, BitSet descriptionHits) {
+            for (RuleCondition child : children) {
+                if (!child.test(input, merchantHits, descriptionHits)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        int cost() { return cost; }
+
+        @Override
+        List<PatternMatch> requiredLiterals() {
+            // Any one child's requirement is enough; pick the smallest
+            List<PatternMatch> best = null;
+            for (RuleCondition child : children) {
+                List<PatternMatch> required = child.requiredLiterals();
+                if (required != null && (best == null || required.size() < best.size())) {
+                    best = required;
+                }
+            }
+            return best;
+        }
+
+        @Override
+        void collectPatterns(List<PatternMatch> patterns) {
+            for (RuleCondition child : children) {
+                child.collectPatterns(patterns);
+            }
+        }
+    }
+
+    static final class Any extends RuleCondition {
+        private final List<RuleCondition> children;
+        private final int cost;
+
+        Any(List<RuleCondition> children) {
+            this.children = byCost(children);
+            this.cost = totalCost(children);
+        }
+
+        @Override
+        boolean test(RuleInput input, BitSet merchantHits, BitSet descriptionHits) {
+            for (RuleCondition child : children) {
+                if (child.test(input, merchantHits, descriptionHits)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int cost() { return cost; }
+
+        @Override
+        List<PatternMatch> requiredLiterals() {
+            // Every branch needs a literal, otherwise the node can match without one
+            List<PatternMatch> union = new ArrayList<>();
+            for (RuleCondition child : children) {
+                List<PatternMatch> required = child.requiredLiterals();
+                if (required == null) {
+                    return null;
+                }
+                union.addAll(required);
+            }
+            return union;
+        }
+
+        @Override
+        void collectPatterns(List<PatternMatch> patterns) {
+            for (RuleCondition child : children) {
+                child.collectPatterns(patterns);
+            }
+        }
+    }
+
+    static final class Not extends RuleCondition {
+        private final RuleCondition child;
+
+        Not(RuleCondition child) {
+            this.child = child;
+        }
+
+        @Override
+        boolean test(RuleInput input, BitSet merchantHits, BitSet descriptionHits) {
+            return !child.test(input, merchantHits, descriptionHits);
+        }
+
+        @Override
+        int cost() { return child.cost(); }
+
+        @Override
+        List<PatternMatch> requiredLiterals() { return null; }
+
+        @Override
+        void collectPatterns(List<PatternMatch> patterns) {
+            child.collectPatterns(patterns);
+        }
+    }
+
+    static final class Never extends RuleCondition {
+        @Override
+        boolean test(RuleInput input, BitSet merchantHits, BitSet descriptionHits) { return false; }
+
+        @Override
+        int cost() { return 0; }
+
+        @Override
+        List<PatternMatch> requiredLiterals() { return List.of(); }
+
+        @Override
+        void collectPatterns(List<PatternMatch> patterns) {
+        }
+    }
+
+    public static final class PatternMatch extends RuleCondition {
+        private final boolean merchantField;
+        private final Pattern pattern;
+        // Set when the pattern is a plain substring the multi-pattern matcher can find
+        private final String literal;
+        private final UUID ruleId;
+        private final RegexGuard regexGuard;
+        private int slot = -1;
+
+        PatternMatch(boolean merchantField, Pattern pattern, UUID ruleId, RegexGuard regexGuard) {
+            this.merchantField = merchantField;
+            this.pattern = RegexGuard.forFind(pattern);
+            this.literal = MultiPatternMatcher.extractLiteral(pattern.pattern());
+            this.ruleId = ruleId;
+            this.regexGuard = regexGuard;
+        }
+
+        @Override
+        boolean test(RuleInput input, BitSet merchantHits, BitSet descriptionHits) {
+            String text = merchantField ? input.getMerchant() : input.getDescription();
+            if (text == null) {
+                return false;
+            }
+            BitSet hits = merchantField ? merchantHits : descriptionHits;
+            if (hits != null && slot >= 0) {
+                return hits.get(slot);
+            }
+            RegexGuard.Budget budget = input.getRegexBudget();
+            return budget != null ? regexGuard.find(pattern, text, ruleId, budget) : regexGuard.find(pattern, text, ruleId);
+        }
+
+        @Override
+        int cost() { return literal != null ? LITERAL_COST : REGEX_COST; }
+
+        @Override
+        List<PatternMatch> requiredLiterals() {
+            return literal != null ? List.of(this) : null;
+        }
+
+        @Override
+        void collectPatterns(List<PatternMatch> patterns) {
+            patterns.add(this);
+        }
+
+        public boolean isMerchantField() { return merchantField; }
+        public Pattern getPattern() { return pattern; }
+        public String getLiteral() { return literal; }
+        int getSlot() { return slot; }
+        void setSlot(int slot) { this.slot = slot; }
+    }
+
+    static final class AmountRange extends RuleCondition {
+        private final BigDecimal min;
+        private final BigDecimal max;
+
+        AmountRange(BigDecimal min, BigDecimal max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        boolean test(RuleInput input, BitSet merchantHits, BitSet descriptionHits) {
+            BigDecimal amount = input.getAmount();
+            return amount != null
+                    && (min == null || amount.compareTo(min) >= 0)
+                    && (max == null || amount.compareTo(max) <= 0);
+        }
+
+        @Override
+        int cost() { return FIELD_COST; }
+
+        @Override
+        List<PatternMatch> requiredLiterals() { return null; }
+
+        @Override
+        void collectPatterns(List<PatternMatch> patterns) {
+        }
+    }
+
+    static final class AccountIn extends RuleCondition {
+        private final Set<UUID> accountIds;
+
+        AccountIn(Set<UUID> accountIds) {
+            this.accountIds = Set.copyOf(accountIds);
+        }
+
+        @Override
+        boolean test(RuleInput input, BitSet merchantHits, BitSet descriptionHits) {
+            return input.getAccountId() != null && accountIds.contains(input.getAccountId());
+        }
+
+        @Override
+        int cost() { return FIELD_COST; }
+
+        @Override
+        List<PatternMatch> requiredLiterals() { return null; }
+
+        @Override
+        void collectPatterns(List<PatternMatch> patterns) {
+        }
+    }
+
+    static final class DateWindow extends RuleCondition {
+        private final LocalDate from;
+        private final LocalDate to;
+
+        DateWindow(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        boolean test(RuleInput input, BitSet merchantHits, BitSet descriptionHits) {
+            if (input.getPostedAt() == null) {
+                return false;
+            }
+            LocalDate date = input.getPostedAt().toLocalDate();
+            return (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+        }
+
+        @Override
+        int cost() { return FIELD_COST; }
+
+        @Override
+        List<PatternMatch> requiredLiterals() { return null; }
+
+        @Override
+        void collectPatterns(List<PatternMatch> patterns) {
+        }
+    }
+}
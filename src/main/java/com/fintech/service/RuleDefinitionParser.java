@@ -0,0 +1,215 @@
+package com.fintech.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the JSON condition and action strings stored on a rule.
+ *
+ * Conditions are an object whose keys are predicates that all have to hold:
+ * <pre>
+ * {"merchantPattern": ".*uber.*", "descriptionPattern": "trip", "logic": "OR",
+ *  "amountMin": 10, "amountMax": 250.00,
+ *  "accountIds": ["..."],
+ *  "dateFrom": "2024-01-01", "dateTo": "2024-12-31",
+ *  "all": [{...}, {...}], "any": [{...}, {...}], "not": {...}}
+ * </pre>
+ * Nested objects under {@code all}, {@code any} and {@code not} use the same
+ * keys. {@code logic} only combines the two patterns, as it always has: with
+ * {@code AND} both patterns are required, and a rule missing one never matches.
+ * A condition object without any predicate matches nothing.
+ */
+public final class RuleDefinitionParser {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    private RuleDefinitionParser() {
+    }
+
+    public static RuleCondition parseConditions(String conditions) {
+        return parseConditions(conditions, null, RegexGuard.UNBOUNDED);
+    }
+
+    public static RuleCondition parseConditions(String conditions, UUID ruleId, RegexGuard regexGuard) {
+        try {
+            return parseNode(OBJECT_MAPPER.readTree(conditions), ruleId, regexGuard);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse rule conditions: " + e.getMessage());
+        }
+    }
+
+    public static RuleActions parseActions(String actions) {
+        // Expected format: {"targetCategoryId": "123e4567-e89b-12d3-a456-426614174000"}
+        try {
+            JsonNode node = OBJECT_MAPPER.readTree(actions);
+            if (node == null || !node.isObject()) {
+                throw new RuntimeException("actions must be a JSON object");
+            }
+            RuleActions ruleActions = new RuleActions();
+            JsonNode targetCategoryId = node.get("targetCategoryId");
+            if (targetCategoryId != null && !targetCategoryId.isNull()) {
+                ruleActions.setTargetCategoryId(UUID.fromString(targetCategoryId.asText()));
+            }
+            return ruleActions;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse rule actions: " + e.getMessage());
+        }
+    }
+
+    private static RuleCondition parseNode(JsonNode node, UUID ruleId, RegexGuard regexGuard) {
+        if (node == null || !node.isObject()) {
+            throw new RuntimeException("conditions must be a JSON object");
+        }
+
+        String merchantPattern = null;
+        String descriptionPattern = null;
+        String logic = "OR";
+        BigDecimal amountMin = null;
+        BigDecimal amountMax = null;
+        LocalDate dateFrom = null;
+        LocalDate dateTo = null;
+        List<RuleCondition> predicates = new ArrayList<>();
+
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String key = field.getKey();
+            JsonNode value = field.getValue();
+            if (value.isNull()) {
+                continue;
+            }
+
+            switch (key) {
+                case "merchantPattern":
+                    merchantPattern = value.asText();
+                    break;
+                case "descriptionPattern":
+                    descriptionPattern = value.asText();
+                    break;
+                case "logic":
+                    logic = value.asText();
+                    break;
+                case "amountMin":
+                    amountMin = decimal(key, value);
+                    break;
+                case "amountMax":
+                    amountMax = decimal(key, value);
+                    break;
+                case "dateFrom":
+                    dateFrom = LocalDate.parse(value.asText());
+                    break;
+                case "dateTo":
+                    dateTo = LocalDate.parse(value.asText());
+                    break;
+                case "accountIds":
+                    predicates.add(new RuleCondition.AccountIn(accountIds(value)));
+                    break;
+                case "all":
+                    predicates.add(RuleCondition.all(children(key, value, ruleId, regexGuard)));
+                    break;
+                case "any":
+                    predicates.add(RuleCondition.any(children(key, value, ruleId, regexGuard)));
+                    break;
+                case "not":
+                    predicates.add(new RuleCondition.Not(parseNode(value, ruleId, regexGuard)));
+                    break;
+                default:
+                    throw new RuntimeException("unknown condition '" + key + "'");
+            }
+        }
+
+        if (merchantPattern != null || descriptionPattern != null) {
+            RuleCondition merchant = merchantPattern != null
+                    ? new RuleCondition.PatternMatch(true, Pattern.compile(merchantPattern, Pattern.CASE_INSENSITIVE), ruleId, regexGuard)
+                    : null;
+            RuleCondition description = descriptionPattern != null
+                    ? new RuleCondition.PatternMatch(false, Pattern.compile(descriptionPattern, Pattern.CASE_INSENSITIVE), ruleId, regexGuard)
+                    : null;
+
+            // Anything other than AND falls back to OR
+            if ("AND".equals(logic)) {
+                predicates.add(merchant != null && description != null
+                        ? RuleCondition.all(List.of(merchant, description))
+                        : RuleCondition.NEVER);
+            } else {
+                List<RuleCondition> patterns = new ArrayList<>(2);
+                if (merchant != null) {
+                    patterns.add(merchant);
+                }
+                if (description != null) {
+                    patterns.add(description);
+                }
+                predicates.add(RuleCondition.any(patterns));
+            }
+        }
+
+        if (amountMin != null || amountMax != null) {
+            if (amountMin != null && amountMax != null && amountMin.compareTo(amountMax) > 0) {
+                throw new RuntimeException("amountMin is greater than amountMax");
+            }
+            predicates.add(new RuleCondition.AmountRange(amountMin, amountMax));
+        }
+
+        if (dateFrom != null || dateTo != null) {
+            if (dateFrom != null && dateTo != null && dateFrom.isAfter(dateTo)) {
+                throw new RuntimeException("dateFrom is after dateTo");
+            }
+            predicates.add(new RuleCondition.DateWindow(dateFrom, dateTo));
+        }
+
+        return predicates.isEmpty() ? RuleCondition.NEVER : RuleCondition.all(predicates);
+    }
+
+    private static List<RuleCondition> children(String key, JsonNode value, UUID ruleId, RegexGuard regexGuard) {
+        if (!value.isArray() || value.isEmpty()) {
+            throw new RuntimeException("'" + key + "' must be a non-empty array of conditions");
+        }
+        List<RuleCondition> children = new ArrayList<>(value.size());
+        for (JsonNode child : value) {
+            children.add(parseNode(child, ruleId, regexGuard));
+        }
+        return children;
+    }
+
+    private static BigDecimal decimal(String key, JsonNode value) {
+        if (value.isNumber()) {
+            return value.decimalValue();
+        }
+        try {
+            return new BigDecimal(value.asText());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("'" + key + "' must be a number");
+        }
+    }
+
+    private static Set<UUID> accountIds(JsonNode value) {
+        if (!value.isArray() || value.isEmpty()) {
+            throw new RuntimeException("'accountIds' must be a non-empty array");
+        }
+        Set<UUID> accountIds = new HashSet<>();
+        for (JsonNode accountId : value) {
+            accountIds.add(UUID.fromString(accountId.asText()));
+        }
+        return accountIds;
+    }
+
+    public static class RuleActions {
+        private UUID targetCategoryId;
+
+        public UUID getTargetCategoryId() { return targetCategoryId; }
+        public void setTargetCategoryId(UUID targetCategoryId) { this.targetCategoryId = targetCategoryId; }
+    }
+}
@@ -0,0 +1,61 @@
+package com.fintech.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The transaction fields a rule can look at. Any of them may be null, in which
+ * case predicates on that field don't match. {@link CompiledRuleSet} attaches
+ * the regex budget for the evaluation with {@link #withRegexBudget}.
+ */
+public class RuleInput {
+
+    private final String merchant;
+    private final String description;
+    private final BigDecimal amount;
+    private final UUID accountId;
+    private final LocalDateTime postedAt;
+    // Null when each regex find gets a budget of its own
+    private final RegexGuard.Budget regexBudget;
+
+    public RuleInput(String merchant, String description, BigDecimal amount, UUID accountId, LocalDateTime postedAt) {
+        this(merchant, description, amount, accountId, postedAt, null);
+    }
+
+    private RuleInput(String merchant, String description, BigDecimal amount, UUID accountId, LocalDateTime postedAt,
+                      RegexGuard.Budget regexBudget) {
+        this.merchant = merchant;
+        this.description = description;
+        this.amount = amount;
+        this.accountId = accountId;
+        this.postedAt = postedAt;
+        this.regexBudget = regexBudget;
+    }
+
+    public static RuleInput of(String merchant, String description) {
+        return new RuleInput(merchant, description, null, null, null);
+    }
+
+    /**
+     * Build from a row of {@code TransactionRepository.findRuleCandidatesAfter}:
+     * id, merchant, description, categoryId, amount, accountId, postedAt.
+     */
+    public static RuleInput fromCandidateRow(Object[] row) {
+        return new RuleInput((String) row[1], (String) row[2], (BigDecimal) row[4], (UUID) row[5], (LocalDateTime) row[6]);
+    }
+
+    /**
+     * The same fields, with every regex evaluated against them drawing on {@code budget}.
+     */
+    RuleInput withRegexBudget(RegexGuard.Budget budget) {
+        return new RuleInput(merchant, description, amount, accountId, postedAt, budget);
+    }
+
+    public String getMerchant() { return merchant; }
+    public String getDescription() { return description; }
+    public BigDecimal getAmount() { return amount; }
+    public UUID getAccountId() { return accountId; }
+    public LocalDateTime getPostedAt() { return postedAt; }
+    RegexGuard.Budget getRegexBudget() { return regexBudget; }
+}
@@ -0,0 +1,150 @@
+package com.fintech.service;
+
+import com.fintech.dto.LatencyStatsDto;
+import com.fintech.repo.RuleHitCountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory per-rule counters and the latency histogram for rule application.
+ *
+ * Counters are updated on the evaluation path with {@link LongAdder}s and the
+ * increments since the last flush are periodically added to the rule's daily
+ * bucket in {@code rule_hit_counts}, so hit rates survive restarts.
+ */
+@Component
+public class RuleMetrics {
+
+    @Autowired
+    private RuleHitCountRepository ruleHitCountRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${rules.metrics.retention-days:90}")
+    private int retentionDays;
+
+    private final Map<UUID, RuleStats> stats = new ConcurrentHashMap<>();
+    private final LatencyHistogram applyLatency = new LatencyHistogram();
+    private volatile LocalDate lastPruned;
+
+    public RuleStats statsFor(UUID ruleId) {
+        return stats.computeIfAbsent(ruleId, id -> new RuleStats());
+    }
+
+    /**
+     * Counters for the rule if it has been evaluated since startup, otherwise null.
+     */
+    public RuleStats peek(UUID ruleId) {
+        return stats.get(ruleId);
+    }
+
+    public void remove(UUID ruleId) {
+        stats.remove(ruleId);
+    }
+
+    public void recordApplyLatency(long nanos) {
+        applyLatency.record(nanos);
+    }
+
+    public LatencyStatsDto getApplyLatency() {
+        return applyLatency.snapshot();
+    }
+
+    @Scheduled(fixedDelayString = "${rules.metrics.flush-interval-ms:60000}")
+    public void flush() {
+        LocalDate today = LocalDate.now();
+        List<Map.Entry<UUID, RuleStats>> pending = new ArrayList<>();
+        for (Map.Entry<UUID, RuleStats> entry : stats.entrySet()) {
+            if (entry.getValue().hasUnflushed()) {
+                pending.add(entry);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Map.Entry<UUID, RuleStats> entry : pending) {
+                    entry.getValue().flushTo(entry.getKey(), today, ruleHitCountRepository);
+                }
+                if (!today.equals(lastPruned)) {
+                    ruleHitCountRepository.deleteOlderThan(today.minusDays(retentionDays));
+                }
+            });
+            for (Map.Entry<UUID, RuleStats> entry : pending) {
+                entry.getValue().commitFlush();
+            }
+            lastPruned = today;
+        } catch (Exception e) {
+            // Nothing was marked as flushed, so the same increments are retried next time
+            System.err.println("Failed to flush rule hit counts: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Counters for one rule. Only rules that were actually evaluated are counted;
+     * rules the multi-pattern prefilter skipped don't add an evaluation.
+     */
+    public static class RuleStats {
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder matches = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        // Totals already written to the database; written by the flush thread only
+        private volatile long flushedEvaluations;
+        private volatile long flushedMatches;
+        private volatile long flushedErrors;
+        private long pendingEvaluations;
+        private long pendingMatches;
+        private long pendingErrors;
+
+        public void recordEvaluation(boolean matched) {
+            evaluations.increment();
+            if (matched) {
+                matches.increment();
+            }
+        }
+
+        public void recordError() {
+            errors.increment();
+        }
+
+        public long getEvaluations() { return evaluations.sum(); }
+        public long getMatches() { return matches.sum(); }
+        public long getErrors() { return errors.sum(); }
+
+        public long getUnflushedEvaluations() { return getEvaluations() - flushedEvaluations; }
+        public long getUnflushedMatches() { return getMatches() - flushedMatches; }
+        public long getUnflushedErrors() { return getErrors() - flushedErrors; }
+
+        boolean hasUnflushed() {
+            return getEvaluations() != flushedEvaluations || getErrors() != flushedErrors;
+        }
+
+        void flushTo(UUID ruleId, LocalDate bucketDate, RuleHitCountRepository repository) {
+            pendingEvaluations = getEvaluations();
+            pendingMatches = getMatches();
+            pendingErrors = getErrors();
+            repository.addCounts(ruleId, bucketDate,
+                    pendingEvaluations - flushedEvaluations,
+                    pendingMatches - flushedMatches,
+                    pendingErrors - flushedErrors);
+        }
+
+        void commitFlush() {
+            flushedEvaluations = pendingEvaluations;
+            flushedMatches = pendingMatches;
+            flushedErrors = pendingErrors;
+        }
+    }
+}
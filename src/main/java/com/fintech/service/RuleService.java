@@ -2,14 +2,18 @@ package com.fintech.service;
 
 import com.fintech.domain.Rule;
 import com.fintech.dto.*;
+import com.fintech.repo.RuleHitCountRepository;
 import com.fintech.repo.RuleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,10 +26,19 @@ public class RuleService {
     @Autowired
     private AuditLogService auditLogService;
 
+    @Autowired
+    private RuleSetCache ruleSetCache;
+
+    @Autowired
+    private RuleMetrics ruleMetrics;
+
+    @Autowired
+    private RuleHitCountRepository ruleHitCountRepository;
+
     public List<RuleDto> getUserRules(UUID userId) {
         List<Rule> rules = ruleRepository.findByUserIdOrderByPriorityAsc(userId);
         return rules.stream()
-                .map(RuleDto::fromEntity)
+                .map(this::toDto)
                 .collect(Collectors.toList());
     }
 
@@ -37,7 +50,7 @@ public class RuleService {
             throw new RuntimeException("Rule not found");
         }
         
-        return RuleDto.fromEntity(rule);
+        return toDto(rule);
     }
 
     public RuleDto createRule(UUID userId, CreateRuleRequest request) {
@@ -55,6 +68,7 @@ public class RuleService {
         validateRuleActions(request.getActions());
 
         Rule savedRule = ruleRepository.save(rule);
+        ruleSetCache.invalidate(userId);
 
         // Log audit
         auditLogService.logRuleAction(com.fintech.domain.AuditLog.AuditAction.CREATE, savedRule, null);
@@ -83,6 +97,7 @@ public class RuleService {
         if (request.getConditions() != null) {
             validateRuleConditions(request.getConditions());
             rule.setConditions(request.getConditions());
+            ruleSetCache.clearRegexBudgetFlag(ruleId);
         }
         if (request.getActions() != null) {
             validateRuleActions(request.getActions());
@@ -96,11 +111,12 @@ public class RuleService {
         }
 
         Rule savedRule = ruleRepository.save(rule);
+        ruleSetCache.invalidate(userId);
 
         // Log audit
         auditLogService.logRuleAction(com.fintech.domain.AuditLog.AuditAction.UPDATE, savedRule, oldRule);
 
-        return RuleDto.fromEntity(savedRule);
+        return toDto(savedRule);
     }
 
     public void deleteRule(UUID userId, UUID ruleId) {
@@ -115,6 +131,8 @@ public class RuleService {
         auditLogService.logRuleAction(com.fintech.domain.AuditLog.AuditAction.DELETE, rule, null);
 
         ruleRepository.delete(rule);
+        ruleSetCache.invalidate(userId);
+        ruleMetrics.remove(ruleId);
     }
 
     public List<Rule> getEnabledRulesForUser(UUID userId) {
@@ -122,64 +140,87 @@ public class RuleService {
     }
 
     public RuleMatchResult applyRulesToTransaction(UUID userId, String merchant, String description) {
-        List<Rule> rules = getEnabledRulesForUser(userId);
-        
-        for (Rule rule : rules) {
-            RuleMatchResult match = evaluateRule(rule, merchant, description);
-            if (match.isMatch()) {
-                return match;
-            }
-        }
-        
-        return RuleMatchResult.noMatch();
+        return applyRulesToTransaction(userId, RuleInput.of(merchant, description));
     }
 
-    private RuleMatchResult evaluateRule(Rule rule, String merchant, String description) {
+    public RuleMatchResult applyRulesToTransaction(UUID userId, RuleInput input) {
+        long startTime = System.nanoTime();
         try {
-            RuleConditions conditions = parseRuleConditions(rule.getConditions());
-            RuleActions actions = parseRuleActions(rule.getActions());
-            
-            boolean merchantMatch = false;
-            boolean descriptionMatch = false;
-            
-            // Check merchant pattern
-            if (conditions.getMerchantPattern() != null) {
-                Pattern pattern = Pattern.compile(conditions.getMerchantPattern(), Pattern.CASE_INSENSITIVE);
-                merchantMatch = merchant != null && pattern.matcher(merchant).find();
-            }
-            
-            // Check description pattern
-            if (conditions.getDescriptionPattern() != null) {
-                Pattern pattern = Pattern.compile(conditions.getDescriptionPattern(), Pattern.CASE_INSENSITIVE);
-                descriptionMatch = description != null && pattern.matcher(description).find();
+            return ruleSetCache.getRuleSet(userId).match(input);
+        } finally {
+            ruleMetrics.recordApplyLatency(System.nanoTime() - startTime);
+        }
+    }
+
+    public CompiledRuleSet getCompiledRuleSet(UUID userId) {
+        return ruleSetCache.getRuleSet(userId);
+    }
+
+    /**
+     * Per-rule counters since startup plus the persisted daily counts for the
+     * last {@code windowDays} days, including increments not yet flushed.
+     */
+    @Transactional(readOnly = true)
+    public RuleMetricsDto getRuleMetrics(UUID userId, int windowDays) {
+        List<Rule> rules = ruleRepository.findByUserIdOrderByPriorityAsc(userId);
+        List<UUID> ruleIds = rules.stream().map(Rule::getId).collect(Collectors.toList());
+
+        Map<UUID, Object[]> persisted = new HashMap<>();
+        if (!ruleIds.isEmpty()) {
+            LocalDate since = LocalDate.now().minusDays(Math.max(windowDays, 1) - 1L);
+            for (Object[] row : ruleHitCountRepository.sumCountsSince(ruleIds, since)) {
+                persisted.put((UUID) row[0], row);
             }
-            
-            // Apply logic (AND or OR)
-            boolean matches = false;
-            if (conditions.getLogic().equals("AND")) {
-                matches = merchantMatch && descriptionMatch;
-            } else if (conditions.getLogic().equals("OR")) {
-                matches = merchantMatch || descriptionMatch;
-            } else {
-                // Default to OR if logic is not specified
-                matches = merchantMatch || descriptionMatch;
+        }
+
+        List<RuleMetricsDto.RuleStats> ruleStats = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            RuleMetricsDto.RuleStats dto = new RuleMetricsDto.RuleStats();
+            dto.setRuleId(rule.getId());
+            dto.setName(rule.getName());
+            dto.setPriority(rule.getPriority());
+            dto.setEnabled(rule.getEnabled());
+
+            long windowEvaluations = 0;
+            long windowMatches = 0;
+            long windowErrors = 0;
+            Object[] row = persisted.get(rule.getId());
+            if (row != null) {
+                windowEvaluations = ((Number) row[1]).longValue();
+                windowMatches = ((Number) row[2]).longValue();
+                windowErrors = ((Number) row[3]).longValue();
             }
-            
-            if (matches) {
-                return RuleMatchResult.match(rule.getId(), rule.getName(), actions.getTargetCategoryId());
+
+            RuleMetrics.RuleStats live = ruleMetrics.peek(rule.getId());
+            if (live != null) {
+                dto.setEvaluations(live.getEvaluations());
+                dto.setMatches(live.getMatches());
+                dto.setErrors(live.getErrors());
+                windowEvaluations += live.getUnflushedEvaluations();
+                windowMatches += live.getUnflushedMatches();
+                windowErrors += live.getUnflushedErrors();
             }
-            
-        } catch (Exception e) {
-            // Log error but don't fail the transaction
-            System.err.println("Error evaluating rule " + rule.getId() + ": " + e.getMessage());
+
+            dto.setWindowEvaluations(windowEvaluations);
+            dto.setWindowMatches(windowMatches);
+            dto.setWindowErrors(windowErrors);
+            dto.setWindowHitRate(windowEvaluations > 0 ? (double) windowMatches / windowEvaluations : 0.0);
+            ruleStats.add(dto);
         }
-        
-        return RuleMatchResult.noMatch();
+
+        RuleMetricsDto metrics = new RuleMetricsDto();
+        metrics.setWindowDays(windowDays);
+        metrics.setApplyLatency(ruleMetrics.getApplyLatency());
+        metrics.setRules(ruleStats);
+        return metrics;
     }
 
     private void validateRuleConditions(String conditions) {
         try {
-            parseRuleConditions(conditions);
+            RuleCondition parsed = RuleDefinitionParser.parseConditions(conditions);
+            for (RuleCondition.PatternMatch pattern : parsed.patterns()) {
+                RegexGuard.checkPattern(pattern.getPattern().pattern());
+            }
         } catch (Exception e) {
             throw new RuntimeException("Invalid rule conditions: " + e.getMessage());
         }
@@ -187,80 +228,16 @@ public class RuleService {
 
     private void validateRuleActions(String actions) {
         try {
-            parseRuleActions(actions);
+            RuleDefinitionParser.parseActions(actions);
         } catch (Exception e) {
             throw new RuntimeException("Invalid rule actions: " + e.getMessage());
         }
     }
 
-    private RuleConditions parseRuleConditions(String conditions) {
-        // Simple JSON parsing for rule conditions
-        // Expected format: {"merchantPattern": ".*starbucks.*", "descriptionPattern": ".*coffee.*", "logic": "OR"}
-        try {
-            RuleConditions ruleConditions = new RuleConditions();
-            
-            // Remove JSON braces and quotes
-            String cleanConditions = conditions.trim();
-            if (cleanConditions.startsWith("{") && cleanConditions.endsWith("}")) {
-                cleanConditions = cleanConditions.substring(1, cleanConditions.length() - 1);
-            }
-            
-            String[] pairs = cleanConditions.split(",");
-            for (String pair : pairs) {
-                String[] keyValue = pair.split(":");
-                if (keyValue.length == 2) {
-                    String key = keyValue[0].trim().replaceAll("\"", "");
-                    String value = keyValue[1].trim().replaceAll("\"", "");
-                    
-                    switch (key) {
-                        case "merchantPattern":
-                            ruleConditions.setMerchantPattern(value);
-                            break;
-                        case "descriptionPattern":
-                            ruleConditions.setDescriptionPattern(value);
-                            break;
-                        case "logic":
-                            ruleConditions.setLogic(value);
-                            break;
-                    }
-                }
-            }
-            
-            return ruleConditions;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse rule conditions: " + e.getMessage());
-        }
-    }
-
-    private RuleActions parseRuleActions(String actions) {
-        // Simple JSON parsing for rule actions
-        // Expected format: {"targetCategoryId": "123e4567-e89b-12d3-a456-426614174000"}
-        try {
-            RuleActions ruleActions = new RuleActions();
-            
-            // Remove JSON braces and quotes
-            String cleanActions = actions.trim();
-            if (cleanActions.startsWith("{") && cleanActions.endsWith("}")) {
-                cleanActions = cleanActions.substring(1, cleanActions.length() - 1);
-            }
-            
-            String[] pairs = cleanActions.split(",");
-            for (String pair : pairs) {
-                String[] keyValue = pair.split(":");
-                if (keyValue.length == 2) {
-                    String key = keyValue[0].trim().replaceAll("\"", "");
-                    String value = keyValue[1].trim().replaceAll("\"", "");
-                    
-                    if (key.equals("targetCategoryId")) {
-                        ruleActions.setTargetCategoryId(UUID.fromString(value));
-                    }
-                }
-            }
-            
-            return ruleActions;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse rule actions: " + e.getMessage());
-        }
+    private RuleDto toDto(Rule rule) {
+        RuleDto dto = RuleDto.fromEntity(rule);
+        dto.setRegexBudgetExceeded(ruleSetCache.isRegexBudgetExceeded(rule.getId()));
+        return dto;
     }
 
     private Rule createRuleCopy(Rule original) {
@@ -278,27 +255,6 @@ public class RuleService {
         return copy;
     }
 
-    // Inner classes for rule parsing
-    private static class RuleConditions {
-        private String merchantPattern;
-        private String descriptionPattern;
-        private String logic = "OR";
-
-        public String getMerchantPattern() { return merchantPattern; }
-        public void setMerchantPattern(String merchantPattern) { this.merchantPattern = merchantPattern; }
-        public String getDescriptionPattern() { return descriptionPattern; }
-        public void setDescriptionPattern(String descriptionPattern) { this.descriptionPattern = descriptionPattern; }
-        public String getLogic() { return logic; }
-        public void setLogic(String logic) { this.logic = logic; }
-    }
-
-    private static class RuleActions {
-        private UUID targetCategoryId;
-
-        public UUID getTargetCategoryId() { return targetCategoryId; }
-        public void setTargetCategoryId(UUID targetCategoryId) { this.targetCategoryId = targetCategoryId; }
-    }
-
     public static class RuleMatchResult {
         private boolean match;
         private UUID ruleId;
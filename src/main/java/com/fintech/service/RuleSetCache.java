@@ -0,0 +1,134 @@
+package com.fintech.service;
+
+import com.fintech.domain.Rule;
+import com.fintech.repo.RuleRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of compiled rule sets keyed by user ID.
+ *
+ * Entries are loaded on first use and dropped whenever one of the user's rules
+ * is created, updated or deleted, so categorizing a transaction normally costs
+ * no database round trip and no regex compilation.
+ */
+@Component
+public class RuleSetCache {
+
+    @Autowired
+    private RuleRepository ruleRepository;
+
+    @Autowired
+    private RuleMetrics ruleMetrics;
+
+    @Value("${rules.multi-pattern-matching.enabled:true}")
+    private boolean multiPatternMatching;
+
+    @Value("${rules.adaptive-ordering.enabled:true}")
+    private boolean adaptiveOrdering;
+
+    @Value("${rules.adaptive-ordering.decay:0.5}")
+    private double adaptiveOrderingDecay;
+
+    @Value("${rules.regex.max-steps:100000}")
+    private long regexMaxSteps;
+
+    private final Map<UUID, CompiledRuleSet> ruleSets = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation so a load racing with a rule change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    // Shared by every compiled rule so budget overruns outlive cache evictions
+    private RegexGuard regexGuard;
+
+    @PostConstruct
+    void init() {
+        regexGuard = new RegexGuard(regexMaxSteps);
+    }
+
+    public CompiledRuleSet getRuleSet(UUID userId) {
+        CompiledRuleSet ruleSet = ruleSets.get(userId);
+        if (ruleSet != null) {
+            return ruleSet;
+        }
+
+        long loadGeneration = generation.get();
+        List<Rule> rules = ruleRepository.findEnabledRulesByUserIdOrderByPriority(userId);
+        CompiledRuleSet compiled = CompiledRuleSet.compile(rules, multiPatternMatching, regexGuard, ruleMetrics, adaptiveOrdering);
+
+        if (generation.get() == loadGeneration) {
+            CompiledRuleSet existing = ruleSets.putIfAbsent(userId, compiled);
+            return existing != null ? existing : compiled;
+        }
+        return compiled;
+    }
+
+    /**
+     * Compile an ad-hoc rule list (e.g. for a backtest) without caching it or
+     * counting its evaluations in the rule metrics.
+     */
+    public CompiledRuleSet compile(List<Rule> rules) {
+        return CompiledRuleSet.compile(rules, multiPatternMatching, regexGuard);
+    }
+
+    /**
+     * Periodically decay hit counts and re-sort equal-priority rules in every cached set.
+     */
+    @Scheduled(fixedDelayString = "${rules.adaptive-ordering.interval-ms:300000}")
+    public void reorderRuleSets() {
+        if (!adaptiveOrdering) {
+            return;
+        }
+        for (CompiledRuleSet ruleSet : ruleSets.values()) {
+            ruleSet.reorder(adaptiveOrderingDecay);
+        }
+    }
+
+    /**
+     * True when the rule has run past the regex step budget since it was last edited.
+     */
+    public boolean isRegexBudgetExceeded(UUID ruleId) {
+        return regexGuard.isFlagged(ruleId);
+    }
+
+    public void clearRegexBudgetFlag(UUID ruleId) {
+        regexGuard.clearFlag(ruleId);
+    }
+
+    /**
+     * Drop the user's compiled rules now and again once the current transaction
+     * commits, so readers never keep a rule set built from uncommitted state.
+     */
+    public void invalidate(UUID userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        ruleSets.clear();
+    }
+
+    private void evict(UUID userId) {
+        generation.incrementAndGet();
+        ruleSets.remove(userId);
+    }
+}
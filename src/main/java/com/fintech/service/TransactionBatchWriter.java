@@ -0,0 +1,197 @@
+package com.fintech.service;
+
+import com.fintech.domain.Transaction;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bulk insert path for new transactions.
+ *
+ * Bypasses the persistence context: ids and timestamps are assigned here and the
+ * rows are written with multi-row INSERT statements, or with PostgreSQL COPY when
+ * {@code imports.writer.mode} is {@code copy}. Runs on the connection of the
+ * caller's transaction, so a failure rolls back with the rest of it. No audit
+ * entry is written per row; callers log one summary for the batch.
+ */
+@Component
+public class TransactionBatchWriter {
+
+    private static final String COLUMNS = "id, account_id, category_id, amount, description, merchant, posted_at, " +
+            "transaction_type, status, external_id, metadata, created_at, updated_at";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${imports.writer.mode:batch}")
+    private String mode;
+
+    @Value("${imports.writer.rows-per-statement:500}")
+    private int rowsPerStatement;
+
+    /**
+     * Insert the transactions, setting their id (when missing), createdAt and
+     * updatedAt. Returns the number of rows written.
+     *
+     * @throws IllegalArgumentException when a transaction lacks a value for a
+     *         NOT NULL column (accountId, amount, postedAt, transactionType);
+     *         nothing is written then
+     */
+    public int insert(List<Transaction> transactions) {
+        return insert(transactions, false);
+    }
+
+    /**
+     * Like {@link #insert}, but rows whose external id the account already has
+     * are skipped rather than failing the statement, so an event processed
+     * twice stores each transaction once. Always uses INSERT, since COPY cannot
+     * skip conflicts. Returns the number of rows written, which excludes the
+     * skipped ones.
+     */
+    public int insertIfAbsent(List<Transaction> transactions) {
+        return insert(transactions, true);
+    }
+
+    private int insert(List<Transaction> transactions, boolean skipExisting) {
+        if (transactions.isEmpty()) {
+            return 0;
+        }
+
+        for (int i = 0; i < transactions.size(); i++) {
+            checkRequired(transactions.get(i), i);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Transaction transaction : transactions) {
+            if (transaction.getId() == null) {
+                transaction.setId(UUID.randomUUID());
+            }
+            transaction.setCreatedAt(now);
+            transaction.setUpdatedAt(now);
+        }
+
+        if (!skipExisting && "copy".equalsIgnoreCase(mode)) {
+            Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> copy(connection, transactions));
+            return copied != null ? copied.intValue() : 0;
+        }
+
+        int written = 0;
+        for (int start = 0; start < transactions.size(); start += rowsPerStatement) {
+            List<Transaction> slice = transactions.subList(start, Math.min(start + rowsPerStatement, transactions.size()));
+            written += jdbcTemplate.update(insertSql(slice.size(), skipExisting), statement -> bind(statement, slice));
+        }
+        return written;
+    }
+
+    private static void checkRequired(Transaction transaction, int index) {
+        String missing = transaction.getAccountId() == null ? "accountId"
+                : transaction.getAmount() == null ? "amount"
+                : transaction.getPostedAt() == null ? "postedAt"
+                : transaction.getTransactionType() == null ? "transactionType"
+                : null;
+        if (missing != null) {
+            throw new IllegalArgumentException("Transaction " + (index + 1) + " of the batch (external id "
+                    + transaction.getExternalId() + ") has no " + missing);
+        }
+    }
+
+    private static String insertSql(int rows, boolean skipExisting) {
+        StringBuilder sql = new StringBuilder(64 + rows * (ROW_PLACEHOLDERS.length() + 2))
+                .append("INSERT INTO transactions (").append(COLUMNS).append(") VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+        }
+        if (skipExisting) {
+            sql.append(" ON CONFLICT (account_id, external_id) DO NOTHING");
+        }
+        return sql.toString();
+    }
+
+    private static void bind(PreparedStatement statement, List<Transaction> transactions) throws SQLException {
+        int p = 1;
+        for (Transaction transaction : transactions) {
+            statement.setObject(p++, transaction.getId());
+            statement.setObject(p++, transaction.getAccountId());
+            statement.setObject(p++, transaction.getCategoryId());
+            statement.setBigDecimal(p++, transaction.getAmount());
+            statement.setString(p++, transaction.getDescription());
+            statement.setString(p++, transaction.getMerchant());
+            statement.setTimestamp(p++, Timestamp.valueOf(transaction.getPostedAt()));
+            statement.setString(p++, transaction.getTransactionType().name());
+            statement.setString(p++, transaction.getStatus() != null ? transaction.getStatus().name() : null);
+            statement.setString(p++, transaction.getExternalId());
+            if (transaction.getMetadata() != null) {
+                statement.setString(p++, transaction.getMetadata());
+            } else {
+                statement.setNull(p++, Types.VARCHAR);
+            }
+            statement.setTimestamp(p++, Timestamp.valueOf(transaction.getCreatedAt()));
+            statement.setTimestamp(p++, Timestamp.valueOf(transaction.getUpdatedAt()));
+        }
+    }
+
+    private static long copy(Connection connection, List<Transaction> transactions) throws SQLException {
+        StringBuilder csv = new StringBuilder(transactions.size() * 160);
+        for (Transaction transaction : transactions) {
+            appendField(csv, transaction.getId(), false);
+            appendField(csv, transaction.getAccountId(), false);
+            appendField(csv, transaction.getCategoryId(), false);
+            appendField(csv, transaction.getAmount() != null ? transaction.getAmount().toPlainString() : null, false);
+            appendField(csv, transaction.getDescription(), false);
+            appendField(csv, transaction.getMerchant(), false);
+            appendField(csv, transaction.getPostedAt(), false);
+            appendField(csv, transaction.getTransactionType(), false);
+            appendField(csv, transaction.getStatus(), false);
+            appendField(csv, transaction.getExternalId(), false);
+            appendField(csv, transaction.getMetadata(), false);
+            appendField(csv, transaction.getCreatedAt(), false);
+            appendField(csv, transaction.getUpdatedAt(), true);
+        }
+
+        try {
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                    "COPY transactions (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY into transactions failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Append a CSV field. Values are always quoted so that an empty string stays
+     * distinct from NULL, which COPY reads from an unquoted empty field.
+     */
+    private static void appendField(StringBuilder csv, Object value, boolean last) {
+        if (value != null) {
+            String text = value.toString();
+            csv.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    csv.append('"');
+                }
+                csv.append(c);
+            }
+            csv.append('"');
+        }
+        csv.append(last ? '\n' : ',');
+    }
+}
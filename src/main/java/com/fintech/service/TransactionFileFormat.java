@@ -0,0 +1,30 @@
+package com.fintech.service;
+
+import java.util.Locale;
+
+/**
+ * Statement file formats accepted by the import endpoints.
+ */
+public enum TransactionFileFormat {
+    CSV,
+    OFX,
+    QIF;
+
+    /**
+     * The format of an uploaded file, from its extension, or from its content
+     * type for CSV uploads without one. Returns null for anything else.
+     */
+    public static TransactionFileFormat detect(String fileName, String contentType) {
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".ofx") || name.endsWith(".qfx")) {
+            return OFX;
+        }
+        if (name.endsWith(".qif")) {
+            return QIF;
+        }
+        if (name.endsWith(".csv") || "text/csv".equals(contentType)) {
+            return CSV;
+        }
+        return null;
+    }
+}
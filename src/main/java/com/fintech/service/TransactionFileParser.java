@@ -0,0 +1,80 @@
+package com.fintech.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opens a row reader for an uploaded statement in any supported format, so
+ * every import path shares the same de-duplication and insert flow.
+ */
+@Service
+public class TransactionFileParser {
+
+    @Autowired
+    private CsvTransactionParser csvParser;
+
+    @Autowired
+    private OfxTransactionParser ofxParser;
+
+    @Autowired
+    private QifTransactionParser qifParser;
+
+    /**
+     * Read every row of an upload, for the non-streaming import. The format
+     * comes from the file name, defaulting to CSV.
+     */
+    public List<CsvTransactionParser.CsvTransactionRow> parseFile(MultipartFile file, String profile) throws IOException {
+        List<CsvTransactionParser.CsvTransactionRow> rows = new ArrayList<>();
+        try (TransactionRowReader reader = openReader(file.getInputStream(), formatOf(file), profile)) {
+            CsvTransactionParser.CsvTransactionRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    public static TransactionFileFormat formatOf(MultipartFile file) {
+        TransactionFileFormat format = TransactionFileFormat.detect(file.getOriginalFilename(), file.getContentType());
+        return format != null ? format : TransactionFileFormat.CSV;
+    }
+
+    /**
+     * Read an OFX or QIF file through to the end, so a file holding more than
+     * one account's statement is rejected before any of its rows are committed.
+     * CSV has no notion of accounts and is not read.
+     *
+     * @throws IOException naming the line where the second statement starts
+     */
+    public void checkSingleAccount(InputStream in, TransactionFileFormat format) throws IOException {
+        if (format == TransactionFileFormat.CSV) {
+            return;
+        }
+        try (TransactionRowReader reader = openReader(in, format, null)) {
+            while (reader.next() != null) {
+                // Only the statement boundaries matter
+            }
+        }
+    }
+
+    /**
+     * @param profile CSV import profile, ignored for other formats
+     */
+    public TransactionRowReader openReader(InputStream in, TransactionFileFormat format, String profile) throws IOException {
+        switch (format) {
+            case OFX:
+                return ofxParser.openReader(in);
+            case QIF:
+                return qifParser.openReader(in);
+            default:
+                return csvParser.openReader(in, profile);
+        }
+    }
+}
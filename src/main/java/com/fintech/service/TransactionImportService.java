@@ -0,0 +1,277 @@
+package com.fintech.service;
+
+import com.fintech.domain.Account;
+import com.fintech.domain.ImportDigest;
+import com.fintech.domain.Transaction;
+import com.fintech.dto.CsvImportResult;
+import com.fintech.repo.AccountRepository;
+import com.fintech.repo.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Streaming import of CSV, OFX and QIF files.
+ *
+ * Rows are read one at a time and handled in fixed-size chunks, each validated,
+ * de-duplicated and inserted in its own transaction. Only counts and a capped
+ * sample of errors are kept, so memory use does not grow with the file size.
+ * Not annotated with {@code @Transactional} for that reason.
+ *
+ * Each chunk's rows are categorized by the user's rules and written with one
+ * {@link TransactionBatchWriter} call; the import is audited once as a whole
+ * rather than per transaction.
+ */
+@Service
+public class TransactionImportService {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionFileParser transactionFileParser;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private TransactionBatchWriter transactionBatchWriter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ImportDigestService importDigestService;
+
+    @Value("${imports.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${imports.max-errors:100}")
+    private int maxErrors;
+
+    public CsvImportResult importFile(UUID accountId, MultipartFile file, String profile) {
+        TransactionFileFormat format = TransactionFileParser.formatOf(file);
+        try {
+            String fileHash;
+            try (InputStream in = file.getInputStream()) {
+                fileHash = importDigestService.hashFile(in, format, profile);
+            }
+            try (InputStream in = file.getInputStream()) {
+                transactionFileParser.checkSingleAccount(in, format);
+            }
+            try (InputStream in = file.getInputStream()) {
+                return importFile(accountId, in, file.getOriginalFilename(), fileHash, format, profile, ImportProgress.NONE);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading import file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Import a CSV, OFX or QIF stream; CSV is read with the named import profile
+     * (null for the default layout). If the account already has an import with
+     * the same file hash, the stream is not read at all. See {@link #importRows};
+     * an OFX or QIF stream should have passed
+     * {@link TransactionFileParser#checkSingleAccount} first.
+     */
+    public CsvImportResult importFile(UUID accountId, InputStream in, String fileName, String fileHash,
+                                      TransactionFileFormat format, String profile, ImportProgress progress) {
+        ImportDigest importedFile = importDigestService.findImportedFile(accountId, fileHash);
+        if (importedFile != null) {
+            return importDigestService.alreadyImported(importedFile);
+        }
+        try (TransactionRowReader reader = transactionFileParser.openReader(in, format, profile)) {
+            return importRows(accountId, reader, fileName, fileHash, progress);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading import file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Import the rows of a reader. The progress callback is told about every
+     * chunk and checked for cancellation before the next one is read; a
+     * cancelled import keeps the chunks already committed. The caller closes
+     * the reader, and checks the file hash, if it has one, beforehand.
+     *
+     * Chunks whose rows, together with everything before them, match a prefix
+     * committed by an earlier import are skipped. Once the whole file is in, its
+     * hash is recorded so an identical upload can short-circuit.
+     */
+    public CsvImportResult importRows(UUID accountId, TransactionRowReader reader, String fileName, String fileHash,
+                                      ImportProgress progress) throws IOException {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new RuntimeException("Account not found"));
+
+        ImportTally tally = new ImportTally(maxErrors);
+        DuplicateDetector duplicates = new DuplicateDetector(transactionRepository, accountId);
+        Set<String> importedPrefixes = importDigestService.loadPrefixDigests(accountId);
+        ImportDigestService.RowDigest prefix = new ImportDigestService.RowDigest();
+        List<CsvTransactionParser.CsvTransactionRow> chunk = new ArrayList<>(chunkSize);
+        CsvTransactionParser.CsvTransactionRow row;
+        while (!progress.isCancelled() && (row = reader.next()) != null) {
+            chunk.add(row);
+            prefix.update(row);
+            if (chunk.size() == chunkSize) {
+                processChunk(account, chunk, prefix, importedPrefixes, fileName, duplicates, tally);
+                progress.chunkImported(tally.totalRows, tally.successfulImports, tally.failedImports);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty() && !progress.isCancelled()) {
+            processChunk(account, chunk, prefix, importedPrefixes, fileName, duplicates, tally);
+            progress.chunkImported(tally.totalRows, tally.successfulImports, tally.failedImports);
+        }
+        if (progress.isCancelled()) {
+            tally.addError("Import cancelled after " + tally.totalRows + " rows");
+        } else if (fileHash != null && !tally.rolledBack) {
+            importDigestService.recordFile(accountId, fileHash, fileName, tally.totalRows);
+        }
+
+        auditLogService.logImportAction("Transaction", accountId, fileName,
+                tally.successfulImports, tally.failedImports);
+
+        return tally.toResult();
+    }
+
+    private void processChunk(Account account, List<CsvTransactionParser.CsvTransactionRow> rows,
+                              ImportDigestService.RowDigest prefix, Set<String> importedPrefixes, String fileName,
+                              DuplicateDetector duplicates, ImportTally tally) {
+        String prefixDigest = prefix.current();
+        if (importedPrefixes.contains(prefixDigest)) {
+            tally.skip(rows.size());
+            return;
+        }
+        importChunk(account, rows, prefixDigest, prefix.getRowCount(), fileName, duplicates, tally);
+    }
+
+    /**
+     * Import one chunk in its own transaction, recording the prefix digest it
+     * completes. If the chunk rolls back, every row in it is reported as failed.
+     */
+    private void importChunk(Account account, List<CsvTransactionParser.CsvTransactionRow> rows,
+                             String prefixDigest, int prefixRows, String fileName,
+                             DuplicateDetector duplicates, ImportTally tally) {
+        ImportTally chunkTally = new ImportTally(maxErrors);
+        chunkTally.totalRows = rows.size();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                duplicates.prepare(rows);
+                List<Transaction> batch = new ArrayList<>(rows.size());
+                for (CsvTransactionParser.CsvTransactionRow row : rows) {
+                    if (row.hasError()) {
+                        chunkTally.fail(row.getLineNumber(), row.getError());
+                        continue;
+                    }
+
+                    if (duplicates.isDuplicate(row)) {
+                        chunkTally.fail(row.getLineNumber(), "Duplicate transaction found");
+                        continue;
+                    }
+
+                    batch.add(transactionService.buildTransaction(account, transactionService.toCreateRequest(account, row)));
+                    duplicates.add(row);
+                }
+                chunkTally.successfulImports = transactionBatchWriter.insert(batch);
+                importDigestService.recordPrefix(account.getId(), prefixDigest, prefixRows, fileName);
+            });
+            duplicates.commit();
+        } catch (Exception e) {
+            duplicates.discard();
+            int firstLine = rows.get(0).getLineNumber();
+            int lastLine = rows.get(rows.size() - 1).getLineNumber();
+            chunkTally.successfulImports = 0;
+            chunkTally.failedImports = rows.size();
+            chunkTally.rolledBack = true;
+            chunkTally.addError("Lines " + firstLine + "-" + lastLine + " rolled back: " + e.getMessage());
+        }
+        tally.merge(chunkTally);
+    }
+
+    /**
+     * Receives progress from {@link #importRows}.
+     */
+    public interface ImportProgress {
+        ImportProgress NONE = new ImportProgress() {
+            @Override
+            public void chunkImported(int rowsRead, int successfulImports, int failedImports) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        };
+
+        /** Called after each chunk with the running totals. */
+        void chunkImported(int rowsRead, int successfulImports, int failedImports);
+
+        boolean isCancelled();
+    }
+
+    static class ImportTally {
+        private final int maxErrors;
+        private int totalRows;
+        private int successfulImports;
+        private int failedImports;
+        private final List<String> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+        private int skippedRows;
+        private boolean rolledBack;
+
+        ImportTally(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void fail(int lineNumber, String message) {
+            failedImports++;
+            addError("Line " + lineNumber + ": " + message);
+        }
+
+        void skip(int rows) {
+            totalRows += rows;
+            skippedRows += rows;
+        }
+
+        void addError(String error) {
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        void merge(ImportTally other) {
+            totalRows += other.totalRows;
+            successfulImports += other.successfulImports;
+            failedImports += other.failedImports;
+            for (String error : other.errors) {
+                addError(error);
+            }
+            errorsTruncated |= other.errorsTruncated;
+            skippedRows += other.skippedRows;
+            rolledBack |= other.rolledBack;
+        }
+
+        CsvImportResult toResult() {
+            CsvImportResult result = new CsvImportResult(totalRows, successfulImports, failedImports, errors, List.of());
+            result.setErrorsTruncated(errorsTruncated);
+            result.setSkippedRows(skippedRows);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.fintech.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A source of parsed import rows, read one at a time in file order.
+ */
+public interface TransactionRowReader extends Closeable {
+
+    /**
+     * Returns the next row, carrying an error if it could not be parsed, or
+     * null at the end of the input.
+     */
+    CsvTransactionParser.CsvTransactionRow next() throws IOException;
+}
@@ -2,6 +2,7 @@ package com.fintech.service;
 
 import com.fintech.domain.Account;
 import com.fintech.domain.AuditLog;
+import com.fintech.domain.ImportDigest;
 import com.fintech.domain.Transaction;
 import com.fintech.dto.*;
 import com.fintech.repo.AccountRepository;
@@ -14,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -32,7 +34,10 @@ public class TransactionService {
     private AccountRepository accountRepository;
 
     @Autowired
-    private CsvTransactionParser csvParser;
+    private TransactionFileParser transactionFileParser;
+
+    @Autowired
+    private ImportDigestService importDigestService;
 
     @Autowired
     private AuditLogService auditLogService;
@@ -40,6 +45,9 @@ public class TransactionService {
     @Autowired
     private RuleService ruleService;
 
+    @Autowired
+    private CategoryLookupCache categoryLookupCache;
+
     public Page<TransactionDto> getTransactionsByAccount(UUID accountId, LocalDateTime from, LocalDateTime to, 
                                                          UUID categoryId, String searchQuery, Pageable pageable) {
         Page<Transaction> transactions = transactionRepository.findByAccountIdWithFilters(
@@ -53,19 +61,33 @@ public class TransactionService {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
 
+        // Save transaction
+        Transaction savedTransaction = transactionRepository.save(buildTransaction(account, request));
+
+        // Log audit
+        auditLogService.logTransactionAction(AuditLog.AuditAction.CREATE, savedTransaction, null);
+
+        return TransactionDto.fromEntity(savedTransaction);
+    }
+
+    /**
+     * Build a new, unsaved transaction for the account, with the category set by
+     * the user's rules when the request doesn't carry one. Shared by the single
+     * create and the bulk import paths.
+     */
+    public Transaction buildTransaction(Account account, CreateTransactionRequest request) {
         // Apply rules to determine category if not provided
         UUID categoryId = request.getCategoryId();
         if (categoryId == null) {
-            RuleService.RuleMatchResult ruleMatch = ruleService.applyRulesToTransaction(
-                    account.getUserId(), request.getMerchant(), request.getDescription());
+            RuleService.RuleMatchResult ruleMatch = ruleService.applyRulesToTransaction(account.getUserId(),
+                    new RuleInput(request.getMerchant(), request.getDescription(), request.getAmount(), account.getId(), request.getPostedAt()));
             if (ruleMatch.isMatch()) {
                 categoryId = ruleMatch.getTargetCategoryId();
             }
         }
 
-        // Create transaction
         Transaction transaction = new Transaction();
-        transaction.setAccountId(accountId);
+        transaction.setAccountId(account.getId());
         transaction.setCategoryId(categoryId);
         transaction.setAmount(request.getAmount());
         transaction.setDescription(request.getDescription());
@@ -73,15 +95,8 @@ public class TransactionService {
         transaction.setPostedAt(request.getPostedAt());
         transaction.setTransactionType(determineTransactionType(request.getAmount()));
         transaction.setStatus(Transaction.TransactionStatus.PENDING);
-        transaction.setExternalId(generateExternalId());
-
-        // Save transaction
-        Transaction savedTransaction = transactionRepository.save(transaction);
-
-        // Log audit
-        auditLogService.logTransactionAction(AuditLog.AuditAction.CREATE, savedTransaction, null);
-
-        return TransactionDto.fromEntity(savedTransaction);
+        transaction.setExternalId(request.getExternalId() != null ? request.getExternalId() : generateExternalId());
+        return transaction;
     }
 
     public TransactionDto updateTransaction(UUID transactionId, UpdateTransactionRequest request) {
@@ -118,21 +133,54 @@ public class TransactionService {
         return TransactionDto.fromEntity(savedTransaction);
     }
 
+    /**
+     * The request for an imported row, with a category given by name resolved
+     * against the account owner's categories.
+     */
+    public CreateTransactionRequest toCreateRequest(Account account, CsvTransactionParser.CsvTransactionRow row) {
+        CreateTransactionRequest request = row.toCreateRequest();
+        if (request.getCategoryId() == null && row.getCategoryName() != null) {
+            request.setCategoryId(categoryLookupCache.findImportedCategoryId(account.getUserId(), row.getCategoryName()));
+        }
+        return request;
+    }
+
     public CsvImportResult importTransactionsFromCsv(UUID accountId, MultipartFile file) {
+        return importTransactionsFromCsv(accountId, file, null);
+    }
+
+    public CsvImportResult importTransactionsFromCsv(UUID accountId, MultipartFile file, String profile) {
         // Verify account exists
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
 
         try {
-            // Parse CSV
-            List<CsvTransactionParser.CsvTransactionRow> csvRows = csvParser.parseCsv(file);
+            // An identical upload was imported before: nothing to do
+            String fileHash;
+            try (InputStream in = file.getInputStream()) {
+                fileHash = importDigestService.hashFile(in, TransactionFileParser.formatOf(file), profile);
+            }
+            ImportDigest importedFile = importDigestService.findImportedFile(accountId, fileHash);
+            if (importedFile != null) {
+                return importDigestService.alreadyImported(importedFile);
+            }
+
+            // Parse the CSV, OFX or QIF file
+            List<CsvTransactionParser.CsvTransactionRow> csvRows = transactionFileParser.parseFile(file, profile);
             
             List<TransactionDto> importedTransactions = new ArrayList<>();
             List<String> errors = new ArrayList<>();
             int successfulImports = 0;
             int failedImports = 0;
 
-            for (CsvTransactionParser.CsvTransactionRow row : csvRows) {
+            // Skip leading rows an earlier import already committed
+            int skippedRows = importDigestService.findImportedPrefix(accountId, csvRows);
+            List<CsvTransactionParser.CsvTransactionRow> newRows = csvRows.subList(skippedRows, csvRows.size());
+
+            DuplicateDetector duplicateDetector = new DuplicateDetector(transactionRepository, accountId);
+            duplicateDetector.prepare(newRows);
+
+            for (CsvTransactionParser.CsvTransactionRow row : newRows) {
                 if (row.hasError()) {
                     errors.add("Line " + row.getLineNumber() + ": " + row.getError());
                     failedImports++;
@@ -141,19 +189,18 @@ public class TransactionService {
 
                 try {
                     // Check for duplicates
-                    List<Transaction> duplicates = transactionRepository.findDuplicates(
-                            accountId, row.getPostedAt(), row.getAmount(), row.getMerchant(), row.getDescription());
-                    
-                    if (!duplicates.isEmpty()) {
+                    if (duplicateDetector.isDuplicate(row)) {
                         errors.add("Line " + row.getLineNumber() + ": Duplicate transaction found");
                         failedImports++;
                         continue;
                     }
 
                     // Create transaction with rule application
-                    CreateTransactionRequest createRequest = row.toCreateRequest();
+                    CreateTransactionRequest createRequest = toCreateRequest(account, row);
                     TransactionDto createdTransaction = createTransaction(accountId, createRequest);
                     importedTransactions.add(createdTransaction);
+                    duplicateDetector.add(row);
+                    duplicateDetector.commit();
                     successfulImports++;
 
                 } catch (Exception e) {
@@ -165,10 +212,15 @@ public class TransactionService {
             // Log import audit
             auditLogService.logImportAction("Transaction", accountId, file.getOriginalFilename(), successfulImports, failedImports);
 
-            return new CsvImportResult(csvRows.size(), successfulImports, failedImports, errors, importedTransactions);
+            importDigestService.recordPrefixes(accountId, csvRows, file.getOriginalFilename());
+            importDigestService.recordFile(accountId, fileHash, file.getOriginalFilename(), csvRows.size());
+
+            CsvImportResult result = new CsvImportResult(csvRows.size(), successfulImports, failedImports, errors, importedTransactions);
+            result.setSkippedRows(skippedRows);
+            return result;
 
         } catch (IOException e) {
-            throw new RuntimeException("Error reading CSV file: " + e.getMessage());
+            throw new RuntimeException("Error reading import file: " + e.getMessage());
         }
     }
 
@@ -180,6 +232,9 @@ public class TransactionService {
         auditLogService.logTransactionAction(AuditLog.AuditAction.DELETE, transaction, null);
 
         transactionRepository.delete(transaction);
+
+        // An import that included this row must not be skipped as already done if re-uploaded
+        importDigestService.clearDigests(transaction.getAccountId());
     }
 
     private Transaction.TransactionType determineTransactionType(BigDecimal amount) {
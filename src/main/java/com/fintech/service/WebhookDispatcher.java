@@ -0,0 +1,178 @@
+package com.fintech.service;
+
+import com.fintech.dto.WebhookMetricsDto;
+import com.fintech.dto.WebhookPartitionMetricsDto;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands stored webhook events to the partitioned {@code webhookExecutor}, so
+ * the receiving request only has to persist the event before acknowledging it.
+ *
+ * Events are partitioned by their account, so events for one account are
+ * processed one at a time in the order they were dispatched and never race
+ * on the same transactions, while different accounts are processed in
+ * parallel. Events without an account are spread by their id. The order
+ * holds within this instance: a retried event runs after later ones, and
+ * events claimed by other instances run on theirs.
+ *
+ * When an event's partition is full the event is refused rather than run on
+ * the caller's thread, and the caller tells the sender to retry later. Queue
+ * wait and processing time are recorded separately, so a backlog shows up as
+ * wait time rather than as slow processing, and wait is also kept per
+ * partition to show whether a few busy accounts or too few partitions cause it.
+ */
+@Component
+public class WebhookDispatcher {
+
+    public enum Outcome {
+        ACCEPTED,
+        /** The queue is full; worth retrying shortly. */
+        QUEUE_FULL,
+        /** The executor no longer takes work. */
+        SHUTTING_DOWN
+    }
+
+    @Autowired
+    private WebhookEventService webhookEventService;
+
+    @Autowired
+    @Qualifier("webhookExecutor")
+    private PartitionedExecutor webhookExecutor;
+
+    @Value("${webhooks.executor.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${webhooks.executor.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram processing = new LatencyHistogram();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+
+    private PartitionStats[] partitionStats;
+
+    @PostConstruct
+    void init() {
+        partitionStats = new PartitionStats[webhookExecutor.getPartitionCount()];
+        for (int i = 0; i < partitionStats.length; i++) {
+            partitionStats[i] = new PartitionStats();
+        }
+    }
+
+    /**
+     * @param partitionKey the account the event is for, or null when unknown
+     */
+    public Outcome dispatch(UUID eventId, String partitionKey) {
+        int partition = webhookExecutor.partitionOf(partitionKey != null ? partitionKey : eventId.toString());
+        PartitionStats stats = partitionStats[partition];
+        long enqueuedAt = System.nanoTime();
+        try {
+            webhookExecutor.execute(partition, () -> process(eventId, stats, enqueuedAt));
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            stats.rejected.increment();
+            return webhookExecutor.isShutdown() ? Outcome.SHUTTING_DOWN : Outcome.QUEUE_FULL;
+        }
+        accepted.increment();
+        stats.accepted.increment();
+        return Outcome.ACCEPTED;
+    }
+
+    /**
+     * Free queue slots across all partitions, so a poller claims no more
+     * events than can be queued. A claimed event can still find its own
+     * partition full, in which case it is refused and released.
+     */
+    public int remainingCapacity() {
+        int remaining = 0;
+        for (int i = 0; i < webhookExecutor.getPartitionCount(); i++) {
+            remaining += webhookExecutor.getRemainingCapacity(i);
+        }
+        return remaining;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public WebhookMetricsDto getMetrics() {
+        int partitionCount = webhookExecutor.getPartitionCount();
+        List<WebhookPartitionMetricsDto> partitions = new ArrayList<>(partitionCount);
+        int queueDepth = 0;
+        int activeWorkers = 0;
+        for (int i = 0; i < partitionCount; i++) {
+            PartitionStats stats = partitionStats[i];
+            WebhookPartitionMetricsDto partition = new WebhookPartitionMetricsDto();
+            partition.setPartition(i);
+            partition.setQueueDepth(webhookExecutor.getQueueSize(i));
+            partition.setQueueCapacity(webhookExecutor.getQueueCapacity());
+            partition.setBusy(webhookExecutor.isBusy(i));
+            partition.setOldestWaitMillis(TimeUnit.NANOSECONDS.toMillis(webhookExecutor.getOldestWaitNanos(i)));
+            partition.setAccepted(stats.accepted.sum());
+            partition.setRejected(stats.rejected.sum());
+            partition.setCompleted(stats.completed.sum());
+            partition.setQueueWait(stats.queueWait.snapshot());
+            partitions.add(partition);
+            queueDepth += partition.getQueueDepth();
+            activeWorkers += partition.isBusy() ? 1 : 0;
+        }
+
+        WebhookMetricsDto metrics = new WebhookMetricsDto();
+        metrics.setQueueDepth(queueDepth);
+        metrics.setQueueCapacity(webhookExecutor.getQueueCapacity() * partitionCount);
+        metrics.setActiveWorkers(activeWorkers);
+        metrics.setPoolSize(partitionCount);
+        metrics.setVirtualThreads(virtualThreads);
+        metrics.setAccepted(accepted.sum());
+        metrics.setRejected(rejected.sum());
+        metrics.setCompleted(completed.sum());
+        metrics.setQueueWait(queueWait.snapshot());
+        metrics.setProcessing(processing.snapshot());
+        metrics.setPartitions(partitions);
+        return metrics;
+    }
+
+    private void process(UUID eventId, PartitionStats stats, long enqueuedAt) {
+        long startedAt = System.nanoTime();
+        queueWait.record(startedAt - enqueuedAt);
+        stats.queueWait.record(startedAt - enqueuedAt);
+        try {
+            webhookEventService.processWebhookEvent(eventId);
+        } catch (RuntimeException e) {
+            recordFailure(eventId, e);
+        } finally {
+            processing.record(System.nanoTime() - startedAt);
+            completed.increment();
+            stats.completed.increment();
+        }
+    }
+
+    private void recordFailure(UUID eventId, RuntimeException failure) {
+        try {
+            webhookEventService.recordFailure(eventId, failure.getMessage());
+        } catch (RuntimeException e) {
+            // The claim expires and the event is retried without counting this attempt
+            System.err.println("Failed to record failure of webhook event " + eventId + ": " + e.getMessage());
+        }
+    }
+
+    private static class PartitionStats {
+        final LatencyHistogram queueWait = new LatencyHistogram();
+        final LongAdder accepted = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder completed = new LongAdder();
+    }
+}
@@ -4,27 +4,40 @@ import com.fintech.domain.Transaction;
 import com.fintech.domain.WebhookEvent;
 import com.fintech.dto.WebhookEventDto;
 import com.fintech.dto.WebhookPayloadDto;
-import com.fintech.repo.AccountRepository;
-import com.fintech.repo.CategoryRepository;
 import com.fintech.repo.TransactionRepository;
 import com.fintech.repo.WebhookEventRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class WebhookEventService {
 
+    // Payload transactions bound, matched and written together; also the size of each external id IN query
+    private static final int TRANSACTION_CHUNK_SIZE = 1000;
+    // Most dead letters one bulk replay may queue
+    static final int MAX_REPLAY_LIMIT = 1000;
+
     @Autowired
     private WebhookEventRepository webhookEventRepository;
 
@@ -32,104 +45,365 @@ public class WebhookEventService {
     private TransactionRepository transactionRepository;
 
     @Autowired
-    private AccountRepository accountRepository;
+    private ExternalAccountResolver externalAccountResolver;
 
     @Autowired
-    private CategoryRepository categoryRepository;
+    private CategoryLookupCache categoryLookupCache;
 
     @Autowired
     private AuditLogService auditLogService;
 
+    @Autowired
+    private TransactionBatchWriter transactionBatchWriter;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Value("${webhooks.poller.lease-seconds:300}")
+    private int leaseSeconds;
+
+    @Value("${webhooks.retry.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${webhooks.retry.initial-delay-seconds:30}")
+    private long initialRetryDelaySeconds;
+
+    @Value("${webhooks.retry.max-delay-seconds:3600}")
+    private long maxRetryDelaySeconds;
+
+    // Recorded in locked_by; pid@host
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * Store a received event, already claimed by this instance since the
+     * caller dispatches it straight away. If the instance dies first, the
+     * claim expires and {@link WebhookPoller} picks the event up elsewhere.
+     */
     public WebhookEvent createWebhookEvent(String eventType, String payload, String source) {
+        LocalDateTime now = LocalDateTime.now();
         WebhookEvent event = new WebhookEvent();
         event.setEventType(eventType);
         event.setPayload(payload);
         event.setSource(source);
-        event.setStatus(WebhookEvent.EventStatus.PENDING);
-        event.setCreatedAt(LocalDateTime.now());
+        event.setPartitionKey(partitionKey(payload));
+        event.setStatus(WebhookEvent.EventStatus.PROCESSING);
+        event.setLockedBy(instanceId);
+        event.setLockedUntil(now.plusSeconds(leaseSeconds));
+        event.setCreatedAt(now);
 
         return webhookEventRepository.save(event);
     }
 
-    @Async
+    /**
+     * Claim up to {@code limit} of the oldest PENDING events for this
+     * instance, topped up with FAILED events that are due for a retry. Rows
+     * another instance is claiming at the same moment are skipped rather than
+     * waited for, so pollers never block each other.
+     *
+     * @return the partition key of each claimed event by id, oldest first
+     */
+    public Map<UUID, String> claimPendingEvents(int limit) {
+        List<WebhookEventRepository.ClaimedEvent> claimed = new ArrayList<>(webhookEventRepository.lockPending(limit));
+        if (claimed.size() < limit) {
+            claimed.addAll(webhookEventRepository.lockRetries(LocalDateTime.now(), limit - claimed.size()));
+        }
+
+        Map<UUID, String> partitionKeys = new LinkedHashMap<>();
+        for (WebhookEventRepository.ClaimedEvent event : claimed) {
+            partitionKeys.put(event.getId(), event.getPartitionKey());
+        }
+        if (!partitionKeys.isEmpty()) {
+            webhookEventRepository.markProcessing(new ArrayList<>(partitionKeys.keySet()), WebhookEvent.EventStatus.PROCESSING,
+                    instanceId, LocalDateTime.now().plusSeconds(leaseSeconds));
+        }
+        return partitionKeys;
+    }
+
+    /**
+     * The payload's top-level {@code accountId}, or null when there is none.
+     * Senders put it ahead of the transactions, so the scan usually stops
+     * after a few tokens without reading the rest of the body.
+     */
+    String partitionKey(String payload) {
+        try (JsonParser parser = objectMapper.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("accountId".equals(field)) {
+                    return parser.getValueAsString();
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // Not valid JSON; the insert rejects it
+        }
+        return null;
+    }
+
+    /**
+     * Return a claimed event this instance could not hand to a worker. A
+     * retry goes back to FAILED with its next attempt time kept, anything
+     * else to PENDING.
+     */
+    public void releaseEvent(UUID eventId) {
+        webhookEventRepository.release(eventId, instanceId);
+    }
+
+    public int releaseExpiredClaims() {
+        return webhookEventRepository.releaseExpired(LocalDateTime.now());
+    }
+
+    /**
+     * Drop an event that was stored but refused by the dispatcher; the sender
+     * retries it.
+     */
+    public void deleteWebhookEvent(UUID eventId) {
+        webhookEventRepository.deleteById(eventId);
+    }
+
+    /**
+     * Runs on a {@link WebhookDispatcher} worker, never on the request thread.
+     * Delivery is at least once: an event whose claim expired mid-processing
+     * can be processed again, and one already processed is skipped.
+     *
+     * A failure rolls back everything the attempt wrote and is thrown to the
+     * caller, which records it with {@link #recordFailure} in a transaction of
+     * its own; recording it here would be lost if the failure was the
+     * database's.
+     */
     public void processWebhookEvent(UUID eventId) {
         WebhookEvent event = webhookEventRepository.findById(eventId)
                 .orElseThrow(() -> new RuntimeException("Webhook event not found"));
+        if (event.getStatus() == WebhookEvent.EventStatus.PROCESSED) {
+            return;
+        }
 
-        try {
-            event.setStatus(WebhookEvent.EventStatus.PROCESSED);
-            webhookEventRepository.save(event);
+        // Process transactions
+        if ("transactions.new".equals(event.getEventType())) {
+            processNewTransactions(eventId, event.getPayload());
+        }
 
-            // Parse payload
-            WebhookPayloadDto payload = objectMapper.readValue(event.getPayload(), WebhookPayloadDto.class);
+        // Mark as completed
+        event.setStatus(WebhookEvent.EventStatus.PROCESSED);
+        event.setProcessedAt(LocalDateTime.now());
+        event.setErrorMessage(null);
+        event.setNextAttemptAt(null);
+        event.setLockedBy(null);
+        event.setLockedUntil(null);
+        webhookEventRepository.save(event);
+    }
+
+    /**
+     * Count a failed attempt. The event is retried after an exponential
+     * backoff with jitter, or moved to DEAD_LETTER once it has used
+     * {@code webhooks.retry.max-attempts}.
+     */
+    public void recordFailure(UUID eventId, String errorMessage) {
+        Optional<WebhookEvent> found = webhookEventRepository.findById(eventId);
+        if (found.isEmpty()) {
+            return;
+        }
+        WebhookEvent event = found.get();
+        int attempts = (event.getRetryCount() != null ? event.getRetryCount() : 0) + 1;
+        LocalDateTime now = LocalDateTime.now();
+
+        event.setRetryCount(attempts);
+        event.setErrorMessage(errorMessage);
+        event.setProcessedAt(now);
+        event.setLockedBy(null);
+        event.setLockedUntil(null);
+        if (attempts >= maxAttempts) {
+            event.setStatus(WebhookEvent.EventStatus.DEAD_LETTER);
+            event.setNextAttemptAt(null);
+            System.err.println("Webhook event " + eventId + " moved to dead letter after " + attempts + " attempts: " + errorMessage);
+        } else {
+            long delay = retryDelaySeconds(attempts, initialRetryDelaySeconds, maxRetryDelaySeconds,
+                    ThreadLocalRandom.current().nextDouble());
+            event.setStatus(WebhookEvent.EventStatus.FAILED);
+            event.setNextAttemptAt(now.plusSeconds(delay));
+            System.err.println("Failed to process webhook event " + eventId + " (attempt " + attempts + ", retrying in "
+                    + delay + "s): " + errorMessage);
+        }
+        webhookEventRepository.save(event);
+    }
+
+    /**
+     * The wait before the attempt after {@code attempts} failures: doubling
+     * from {@code initial} up to {@code max}, then drawn from its upper half so
+     * events that failed together do not all retry together.
+     */
+    static long retryDelaySeconds(int attempts, long initial, long max, double random) {
+        long delay = Math.min(max, initial << Math.min(attempts - 1, 30));
+        long half = delay / 2;
+        return delay - half + (long) (random * half);
+    }
+
+    /**
+     * Queue the given FAILED or DEAD_LETTER events again with their attempts
+     * reset. Other ids are ignored.
+     */
+    public int replayEvents(List<UUID> eventIds) {
+        if (eventIds == null || eventIds.isEmpty()) {
+            throw new RuntimeException("No event ids given to replay");
+        }
+        return webhookEventRepository.replay(WebhookEvent.EventStatus.PENDING, eventIds);
+    }
 
-            // Process transactions
-            if ("transactions.new".equals(event.getEventType()) && payload.getTransactions() != null) {
-                processNewTransactions(payload);
+    /**
+     * Queue up to {@code limit} DEAD_LETTER events again, oldest first, with
+     * their attempts reset.
+     *
+     * @param before only events created before this time, or null for all
+     * @param source only events from this source, or null for any
+     */
+    public int replayDeadLetters(int limit, LocalDateTime before, String source) {
+        if (limit < 1 || limit > MAX_REPLAY_LIMIT) {
+            throw new RuntimeException("Replay limit must be between 1 and " + MAX_REPLAY_LIMIT);
+        }
+        return webhookEventRepository.replayDeadLetters(before != null ? before : LocalDateTime.now(), source, limit);
+    }
+
+    /**
+     * Stream the payload's transactions and process them in chunks, so only one
+     * chunk is bound to objects at a time. A chunk needs the account, so in a
+     * payload that lists its transactions before {@code accountId} they are
+     * held until it has been read.
+     */
+    private void processNewTransactions(UUID eventId, String payloadJson) {
+        String externalAccountId = null;
+        ExternalAccountResolver.AccountRef account = null;
+        List<WebhookPayloadDto.TransactionData> chunk = new ArrayList<>();
+        IngestTally tally = new IngestTally();
+
+        try (JsonParser parser = objectMapper.createParser(payloadJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("Invalid webhook payload: expected a JSON object");
             }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("accountId".equals(field)) {
+                    externalAccountId = parser.getValueAsString();
+                } else if ("transactions".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        WebhookPayloadDto.TransactionData transactionData =
+                                objectMapper.readValue(parser, WebhookPayloadDto.TransactionData.class);
+                        if (transactionData != null) {
+                            chunk.add(transactionData);
+                        }
+                        if (chunk.size() >= TRANSACTION_CHUNK_SIZE && externalAccountId != null) {
+                            if (account == null) {
+                                account = externalAccountResolver.resolve(MockBankService.PROVIDER, externalAccountId);
+                            }
+                            processChunk(account, chunk, tally);
+                            chunk.clear();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid webhook payload: " + e.getMessage());
+        }
 
-            // Mark as completed
-            event.setStatus(WebhookEvent.EventStatus.PROCESSED);
-            event.setProcessedAt(LocalDateTime.now());
-            webhookEventRepository.save(event);
+        if (!chunk.isEmpty()) {
+            if (account == null) {
+                // Find the internal account linked to the external account ID
+                account = externalAccountResolver.resolve(MockBankService.PROVIDER, externalAccountId);
+            }
+            processChunk(account, chunk, tally);
+        }
+        if (tally.created > 0 || tally.failed > 0) {
+            auditLogService.logImportAction("Transaction", account.getAccountId(), "webhook:" + eventId, tally.created, tally.failed);
+        }
+    }
 
-        } catch (Exception e) {
-            // Mark as failed
-            event.setStatus(WebhookEvent.EventStatus.FAILED);
-            event.setErrorMessage(e.getMessage());
-            event.setProcessedAt(LocalDateTime.now());
-            webhookEventRepository.save(event);
-
-            // Log error
-            System.err.println("Failed to process webhook event " + eventId + ": " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    private void processNewTransactions(WebhookPayloadDto payload) {
-        // Find the account by external account ID
-        String externalAccountId = payload.getAccountId();
-        
-        // For mock bank, we'll use the external account ID to find the internal account
-        // In a real implementation, you'd have a mapping table
-        List<com.fintech.domain.Account> accounts = accountRepository.findAll();
-        
-        com.fintech.domain.Account account = accounts.stream()
-                .filter(acc -> externalAccountId.equals(acc.getName())) // Simple mapping for demo
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Account not found for external ID: " + externalAccountId));
-
-        // Process each transaction
-        for (WebhookPayloadDto.TransactionData transactionData : payload.getTransactions()) {
+    private void processChunk(ExternalAccountResolver.AccountRef account, List<WebhookPayloadDto.TransactionData> transactions,
+                              IngestTally tally) {
+        // Transactions of the chunk already stored, fetched with one query
+        Map<String, Transaction> existingTransactions = findExistingTransactions(account.getAccountId(), transactions);
+
+        // Process each transaction; new ones are collected and inserted in one batch,
+        // changed ones are collected with their previous values and written together
+        Map<String, Transaction> newTransactions = new LinkedHashMap<>();
+        Map<String, Transaction> previousValues = new LinkedHashMap<>();
+        for (WebhookPayloadDto.TransactionData transactionData : transactions) {
             try {
-                processTransaction(account, transactionData);
+                processTransaction(account, transactionData, existingTransactions, newTransactions, previousValues);
             } catch (Exception e) {
+                tally.failed++;
                 System.err.println("Failed to process transaction " + transactionData.getTransactionId() + ": " + e.getMessage());
                 // Continue processing other transactions
             }
         }
+
+        tally.created += transactionBatchWriter.insertIfAbsent(new ArrayList<>(newTransactions.values()));
+        if (!previousValues.isEmpty()) {
+            List<Transaction> updated = new ArrayList<>(previousValues.size());
+            for (String externalId : previousValues.keySet()) {
+                updated.add(existingTransactions.get(externalId));
+            }
+            transactionRepository.saveAll(updated);
+            auditLogService.logTransactionUpdates(updated, new ArrayList<>(previousValues.values()));
+        }
+    }
+
+    private Map<String, Transaction> findExistingTransactions(UUID accountId, List<WebhookPayloadDto.TransactionData> transactions) {
+        List<String> externalIds = new ArrayList<>(transactions.size());
+        for (WebhookPayloadDto.TransactionData transactionData : transactions) {
+            if (transactionData.getTransactionId() != null) {
+                externalIds.add(transactionData.getTransactionId());
+            }
+        }
+
+        Map<String, Transaction> existing = new HashMap<>();
+        if (externalIds.isEmpty()) {
+            return existing;
+        }
+        for (Transaction transaction : transactionRepository.findByAccountIdAndExternalIdIn(accountId, externalIds)) {
+            existing.putIfAbsent(transaction.getExternalId(), transaction);
+        }
+        return existing;
     }
 
-    private void processTransaction(com.fintech.domain.Account account, WebhookPayloadDto.TransactionData transactionData) {
-        // Check if transaction already exists
-        Optional<Transaction> existingTransaction = transactionRepository
-                .findByExternalId(transactionData.getTransactionId());
+    private void processTransaction(ExternalAccountResolver.AccountRef account, WebhookPayloadDto.TransactionData transactionData,
+                                    Map<String, Transaction> existingTransactions, Map<String, Transaction> newTransactions,
+                                    Map<String, Transaction> previousValues) {
+        // Transactions are matched and deduplicated by their id, so one without an id cannot be stored
+        if (transactionData.getTransactionId() == null || transactionData.getTransactionId().isBlank()) {
+            throw new RuntimeException("Transaction has no transactionId");
+        }
+        // Both are stored NOT NULL; checking here fails this transaction instead of the chunk's insert
+        if (transactionData.getPostedAt() == null) {
+            throw new RuntimeException("Transaction " + transactionData.getTransactionId() + " has no postedAt");
+        }
+        if (transactionData.getAmount() == null) {
+            throw new RuntimeException("Transaction " + transactionData.getTransactionId() + " has no amount");
+        }
+
+        // A later entry for an id already seen in this payload replaces the pending insert
+        if (newTransactions.containsKey(transactionData.getTransactionId())) {
+            newTransactions.put(transactionData.getTransactionId(), newTransaction(account, transactionData));
+            return;
+        }
 
-        if (existingTransaction.isPresent()) {
+        Transaction existingTransaction = existingTransactions.get(transactionData.getTransactionId());
+        if (existingTransaction != null) {
             // Update existing transaction
-            updateTransaction(existingTransaction.get(), transactionData);
+            updateTransaction(account, existingTransaction, transactionData, previousValues);
         } else {
             // Create new transaction
-            createTransaction(account, transactionData);
+            newTransactions.put(transactionData.getTransactionId(), newTransaction(account, transactionData));
         }
     }
 
-    private void createTransaction(com.fintech.domain.Account account, WebhookPayloadDto.TransactionData transactionData) {
+    private Transaction newTransaction(ExternalAccountResolver.AccountRef account, WebhookPayloadDto.TransactionData transactionData) {
         Transaction transaction = new Transaction();
-        transaction.setAccountId(account.getId());
+        transaction.setAccountId(account.getAccountId());
         transaction.setExternalId(transactionData.getTransactionId());
         transaction.setAmount(transactionData.getAmount());
         transaction.setDescription(transactionData.getDescription());
@@ -140,21 +414,13 @@ public class WebhookEventService {
         transaction.setStatus(Transaction.TransactionStatus.CLEARED);
 
         // Try to find category by name
-        if (transactionData.getCategory() != null) {
-            Optional<com.fintech.domain.Category> category = categoryRepository
-                    .findByUserIdAndName(account.getUserId(), transactionData.getCategory());
-            if (category.isPresent()) {
-                transaction.setCategoryId(category.get().getId());
-            }
-        }
-
-        Transaction savedTransaction = transactionRepository.save(transaction);
+        transaction.setCategoryId(categoryLookupCache.findCategoryId(account.getUserId(), transactionData.getCategory()));
 
-        // Log audit
-        auditLogService.logTransactionAction(com.fintech.domain.AuditLog.AuditAction.CREATE, savedTransaction, null);
+        return transaction;
     }
 
-    private void updateTransaction(Transaction existingTransaction, WebhookPayloadDto.TransactionData transactionData) {
+    private void updateTransaction(ExternalAccountResolver.AccountRef account, Transaction existingTransaction,
+                                   WebhookPayloadDto.TransactionData transactionData, Map<String, Transaction> previousValues) {
         // Store old values for audit
         Transaction oldTransaction = createTransactionCopy(existingTransaction);
 
@@ -167,18 +433,25 @@ public class WebhookEventService {
                 Transaction.TransactionType.CREDIT : Transaction.TransactionType.DEBIT);
 
         // Update category if provided
-        if (transactionData.getCategory() != null) {
-            Optional<com.fintech.domain.Category> category = categoryRepository
-                    .findByUserIdAndName(existingTransaction.getAccountId(), transactionData.getCategory());
-            if (category.isPresent()) {
-                existingTransaction.setCategoryId(category.get().getId());
-            }
+        UUID categoryId = categoryLookupCache.findCategoryId(account.getUserId(), transactionData.getCategory());
+        if (categoryId != null) {
+            existingTransaction.setCategoryId(categoryId);
         }
 
-        Transaction savedTransaction = transactionRepository.save(existingTransaction);
+        // Redelivered transactions are usually unchanged and need no write or audit entry;
+        // the audit keeps the values from before the first change in this payload
+        if (!sameValues(oldTransaction, existingTransaction)) {
+            previousValues.putIfAbsent(existingTransaction.getExternalId(), oldTransaction);
+        }
+    }
 
-        // Log audit
-        auditLogService.logTransactionAction(com.fintech.domain.AuditLog.AuditAction.UPDATE, savedTransaction, oldTransaction);
+    private static boolean sameValues(Transaction a, Transaction b) {
+        return a.getAmount().compareTo(b.getAmount()) == 0
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getMerchant(), b.getMerchant())
+                && Objects.equals(a.getPostedAt(), b.getPostedAt())
+                && a.getTransactionType() == b.getTransactionType()
+                && Objects.equals(a.getCategoryId(), b.getCategoryId());
     }
 
     private Transaction createTransactionCopy(Transaction original) {
@@ -207,9 +480,20 @@ public class WebhookEventService {
         return webhookEventRepository.findFailedEventsSince(LocalDateTime.now().minusHours(24));
     }
 
+    public List<WebhookEventDto> getDeadLetterEventsAsDto() {
+        return webhookEventRepository.findByStatusOrderByCreatedAtAsc(WebhookEvent.EventStatus.DEAD_LETTER).stream()
+                .map(WebhookEventDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+
     public List<WebhookEventDto> getPendingEventsAsDto() {
         return getPendingEvents().stream()
                 .map(WebhookEventDto::fromEntity)
                 .collect(Collectors.toList());
     }
+
+    private static class IngestTally {
+        int created;
+        int failed;
+    }
 }
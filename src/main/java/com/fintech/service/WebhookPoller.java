@@ -0,0 +1,81 @@
+package com.fintech.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Consumer of the durable queue in {@code webhook_events}.
+ *
+ * Each poll first returns expired claims to the queue, then claims batches of
+ * PENDING events with {@code FOR UPDATE SKIP LOCKED} and hands them to the
+ * {@link WebhookDispatcher} workers, as long as the worker queues have room.
+ * Any number of instances can poll the same table: each event is claimed by
+ * one of them, and taken over by another if that one stops before finishing.
+ */
+@Component
+public class WebhookPoller {
+
+    @Autowired
+    private WebhookEventService webhookEventService;
+
+    @Autowired
+    private WebhookDispatcher webhookDispatcher;
+
+    @Value("${webhooks.poller.enabled:true}")
+    private boolean enabled;
+
+    @Value("${webhooks.poller.batch-size:50}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${webhooks.poller.interval-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            webhookEventService.releaseExpiredClaims();
+            // Keep claiming while full batches come back, to drain a backlog
+            while (true) {
+                int limit = Math.min(batchSize, webhookDispatcher.remainingCapacity());
+                if (limit <= 0) {
+                    return;
+                }
+                Map<UUID, String> claimed = webhookEventService.claimPendingEvents(limit);
+                if (!dispatchAll(claimed)) {
+                    return;
+                }
+                if (claimed.size() < limit) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to poll webhook events: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Dispatch claimed events in claim order until one is refused, then
+     * release it and every event after it. Releasing only the refused one
+     * would let later events for its account run ahead of it, and claiming
+     * again would fetch the same oldest rows, so the poll ends there and the
+     * next one retries once the partition has drained.
+     *
+     * @return whether every event was accepted
+     */
+    private boolean dispatchAll(Map<UUID, String> claimed) {
+        boolean refused = false;
+        for (Map.Entry<UUID, String> event : claimed.entrySet()) {
+            if (!refused && webhookDispatcher.dispatch(event.getKey(), event.getValue()) == WebhookDispatcher.Outcome.ACCEPTED) {
+                continue;
+            }
+            refused = true;
+            webhookEventService.releaseEvent(event.getKey());
+        }
+        return !refused;
+    }
+}
@@ -1,6 +1,8 @@
 package com.fintech.web;
 
 import com.fintech.dto.*;
+import com.fintech.service.RecategorizationService;
+import com.fintech.service.RuleBacktestService;
 import com.fintech.service.RuleService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +21,12 @@ public class RuleController {
     @Autowired
     private RuleService ruleService;
 
+    @Autowired
+    private RecategorizationService recategorizationService;
+
+    @Autowired
+    private RuleBacktestService ruleBacktestService;
+
     @GetMapping("/rules")
     public ResponseEntity<List<RuleDto>> getUserRules(@RequestParam UUID userId) {
         List<RuleDto> rules = ruleService.getUserRules(userId);
@@ -57,4 +65,36 @@ public class RuleController {
         ruleService.deleteRule(userId, ruleId);
         return ResponseEntity.noContent().build();
     }
+
+    @GetMapping("/rules/metrics")
+    public ResponseEntity<RuleMetricsDto> getRuleMetrics(
+            @RequestParam UUID userId,
+            @RequestParam(defaultValue = "30") int days) {
+        RuleMetricsDto metrics = ruleService.getRuleMetrics(userId, days);
+        return ResponseEntity.ok(metrics);
+    }
+
+    @PostMapping("/rules/recategorize")
+    public ResponseEntity<RecategorizationJobDto> startRecategorization(
+            @RequestParam UUID userId,
+            @RequestParam(defaultValue = "true") boolean onlyUncategorized) {
+        RecategorizationJobDto job = recategorizationService.startJob(userId, onlyUncategorized);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/rules/recategorize/{jobId}")
+    public ResponseEntity<RecategorizationJobDto> getRecategorizationJob(
+            @RequestParam UUID userId,
+            @PathVariable UUID jobId) {
+        RecategorizationJobDto job = recategorizationService.getJob(userId, jobId);
+        return ResponseEntity.ok(job);
+    }
+
+    @PostMapping("/rules/backtest")
+    public ResponseEntity<RuleBacktestResult> backtestRule(
+            @RequestParam UUID userId,
+            @RequestBody RuleBacktestRequest request) {
+        RuleBacktestResult result = ruleBacktestService.backtest(userId, request);
+        return ResponseEntity.ok(result);
+    }
 }
@@ -1,6 +1,11 @@
 package com.fintech.web;
 
 import com.fintech.dto.*;
+import com.fintech.service.CsvImportProfile;
+import com.fintech.service.CsvImportProfileRegistry;
+import com.fintech.service.ImportJobService;
+import com.fintech.service.TransactionFileFormat;
+import com.fintech.service.TransactionImportService;
 import com.fintech.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -20,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -31,6 +37,15 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private TransactionImportService transactionImportService;
+
+    @Autowired
+    private ImportJobService importJobService;
+
+    @Autowired
+    private CsvImportProfileRegistry csvImportProfileRegistry;
+
     @GetMapping("/accounts/{accountId}/transactions")
     @Operation(summary = "Get transactions for an account", description = "Retrieve paginated transactions for a specific account with optional filtering")
     @ApiResponses(value = {
@@ -86,18 +101,68 @@ public class TransactionController {
     @PostMapping("/transactions/import")
     public ResponseEntity<CsvImportResult> importTransactions(
             @RequestParam("accountId") UUID accountId,
-            @RequestParam("file") MultipartFile file) {
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean streaming,
+            @RequestParam(required = false) String profile) {
         
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         
-        if (!file.getContentType().equals("text/csv") && 
-            !file.getOriginalFilename().toLowerCase().endsWith(".csv")) {
+        // CSV, OFX/QFX or QIF
+        if (TransactionFileFormat.detect(file.getOriginalFilename(), file.getContentType()) == null) {
             return ResponseEntity.badRequest().build();
         }
         
-        CsvImportResult result = transactionService.importTransactionsFromCsv(accountId, file);
+        // Streaming mode imports in chunks and returns counts only, not every created transaction
+        CsvImportResult result = streaming
+                ? transactionImportService.importFile(accountId, file, profile)
+                : transactionService.importTransactionsFromCsv(accountId, file, profile);
         return ResponseEntity.ok(result);
     }
+
+    @PostMapping("/transactions/import/jobs")
+    public ResponseEntity<ImportJobDto> startImportJob(
+            @RequestParam UUID userId,
+            @RequestParam("accountId") UUID accountId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String profile) {
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (TransactionFileFormat.detect(file.getOriginalFilename(), file.getContentType()) == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ImportJobDto job = importJobService.startJob(userId, accountId, file, profile);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/transactions/import/profiles")
+    public ResponseEntity<List<CsvImportProfile>> getImportProfiles() {
+        return ResponseEntity.ok(csvImportProfileRegistry.getProfiles());
+    }
+
+    @GetMapping("/transactions/import/jobs/{jobId}")
+    public ResponseEntity<ImportJobDto> getImportJob(
+            @RequestParam UUID userId,
+            @PathVariable UUID jobId) {
+        return ResponseEntity.ok(importJobService.getJob(userId, jobId));
+    }
+
+    @PostMapping("/transactions/import/jobs/{jobId}/cancel")
+    public ResponseEntity<ImportJobDto> cancelImportJob(
+            @RequestParam UUID userId,
+            @PathVariable UUID jobId) {
+        return ResponseEntity.ok(importJobService.cancelJob(userId, jobId));
+    }
+
+    @GetMapping("/transactions/import/jobs/{jobId}/result")
+    public ResponseEntity<CsvImportResult> getImportJobResult(
+            @RequestParam UUID userId,
+            @PathVariable UUID jobId) {
+        return ResponseEntity.ok(importJobService.getResult(userId, jobId));
+    }
 }
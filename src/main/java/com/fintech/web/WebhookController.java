@@ -1,14 +1,22 @@
 package com.fintech.web;
 
 import com.fintech.dto.WebhookEventDto;
-import com.fintech.dto.WebhookPayloadDto;
+import com.fintech.dto.WebhookMetricsDto;
+import com.fintech.service.WebhookDispatcher;
 import com.fintech.service.WebhookEventService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/webhooks")
@@ -18,17 +26,17 @@ public class WebhookController {
     @Autowired
     private WebhookEventService webhookEventService;
 
-    @PostMapping("/mockbank")
-    public ResponseEntity<String> receiveMockBankWebhook(@RequestBody WebhookPayloadDto payload) {
+    @Autowired
+    private WebhookDispatcher webhookDispatcher;
+
+    /**
+     * The body is stored as received and only parsed by the worker that
+     * processes the event, against the shape of {@link com.fintech.dto.WebhookPayloadDto}.
+     */
+    @PostMapping(value = "/mockbank", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> receiveMockBankWebhook(@RequestBody byte[] payload) {
         try {
-            // Create webhook event
-            String payloadJson = new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(payload);
-            var event = webhookEventService.createWebhookEvent("transactions.new", payloadJson, "mockbank");
-            
-            // Process asynchronously
-            webhookEventService.processWebhookEvent(event.getId());
-            
-            return ResponseEntity.ok("Webhook received and queued for processing");
+            return enqueue(payload, "mockbank", "Webhook received and queued for processing");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error processing webhook: " + e.getMessage());
@@ -42,20 +50,70 @@ public class WebhookController {
         return ResponseEntity.ok(events);
     }
 
-    @PostMapping("/test/simulate")
-    public ResponseEntity<String> simulateWebhook(@RequestBody WebhookPayloadDto payload) {
+    @GetMapping("/events/dead-letter")
+    public ResponseEntity<List<WebhookEventDto>> getDeadLetterEvents() {
+        return ResponseEntity.ok(webhookEventService.getDeadLetterEventsAsDto());
+    }
+
+    /**
+     * Queue the listed failed or dead-lettered events again. The ids are
+     * required; use {@code /events/dead-letter/replay} to replay in bulk.
+     */
+    @PostMapping("/events/replay")
+    public ResponseEntity<Map<String, Integer>> replayEvents(@RequestBody List<UUID> eventIds) {
+        int replayed = webhookEventService.replayEvents(eventIds);
+        return ResponseEntity.ok(Map.of("replayed", replayed));
+    }
+
+    /**
+     * Queue up to {@code limit} dead-lettered events again, oldest first,
+     * optionally only those created before {@code before} or from one source.
+     */
+    @PostMapping("/events/dead-letter/replay")
+    public ResponseEntity<Map<String, Integer>> replayDeadLetters(
+            @RequestParam int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) String source) {
+        int replayed = webhookEventService.replayDeadLetters(limit, before, source);
+        return ResponseEntity.ok(Map.of("replayed", replayed));
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<WebhookMetricsDto> getWebhookMetrics() {
+        return ResponseEntity.ok(webhookDispatcher.getMetrics());
+    }
+
+    @PostMapping(value = "/test/simulate", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> simulateWebhook(@RequestBody byte[] payload) {
         try {
-            // Create webhook event
-            String payloadJson = new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(payload);
-            var event = webhookEventService.createWebhookEvent("transactions.new", payloadJson, "test");
-            
-            // Process asynchronously
-            webhookEventService.processWebhookEvent(event.getId());
-            
-            return ResponseEntity.ok("Test webhook simulated and queued for processing");
+            return enqueue(payload, "test", "Test webhook simulated and queued for processing");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error simulating webhook: " + e.getMessage());
         }
     }
+
+    /**
+     * Store the event and hand it to the webhook workers. The response only
+     * waits for the insert; a full queue answers 429 and a stopping executor
+     * 503, both with the event removed so the sender's retry is not a duplicate.
+     */
+    private ResponseEntity<String> enqueue(byte[] payload, String source, String acceptedMessage) {
+        String payloadJson = new String(payload, StandardCharsets.UTF_8);
+        var event = webhookEventService.createWebhookEvent("transactions.new", payloadJson, source);
+
+        WebhookDispatcher.Outcome outcome = webhookDispatcher.dispatch(event.getId(), event.getPartitionKey());
+        if (outcome == WebhookDispatcher.Outcome.ACCEPTED) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(acceptedMessage);
+        }
+
+        webhookEventService.deleteWebhookEvent(event.getId());
+        HttpStatus status = outcome == WebhookDispatcher.Outcome.QUEUE_FULL
+                ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(webhookDispatcher.getRetryAfterSeconds()))
+                .body(outcome == WebhookDispatcher.Outcome.QUEUE_FULL
+                        ? "Too many webhooks queued, try again later"
+                        : "Webhook processing is shutting down, try again later");
+    }
 }
@@ -0,0 +1,29 @@
+-- Webhook ingestion matches a payload's transactions with one
+-- account_id = ? AND external_id IN (...) query, and inserts new ones with
+-- ON CONFLICT (account_id, external_id) DO NOTHING so an event processed twice
+-- stores each transaction once. NULL external ids never conflict.
+--
+-- Existing duplicates are not removed here: the migration stops and lists
+-- them, to be resolved by hand before it is run again.
+DO $$
+DECLARE
+    duplicates TEXT;
+BEGIN
+    SELECT string_agg(format('account %s, external id %s (%s rows)', account_id, external_id, n), E'\n')
+    INTO duplicates
+    FROM (
+        SELECT account_id, external_id, COUNT(*) AS n
+        FROM transactions
+        WHERE external_id IS NOT NULL
+        GROUP BY account_id, external_id
+        HAVING COUNT(*) > 1
+        ORDER BY account_id, external_id
+        LIMIT 100
+    ) d;
+
+    IF duplicates IS NOT NULL THEN
+        RAISE EXCEPTION E'Transactions share an external id within an account; resolve them before migrating (first 100 shown):\n%', duplicates;
+    END IF;
+END $$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_transactions_account_external_id ON transactions(account_id, external_id);
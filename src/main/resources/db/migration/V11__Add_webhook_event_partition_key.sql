@@ -0,0 +1,3 @@
+-- The sender's account id, recorded at intake so events for the same account
+-- are processed one after another
+ALTER TABLE webhook_events ADD COLUMN partition_key VARCHAR(255);
@@ -0,0 +1,14 @@
+-- Daily per-rule evaluation counters flushed from the rule engine
+CREATE TABLE rule_hit_counts (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    rule_id UUID NOT NULL REFERENCES rules(id) ON DELETE CASCADE,
+    bucket_date DATE NOT NULL,
+    evaluations BIGINT NOT NULL DEFAULT 0,
+    matches BIGINT NOT NULL DEFAULT 0,
+    errors BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP DEFAULT NOW(),
+    CONSTRAINT uk_rule_hit_counts_rule_date UNIQUE (rule_id, bucket_date)
+);
+
+CREATE INDEX IF NOT EXISTS idx_rule_hit_counts_bucket_date ON rule_hit_counts(bucket_date);
@@ -0,0 +1,13 @@
+-- Content hashes of imported files (FILE) and of each committed leading run of
+-- their rows (PREFIX), so re-uploads can skip what was already ingested
+CREATE TABLE import_digests (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    digest_type VARCHAR(20) NOT NULL, -- FILE, PREFIX
+    digest VARCHAR(64) NOT NULL, -- SHA-256, hex
+    row_count INTEGER NOT NULL,
+    file_name VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP DEFAULT NOW(),
+    CONSTRAINT uk_import_digests_account_digest UNIQUE (account_id, digest_type, digest)
+);
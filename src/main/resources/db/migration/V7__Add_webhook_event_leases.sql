@@ -0,0 +1,9 @@
+-- Webhook events are claimed by a poller: a claimed event is PROCESSING and
+-- leased to one instance until locked_until, after which any instance may
+-- take it over
+ALTER TABLE webhook_events ADD COLUMN locked_by VARCHAR(100);
+ALTER TABLE webhook_events ADD COLUMN locked_until TIMESTAMP;
+-- Mapped by every entity through BaseEntity, but missing from this table
+ALTER TABLE webhook_events ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT NOW();
+
+CREATE INDEX IF NOT EXISTS idx_webhook_event_processing ON webhook_events(locked_until) WHERE status = 'PROCESSING';
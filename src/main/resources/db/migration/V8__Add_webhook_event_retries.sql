@@ -0,0 +1,6 @@
+-- FAILED events are retried once next_attempt_at has passed; events out of
+-- attempts are DEAD_LETTER until replayed
+ALTER TABLE webhook_events ADD COLUMN next_attempt_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_webhook_event_retry ON webhook_events(next_attempt_at) WHERE status = 'FAILED';
+CREATE INDEX IF NOT EXISTS idx_webhook_event_dead_letter ON webhook_events(created_at) WHERE status = 'DEAD_LETTER';
@@ -0,0 +1,17 @@
+-- Which internal account a provider's account id refers to, so webhook
+-- ingestion resolves accounts with one indexed lookup
+CREATE TABLE external_accounts (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    provider VARCHAR(50) NOT NULL,
+    external_account_id VARCHAR(255) NOT NULL,
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    bank_connection_id UUID REFERENCES bank_connections(id) ON DELETE SET NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP DEFAULT NOW(),
+    CONSTRAINT uk_external_accounts_provider_external_id UNIQUE (provider, external_account_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_external_accounts_account_id ON external_accounts(account_id);
+
+-- Accounts linked before this table existed are still matched by name
+CREATE INDEX IF NOT EXISTS idx_accounts_name ON accounts(name);
@@ -0,0 +1,156 @@
+package com.fintech.benchmark;
+
+import com.fintech.service.CsvTransactionParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV import parsing throughput and allocation, current parser against the
+ * line-splitting parser it replaced (reproduced below as {@code legacy}).
+ * Compare {@code gc.alloc.rate.norm} divided by {@code rows} for bytes per row.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile
+ * java -cp target/test-classes:target/classes:$(mvn -q -Pbenchmark dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     com.fintech.benchmark.CsvParserBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParserBenchmark {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Param({"10000"})
+    private int rows;
+
+    private byte[] csv;
+    private CsvTransactionParser parser;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            // Half date-only rows, which the legacy parser handled through an exception
+            String date = i % 2 == 0 ? "2024-03-" + (10 + i % 18) : "2024-03-" + (10 + i % 18) + " 14:3" + (i % 10) + ":00";
+            builder.append(date).append(',')
+                    .append(i % 3 == 0 ? "-" : "").append(i % 5000).append('.').append(10 + i % 90).append(',')
+                    .append("\"Merchant ").append(i % 200).append(", Inc\"").append(',')
+                    .append("Card purchase ").append(i).append(',')
+                    .append(',')
+                    .append(i % 7 == 0 ? "note" : "")
+                    .append('\n');
+        }
+        csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+        parser = new CsvTransactionParser();
+    }
+
+    @Benchmark
+    public void current(Blackhole blackhole) throws IOException {
+        try (CsvTransactionParser.RowReader reader = parser.openReader(new ByteArrayInputStream(csv))) {
+            CsvTransactionParser.CsvTransactionRow row;
+            while ((row = reader.next()) != null) {
+                blackhole.consume(row);
+            }
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(csv)))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                blackhole.consume(legacyParseLine(line, lineNumber));
+            }
+        }
+    }
+
+    private static CsvTransactionParser.CsvTransactionRow legacyParseLine(String line, int lineNumber) {
+        String[] fields = legacyFields(line);
+        CsvTransactionParser.CsvTransactionRow row = new CsvTransactionParser.CsvTransactionRow();
+        row.setLineNumber(lineNumber);
+        row.setPostedAt(legacyDateTime(fields[0].trim()));
+        row.setAmount(new BigDecimal(fields[1].trim()));
+        String merchant = fields[2].trim();
+        row.setMerchant(merchant.isEmpty() ? null : merchant);
+        String description = fields[3].trim();
+        row.setDescription(description.isEmpty() ? null : description);
+        if (fields.length > 5) {
+            String notes = fields[5].trim();
+            row.setNotes(notes.isEmpty() ? null : notes);
+        }
+        return row;
+    }
+
+    private static String[] legacyFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder currentField = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == ',' && !inQuotes) {
+                fields.add(currentField.toString());
+                currentField = new StringBuilder();
+            } else {
+                currentField.append(c);
+            }
+        }
+        fields.add(currentField.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static LocalDateTime legacyDateTime(String dateStr) {
+        try {
+            return LocalDateTime.parse(dateStr, DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(dateStr + " 00:00:00", DATE_FORMATTER);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CsvParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,69 @@
+package com.fintech.service;
+
+import com.fintech.domain.Category;
+import com.fintech.repo.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CategoryLookupCacheTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final CategoryRepository repository = mock(CategoryRepository.class);
+
+    @Test
+    void testMatchesNamesCaseInsensitivelyWithUserCategoriesFirst() {
+        // Given
+        Category globalGroceries = category(null, "Groceries");
+        Category globalDining = category(null, "Dining");
+        Category userGroceries = category(USER_ID, "groceries");
+        Category userFood = category(USER_ID, "Food");
+        when(repository.findGlobalCategories()).thenReturn(List.of(globalGroceries, globalDining));
+        when(repository.findByUserIdAndIsActiveTrue(USER_ID)).thenReturn(new ArrayList<>(List.of(userGroceries, userFood)));
+        CategoryLookupCache cache = cache();
+
+        // Then
+        assertThat(cache.findCategoryId(USER_ID, "GROCERIES")).isEqualTo(userGroceries.getId());
+        assertThat(cache.findCategoryId(USER_ID, " dining ")).isEqualTo(globalDining.getId());
+        assertThat(cache.findCategoryId(USER_ID, "Travel")).isNull();
+        assertThat(cache.findCategoryId(USER_ID, null)).isNull();
+        assertThat(cache.findImportedCategoryId(USER_ID, "Food:Takeout")).isEqualTo(userFood.getId());
+        verify(repository, times(1)).findByUserIdAndIsActiveTrue(USER_ID);
+    }
+
+    @Test
+    void testReloadsAfterInvalidation() {
+        Category travel = category(USER_ID, "Travel");
+        when(repository.findGlobalCategories()).thenReturn(List.of());
+        when(repository.findByUserIdAndIsActiveTrue(USER_ID)).thenReturn(new ArrayList<>(), new ArrayList<>(List.of(travel)));
+        CategoryLookupCache cache = cache();
+
+        assertThat(cache.findCategoryId(USER_ID, "Travel")).isNull();
+        cache.invalidate(USER_ID);
+        assertThat(cache.findCategoryId(USER_ID, "Travel")).isEqualTo(travel.getId());
+    }
+
+    private CategoryLookupCache cache() {
+        CategoryLookupCache cache = new CategoryLookupCache();
+        ReflectionTestUtils.setField(cache, "categoryRepository", repository);
+        return cache;
+    }
+
+    private static Category category(UUID userId, String name) {
+        Category category = new Category();
+        category.setId(UUID.randomUUID());
+        category.setUserId(userId);
+        category.setName(name);
+        return category;
+    }
+}
@@ -0,0 +1,89 @@
+package com.fintech.service;
+
+import com.fintech.domain.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledRuleSetTest {
+
+    @Test
+    void testReorderPromotesHotRuleWithinItsPriorityOnly() {
+        // Given
+        Rule coffee = rule(1, "{\"merchantPattern\": \"coffee\"}");
+        Rule cafe = rule(1, "{\"merchantPattern\": \"cafe\"}");
+        Rule lowPriority = rule(2, "{\"merchantPattern\": \"coffee|cafe\"}");
+        Rule highPriority = rule(0, "{\"merchantPattern\": \"^urgent\"}");
+
+        for (boolean multiPattern : new boolean[]{false, true}) {
+            CompiledRuleSet ruleSet = CompiledRuleSet.compile(
+                    List.of(highPriority, coffee, cafe, lowPriority), multiPattern, RegexGuard.UNBOUNDED, null, true);
+
+            // Both equal-priority rules match; the first in query order wins until cafe proves hotter
+            assertThat(ruleSet.match("Coffee Cafe", null).getRuleId()).isEqualTo(coffee.getId());
+            for (int i = 0; i < 10; i++) {
+                assertThat(ruleSet.match("Corner Cafe", null).getRuleId()).isEqualTo(cafe.getId());
+            }
+
+            // When
+            ruleSet.reorder(0.5);
+
+            // Then
+            assertThat(ruleSet.match("Coffee Cafe", null).getRuleId()).isEqualTo(cafe.getId());
+            assertThat(ruleSet.match("Urgent coffee", null).getRuleId()).isEqualTo(highPriority.getId());
+            assertThat(ruleSet.match("Coffee", null).getRuleId()).isEqualTo(coffee.getId());
+
+            // Decay lets the order swing back once coffee becomes the hotter rule
+            for (int i = 0; i < 40; i++) {
+                ruleSet.match("Coffee Shop", null);
+            }
+            ruleSet.reorder(0.5);
+            assertThat(ruleSet.match("Coffee Cafe", null).getRuleId()).isEqualTo(coffee.getId());
+        }
+    }
+
+    @Test
+    void testUniquePrioritiesKeepPlainOrder() {
+        Rule first = rule(1, "{\"merchantPattern\": \"shop\"}");
+        Rule second = rule(2, "{\"merchantPattern\": \"shop\"}");
+        CompiledRuleSet ruleSet = CompiledRuleSet.compile(List.of(first, second), true, RegexGuard.UNBOUNDED, null, true);
+
+        ruleSet.reorder(0.5);
+
+        assertThat(ruleSet.match("Shop", null).getRuleId()).isEqualTo(first.getId());
+    }
+
+    @Test
+    void testRegexRulesShareOneBudgetPerTransaction() {
+        // Given: three regex rules that each fit the budget on their own
+        Rule first = rule(1, "{\"descriptionPattern\": \"x\\\\d\"}");
+        Rule second = rule(2, "{\"descriptionPattern\": \"y\\\\d\"}");
+        Rule third = rule(3, "{\"descriptionPattern\": \"z\\\\d\"}");
+        RegexGuard guard = new RegexGuard(100);
+        CompiledRuleSet ruleSet = CompiledRuleSet.compile(List.of(first, second, third), false, guard, null, false);
+        String description = "a".repeat(60) + " z1";
+
+        // When
+        RuleService.RuleMatchResult result = ruleSet.match(null, description);
+
+        // Then: the first two spend the transaction's budget, so the third is not reached
+        assertThat(result.isMatch()).isFalse();
+        assertThat(guard.isFlagged(second.getId())).isTrue();
+        assertThat(guard.isFlagged(third.getId())).isFalse();
+        assertThat(ruleSet.match(null, "z1").getRuleId()).isEqualTo(third.getId());
+    }
+
+    private static Rule rule(int priority, String conditions) {
+        Rule rule = new Rule();
+        rule.setId(UUID.randomUUID());
+        rule.setName("Rule " + priority);
+        rule.setConditions(conditions);
+        rule.setActions("{\"targetCategoryId\": \"" + UUID.randomUUID() + "\"}");
+        rule.setPriority(priority);
+        rule.setEnabled(true);
+        return rule;
+    }
+}
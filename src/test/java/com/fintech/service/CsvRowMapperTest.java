@@ -0,0 +1,150 @@
+package com.fintech.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRowMapperTest {
+
+    private final CsvTransactionParser parser = new CsvTransactionParser();
+
+    @Test
+    void testSemicolonProfileWithDecimalCommas() throws IOException {
+        // Given
+        CsvImportProfile profile = new CsvImportProfile();
+        profile.setName("eu");
+        profile.setDelimiter(";");
+        profile.setHeader(CsvImportProfile.Header.PRESENT);
+        profile.setColumns(columns("postedAt", "0", "description", "1", "merchant", "2", "amount", "3"));
+        profile.setDateFormats(List.of("dd.MM.yyyy"));
+        profile.setDecimalSeparator(",");
+        profile.setGroupingSeparator(".");
+
+        // When
+        List<CsvTransactionParser.CsvTransactionRow> rows = parse(profile,
+                "Datum;Text;Empfänger;Betrag\n" +
+                "31.01.2024;Miete;Hausverwaltung;-1.250,00\n" +
+                "01.02.2024;\"Gehalt; Januar\";Arbeitgeber;3.100,5\n" +
+                "2024-02-02;x;y;1\n");
+
+        // Then
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).getLineNumber()).isEqualTo(2);
+        assertThat(rows.get(0).getPostedAt()).isEqualTo(LocalDateTime.of(2024, 1, 31, 0, 0));
+        assertThat(rows.get(0).getAmount()).isEqualByComparingTo("-1250.00");
+        assertThat(rows.get(0).getMerchant()).isEqualTo("Hausverwaltung");
+        assertThat(rows.get(1).getDescription()).isEqualTo("Gehalt; Januar");
+        assertThat(rows.get(1).getAmount()).isEqualByComparingTo("3100.5");
+        assertThat(rows.get(2).getError()).isEqualTo("Error parsing line 4: Invalid date format: 2024-02-02. Expected dd.MM.yyyy");
+    }
+
+    @Test
+    void testDebitCreditColumnsByHeaderName() throws IOException {
+        // Given
+        CsvImportProfile profile = new CsvImportProfile();
+        profile.setName("split");
+        profile.setColumns(columns("postedAt", "Date", "merchant", "Payee", "debit", "Debit", "credit", "Credit", "category", "Category"));
+        profile.setDateFormats(List.of("MM/dd/yyyy"));
+        profile.setGroupingSeparator(",");
+
+        // When
+        List<CsvTransactionParser.CsvTransactionRow> rows = parse(profile,
+                "CREDIT,Payee,Date,Debit\n" +
+                ",Coffee Shop,01/15/2024,4.50\n" +
+                "\"1,200.00\",Employer,01/31/2024,\n" +
+                ",Refund,02/01/2024,-3\n" +
+                ",Nothing,02/02/2024,\n");
+
+        // Then
+        assertThat(rows).hasSize(4);
+        assertThat(rows.get(0).getAmount()).isEqualByComparingTo("-4.50");
+        assertThat(rows.get(0).getMerchant()).isEqualTo("Coffee Shop");
+        assertThat(rows.get(0).getCategoryName()).isNull();
+        assertThat(rows.get(1).getAmount()).isEqualByComparingTo("1200.00");
+        assertThat(rows.get(2).getAmount()).isEqualByComparingTo("-3");
+        assertThat(rows.get(3).getError()).isEqualTo("Error parsing line 5: Invalid amount: expected a debit or credit");
+    }
+
+    @Test
+    void testAutoHeaderDetectionAndNegation() throws IOException {
+        // Given: the default columns, with the header detected and card-style positive spending
+        CsvImportProfile profile = CsvImportProfile.defaultProfile();
+        profile.setHeader(CsvImportProfile.Header.AUTO);
+        profile.setNegateAmounts(true);
+
+        // When
+        List<CsvTransactionParser.CsvTransactionRow> withHeader = parse(profile,
+                "\n" +
+                "posted_at,amount,merchant,description\n" +
+                "2024-01-15,12.50,Cafe,Lunch\n");
+        List<CsvTransactionParser.CsvTransactionRow> withoutHeader = parse(profile,
+                "2024-01-15,12.50,Cafe,Lunch\n");
+
+        // Then
+        assertThat(withHeader).hasSize(1);
+        assertThat(withHeader.get(0).getLineNumber()).isEqualTo(3);
+        assertThat(withHeader.get(0).getAmount()).isEqualByComparingTo("-12.50");
+        assertThat(withoutHeader).hasSize(1);
+        assertThat(withoutHeader.get(0).getAmount()).isEqualByComparingTo("-12.50");
+    }
+
+    @Test
+    void testDefaultProfileKeepsExistingErrors() throws IOException {
+        // When
+        List<CsvTransactionParser.CsvTransactionRow> rows = parse(CsvImportProfile.defaultProfile(),
+                "2024-01-15,12.50,Cafe\n" +
+                "15/01/2024,12.50,Cafe,Lunch\n");
+
+        // Then
+        assertThat(rows.get(0).getError()).isEqualTo(
+                "Error parsing line 1: Invalid CSV format. Expected at least 4 fields: postedAt, amount, merchant, description");
+        assertThat(rows.get(1).getError()).isEqualTo(
+                "Error parsing line 2: Invalid date format: 15/01/2024. Expected yyyy-MM-dd or yyyy-MM-dd HH:mm:ss");
+    }
+
+    @Test
+    void testRejectsInvalidProfiles() {
+        CsvImportProfile noAmount = new CsvImportProfile();
+        noAmount.setName("broken");
+        noAmount.setColumns(columns("postedAt", "0", "merchant", "1"));
+        assertThatThrownBy(() -> CsvRowMapper.compile(noAmount))
+                .hasMessageContaining("needs either an amount column or debit/credit columns");
+
+        CsvImportProfile namedWithoutHeader = new CsvImportProfile();
+        namedWithoutHeader.setName("broken");
+        namedWithoutHeader.setHeader(CsvImportProfile.Header.ABSENT);
+        namedWithoutHeader.setColumns(columns("postedAt", "Date", "amount", "1"));
+        assertThatThrownBy(() -> CsvRowMapper.compile(namedWithoutHeader))
+                .hasMessageContaining("maps columns by name but has no header row");
+    }
+
+    private List<CsvTransactionParser.CsvTransactionRow> parse(CsvImportProfile profile, String csv) throws IOException {
+        List<CsvTransactionParser.CsvTransactionRow> rows = new ArrayList<>();
+        try (TransactionRowReader reader = parser.openReader(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), CsvRowMapper.compile(profile))) {
+            CsvTransactionParser.CsvTransactionRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static Map<String, String> columns(String... pairs) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            columns.put(pairs[i], pairs[i + 1]);
+        }
+        return columns;
+    }
+}
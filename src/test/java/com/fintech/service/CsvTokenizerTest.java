@@ -0,0 +1,69 @@
+package com.fintech.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvTokenizerTest {
+
+    @Test
+    void testQuotedFieldsFollowRfc4180() throws IOException {
+        // Given
+        CsvTokenizer tokenizer = new CsvTokenizer(new StringReader(
+                "2024-01-15,-12.50,\"Joe's \"\"Best\"\" Cafe\",\"Lunch, with\r\nfriends\"\r\n" +
+                "2024-01-16, 3 ,, \n"));
+
+        // Then
+        assertThat(tokenizer.nextRecord()).isTrue();
+        assertThat(tokenizer.getRecordLine()).isEqualTo(1);
+        assertThat(tokenizer.getFieldCount()).isEqualTo(4);
+        assertThat(tokenizer.getString(2)).isEqualTo("Joe's \"Best\" Cafe");
+        assertThat(tokenizer.getString(3)).isEqualTo("Lunch, with\r\nfriends");
+
+        assertThat(tokenizer.nextRecord()).isTrue();
+        assertThat(tokenizer.getRecordLine()).isEqualTo(3);
+        assertThat(tokenizer.getDecimal(1)).isEqualByComparingTo("3");
+        assertThat(tokenizer.getString(2)).isNull();
+        assertThat(tokenizer.isEmpty(3)).isTrue();
+
+        assertThat(tokenizer.nextRecord()).isFalse();
+    }
+
+    @Test
+    void testParsesAmountsAndDatesWithoutStrings() throws IOException {
+        // Given
+        CsvTokenizer tokenizer = new CsvTokenizer(new StringReader(
+                "2024-02-30 08:05:09,-0001234.50,1.5e2,12345678901234567890.12,abc,2024-13-01,2024-01-01T10:00:00"));
+
+        // When
+        tokenizer.nextRecord();
+
+        // Then
+        assertThat(tokenizer.getDateTime(0)).isEqualTo(LocalDateTime.of(2024, 2, 29, 8, 5, 9));
+        assertThat(tokenizer.getDecimal(1)).isEqualTo(new BigDecimal("-1234.50"));
+        assertThat(tokenizer.getDecimal(2)).isEqualByComparingTo("150");
+        assertThat(tokenizer.getDecimal(3)).isEqualTo(new BigDecimal("12345678901234567890.12"));
+        assertThat(tokenizer.getDecimal(4)).isNull();
+        assertThat(tokenizer.getDateTime(5)).isNull();
+        assertThat(tokenizer.getDateTime(6)).isNull();
+    }
+
+    @Test
+    void testReportsUnterminatedQuote() throws IOException {
+        // Given
+        CsvTokenizer tokenizer = new CsvTokenizer(new StringReader("2024-01-15,1,\"open\n,never closed"));
+
+        // When
+        tokenizer.nextRecord();
+
+        // Then
+        assertThat(tokenizer.hasUnterminatedQuote()).isTrue();
+        assertThat(tokenizer.getFieldCount()).isEqualTo(3);
+        assertThat(tokenizer.nextRecord()).isFalse();
+    }
+}
@@ -0,0 +1,118 @@
+package com.fintech.service;
+
+import com.fintech.repo.TransactionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DuplicateDetectorTest {
+
+    private static final UUID ACCOUNT_ID = UUID.randomUUID();
+    private static final LocalDateTime POSTED_AT = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Test
+    void testMatchesExistingTransactionsLikeFindDuplicates() {
+        // Given
+        TransactionRepository repository = mock(TransactionRepository.class);
+        List<Object[]> existing = new ArrayList<>();
+        existing.add(new Object[]{POSTED_AT, new BigDecimal("-12.50"), "Coffee Shop", "Latte"});
+        existing.add(new Object[]{POSTED_AT, new BigDecimal("-3.00"), null, "Fee"});
+        when(repository.findDuplicateKeysBetween(eq(ACCOUNT_ID), any(), any())).thenReturn(existing);
+
+        DuplicateDetector detector = new DuplicateDetector(repository, ACCOUNT_ID);
+        detector.prepare(List.of(row(POSTED_AT, "-12.5", "Coffee Shop", "Latte")));
+
+        // Then
+        assertThat(detector.isDuplicate(row(POSTED_AT, "-12.5", "Coffee Shop", "Latte"))).isTrue();
+        assertThat(detector.isDuplicate(row(POSTED_AT, "-12.50", null, "Latte"))).isTrue();
+        assertThat(detector.isDuplicate(row(POSTED_AT, "-12.50", "Coffee Shop", null))).isTrue();
+        assertThat(detector.isDuplicate(row(POSTED_AT, "-12.50", "Tea House", "Latte"))).isFalse();
+        assertThat(detector.isDuplicate(row(POSTED_AT.plusSeconds(1), "-12.50", "Coffee Shop", "Latte"))).isFalse();
+        // A stored null merchant only matches a row without one
+        assertThat(detector.isDuplicate(row(POSTED_AT, "-3.00", null, "Fee"))).isTrue();
+        assertThat(detector.isDuplicate(row(POSTED_AT, "-3.00", "Bank", "Fee"))).isFalse();
+    }
+
+    @Test
+    void testCatchesDuplicatesWithinTheFileUnlessRolledBack() {
+        // Given
+        TransactionRepository repository = mock(TransactionRepository.class);
+        when(repository.findDuplicateKeysBetween(eq(ACCOUNT_ID), any(), any())).thenReturn(List.of());
+        DuplicateDetector detector = new DuplicateDetector(repository, ACCOUNT_ID);
+        CsvTransactionParser.CsvTransactionRow first = row(POSTED_AT, "20.00", "Gym", "Membership");
+        CsvTransactionParser.CsvTransactionRow repeat = row(POSTED_AT, "20.00", "Gym", "Membership");
+
+        // When / Then
+        detector.prepare(List.of(first));
+        assertThat(detector.isDuplicate(first)).isFalse();
+        detector.add(first);
+        assertThat(detector.isDuplicate(repeat)).isTrue();
+
+        detector.discard();
+        assertThat(detector.isDuplicate(repeat)).isFalse();
+
+        detector.add(first);
+        detector.commit();
+        assertThat(detector.isDuplicate(repeat)).isTrue();
+    }
+
+    @Test
+    void testMatchesRowsByExternalId() {
+        // Given: FITID 'a1' is already imported; nothing matches by date window
+        TransactionRepository repository = mock(TransactionRepository.class);
+        when(repository.findDuplicateKeysBetween(eq(ACCOUNT_ID), any(), any())).thenReturn(List.of());
+        when(repository.findExistingExternalIds(eq(ACCOUNT_ID), any())).thenReturn(List.of("a1"));
+        DuplicateDetector detector = new DuplicateDetector(repository, ACCOUNT_ID);
+        CsvTransactionParser.CsvTransactionRow imported = row(POSTED_AT, "5.00", "Shop", "Corrected");
+        imported.setExternalId("a1");
+        CsvTransactionParser.CsvTransactionRow fresh = row(POSTED_AT, "5.00", "Shop", null);
+        fresh.setExternalId("a2");
+        CsvTransactionParser.CsvTransactionRow repeat = row(POSTED_AT.plusDays(1), "6.00", "Other", null);
+        repeat.setExternalId("a2");
+
+        // When / Then
+        detector.prepare(List.of(imported, fresh, repeat));
+        assertThat(detector.isDuplicate(imported)).isTrue();
+        assertThat(detector.isDuplicate(fresh)).isFalse();
+        detector.add(fresh);
+        assertThat(detector.isDuplicate(repeat)).isTrue();
+        detector.discard();
+        assertThat(detector.isDuplicate(repeat)).isFalse();
+    }
+
+    @Test
+    void testSortedFileNeedsFewWindowQueries() {
+        // Given
+        TransactionRepository repository = mock(TransactionRepository.class);
+        when(repository.findDuplicateKeysBetween(eq(ACCOUNT_ID), any(), any())).thenReturn(List.of());
+        DuplicateDetector detector = new DuplicateDetector(repository, ACCOUNT_ID);
+
+        // When: one chunk per day for a year
+        for (int day = 0; day < 365; day++) {
+            detector.prepare(List.of(row(POSTED_AT.plusDays(day), "1.00", "Shop", null)));
+        }
+
+        // Then
+        assertThat(detector.getQueryCount()).isLessThanOrEqualTo(10);
+    }
+
+    private static CsvTransactionParser.CsvTransactionRow row(LocalDateTime postedAt, String amount,
+                                                              String merchant, String description) {
+        CsvTransactionParser.CsvTransactionRow row = new CsvTransactionParser.CsvTransactionRow();
+        row.setPostedAt(postedAt);
+        row.setAmount(new BigDecimal(amount));
+        row.setMerchant(merchant);
+        row.setDescription(description);
+        return row;
+    }
+}
@@ -0,0 +1,104 @@
+package com.fintech.service;
+
+import com.fintech.domain.Account;
+import com.fintech.domain.ExternalAccount;
+import com.fintech.repo.AccountRepository;
+import com.fintech.repo.ExternalAccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExternalAccountResolverTest {
+
+    private final ExternalAccountRepository externalAccountRepository = mock(ExternalAccountRepository.class);
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+
+    @Test
+    void testCachesMappingsUntilRelinked() {
+        // Given
+        ExternalAccountResolver resolver = resolver(10);
+        Account checking = account("Checking");
+        Account savings = account("Savings");
+        mapping("ext-1", checking);
+
+        // When
+        ExternalAccountResolver.AccountRef first = resolver.resolve("mockbank", "ext-1");
+        ExternalAccountResolver.AccountRef cached = resolver.resolve("mockbank", "ext-1");
+        mapping("ext-1", savings);
+        resolver.link("mockbank", "ext-1", savings.getId(), null);
+        ExternalAccountResolver.AccountRef relinked = resolver.resolve("mockbank", "ext-1");
+
+        // Then
+        assertThat(first.getAccountId()).isEqualTo(checking.getId());
+        assertThat(first.getUserId()).isEqualTo(checking.getUserId());
+        assertThat(cached).isSameAs(first);
+        assertThat(relinked.getAccountId()).isEqualTo(savings.getId());
+        verify(externalAccountRepository, times(2)).findByProviderAndExternalAccountId("mockbank", "ext-1");
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        ExternalAccountResolver resolver = resolver(2);
+        mapping("a", account("A"));
+        mapping("b", account("B"));
+        mapping("c", account("C"));
+
+        resolver.resolve("mockbank", "a");
+        resolver.resolve("mockbank", "b");
+        resolver.resolve("mockbank", "a");
+        resolver.resolve("mockbank", "c");
+        resolver.resolve("mockbank", "a");
+        resolver.resolve("mockbank", "b");
+
+        verify(externalAccountRepository, times(1)).findByProviderAndExternalAccountId("mockbank", "a");
+        verify(externalAccountRepository, times(2)).findByProviderAndExternalAccountId("mockbank", "b");
+    }
+
+    @Test
+    void testFallsBackToAccountName() {
+        ExternalAccountResolver resolver = resolver(10);
+        Account legacy = account("legacy-ext");
+        when(externalAccountRepository.findByProviderAndExternalAccountId("mockbank", "legacy-ext")).thenReturn(Optional.empty());
+        when(accountRepository.findFirstByNameOrderByCreatedAtAsc("legacy-ext")).thenReturn(Optional.of(legacy));
+
+        assertThat(resolver.resolve("mockbank", "legacy-ext").getAccountId()).isEqualTo(legacy.getId());
+        assertThatThrownBy(() -> resolver.resolve("mockbank", "unknown"))
+                .hasMessage("Account not found for external ID: unknown");
+    }
+
+    private ExternalAccountResolver resolver(int cacheSize) {
+        ExternalAccountResolver resolver = new ExternalAccountResolver();
+        ReflectionTestUtils.setField(resolver, "externalAccountRepository", externalAccountRepository);
+        ReflectionTestUtils.setField(resolver, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(resolver, "cacheSize", cacheSize);
+        resolver.init();
+        return resolver;
+    }
+
+    private Account account(String name) {
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setUserId(UUID.randomUUID());
+        account.setName(name);
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+        return account;
+    }
+
+    private void mapping(String externalAccountId, Account account) {
+        ExternalAccount mapping = new ExternalAccount();
+        mapping.setProvider("mockbank");
+        mapping.setExternalAccountId(externalAccountId);
+        mapping.setAccountId(account.getId());
+        when(externalAccountRepository.findByProviderAndExternalAccountId("mockbank", externalAccountId))
+                .thenReturn(Optional.of(mapping));
+    }
+}
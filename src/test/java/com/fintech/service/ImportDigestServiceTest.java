@@ -0,0 +1,103 @@
+package com.fintech.service;
+
+import com.fintech.domain.ImportDigest;
+import com.fintech.repo.ImportDigestRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImportDigestServiceTest {
+
+    private static final UUID ACCOUNT_ID = UUID.randomUUID();
+
+    @Test
+    void testFindsPrefixRecordedByEarlierImport() {
+        // Given: an earlier import of 5 rows, checkpointed every 2
+        ImportDigestRepository repository = mock(ImportDigestRepository.class);
+        ImportDigestService service = service(repository);
+        List<CsvTransactionParser.CsvTransactionRow> earlier = rows(5);
+        service.recordPrefixes(ACCOUNT_ID, earlier, "january.csv");
+
+        ArgumentCaptor<String> digests = ArgumentCaptor.forClass(String.class);
+        verify(repository, times(3)).addDigest(eq(ACCOUNT_ID), eq("PREFIX"), digests.capture(), anyInt(), eq("january.csv"));
+        when(repository.findDigests(ACCOUNT_ID, ImportDigest.DigestType.PREFIX)).thenReturn(digests.getAllValues());
+
+        // When: the same statement re-exported with more rows, and one that differs early on
+        List<CsvTransactionParser.CsvTransactionRow> extended = rows(9);
+        List<CsvTransactionParser.CsvTransactionRow> changed = rows(9);
+        changed.get(1).setAmount(new BigDecimal("-99.00"));
+
+        // Then: the earlier file's end (5) is not a checkpoint of the longer file, its last shared one (4) is
+        assertThat(service.findImportedPrefix(ACCOUNT_ID, extended)).isEqualTo(4);
+        assertThat(service.findImportedPrefix(ACCOUNT_ID, rows(5))).isEqualTo(5);
+        assertThat(service.findImportedPrefix(ACCOUNT_ID, changed)).isEqualTo(0);
+    }
+
+    @Test
+    void testRowDigestIgnoresAmountScaleButNotContent() {
+        ImportDigestService.RowDigest a = new ImportDigestService.RowDigest();
+        ImportDigestService.RowDigest b = new ImportDigestService.RowDigest();
+        ImportDigestService.RowDigest c = new ImportDigestService.RowDigest();
+        CsvTransactionParser.CsvTransactionRow row = rows(1).get(0);
+        a.update(row);
+        row.setAmount(new BigDecimal("-10.500"));
+        b.update(row);
+        row.setMerchant(null);
+        c.update(row);
+
+        assertThat(a.current()).isEqualTo(b.current());
+        assertThat(c.current()).isNotEqualTo(a.current());
+        // Reading the digest doesn't end it
+        a.update(row);
+        assertThat(a.getRowCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testFileHashDependsOnFormatAndProfile() throws IOException {
+        ImportDigestService service = service(mock(ImportDigestRepository.class));
+        byte[] bytes = "2024-01-15,-10.50,Shop,Item\n".getBytes();
+
+        String csv = service.hashFile(new ByteArrayInputStream(bytes), TransactionFileFormat.CSV, null);
+        assertThat(csv).hasSize(64);
+        assertThat(service.hashFile(new ByteArrayInputStream(bytes), TransactionFileFormat.CSV, null)).isEqualTo(csv);
+        assertThat(service.hashFile(new ByteArrayInputStream(bytes), TransactionFileFormat.CSV, "eu-semicolon")).isNotEqualTo(csv);
+        assertThat(service.hashFile(new ByteArrayInputStream(bytes), TransactionFileFormat.QIF, null)).isNotEqualTo(csv);
+    }
+
+    private static ImportDigestService service(ImportDigestRepository repository) {
+        ImportDigestService service = new ImportDigestService();
+        ReflectionTestUtils.setField(service, "importDigestRepository", repository);
+        ReflectionTestUtils.setField(service, "checkpointInterval", 2);
+        return service;
+    }
+
+    private static List<CsvTransactionParser.CsvTransactionRow> rows(int count) {
+        List<CsvTransactionParser.CsvTransactionRow> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CsvTransactionParser.CsvTransactionRow row = new CsvTransactionParser.CsvTransactionRow();
+            row.setLineNumber(i + 1);
+            row.setPostedAt(LocalDateTime.of(2024, 1, 1 + i, 0, 0));
+            row.setAmount(new BigDecimal("-10.50"));
+            row.setMerchant("Shop " + i);
+            row.setDescription("Item");
+            rows.add(row);
+        }
+        return rows;
+    }
+}
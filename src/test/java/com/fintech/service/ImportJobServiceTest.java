@@ -0,0 +1,55 @@
+package com.fintech.service;
+
+import com.fintech.domain.Account;
+import com.fintech.dto.ImportJobDto;
+import com.fintech.repo.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImportJobServiceTest {
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+
+    @Test
+    void testJobsAreOnlyVisibleToTheirOwner() {
+        // Given: a queued job for the owner's account; the executor never runs it
+        UUID ownerId = UUID.randomUUID();
+        UUID otherUserId = UUID.randomUUID();
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setUserId(ownerId);
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+        ImportJobService service = service();
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv",
+                "date,amount,description\n2024-01-15,-10.00,Coffee\n".getBytes());
+
+        // When
+        ImportJobDto job = service.startJob(ownerId, account.getId(), file, null);
+
+        // Then
+        assertThat(service.getJob(ownerId, job.getId()).getStatus()).isEqualTo("QUEUED");
+        assertThatThrownBy(() -> service.getJob(otherUserId, job.getId())).hasMessage("Import job not found");
+        assertThatThrownBy(() -> service.cancelJob(otherUserId, job.getId())).hasMessage("Import job not found");
+        assertThatThrownBy(() -> service.getResult(otherUserId, job.getId())).hasMessage("Import job not found");
+        assertThatThrownBy(() -> service.startJob(otherUserId, account.getId(), file, null)).hasMessage("Account not found");
+    }
+
+    private ImportJobService service() {
+        ImportJobService service = new ImportJobService();
+        ReflectionTestUtils.setField(service, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(service, "importDigestService", new ImportDigestService());
+        ReflectionTestUtils.setField(service, "profileRegistry", mock(CsvImportProfileRegistry.class));
+        ReflectionTestUtils.setField(service, "importExecutor", mock(TaskExecutor.class));
+        return service;
+    }
+}
@@ -0,0 +1,39 @@
+package com.fintech.service;
+
+import com.fintech.dto.LatencyStatsDto;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesAreBucketUpperBounds() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(3_000);        // 3us -> bucket below 4us
+        }
+        histogram.record(100_000);          // 100us -> below 128us
+        histogram.record(5_000_000);        // 5ms -> below 8192us
+
+        // When
+        LatencyStatsDto stats = histogram.snapshot();
+
+        // Then
+        assertThat(stats.getCount()).isEqualTo(100);
+        assertThat(stats.getP50Micros()).isEqualTo(4);
+        assertThat(stats.getP95Micros()).isEqualTo(4);
+        assertThat(stats.getP99Micros()).isEqualTo(128);
+        assertThat(stats.getMaxMicros()).isEqualTo(5_000);
+        assertThat(stats.getMeanMicros()).isBetween(53.0, 54.0);
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        LatencyStatsDto stats = new LatencyHistogram().snapshot();
+
+        assertThat(stats.getCount()).isZero();
+        assertThat(stats.getP99Micros()).isZero();
+    }
+}
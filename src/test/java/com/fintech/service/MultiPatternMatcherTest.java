@@ -0,0 +1,123 @@
+package com.fintech.service;
+
+import com.fintech.domain.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MultiPatternMatcherTest {
+
+    @Test
+    void testScanFindsOverlappingLiterals() {
+        // Given
+        MultiPatternMatcher matcher = MultiPatternMatcher.build(Arrays.asList("he", "she", "his", "hers", null));
+        BitSet hits = new BitSet();
+
+        // When
+        matcher.scan("USHERS", hits);
+
+        // Then
+        assertThat(hits.get(0)).isTrue();  // he
+        assertThat(hits.get(1)).isTrue();  // she
+        assertThat(hits.get(2)).isFalse(); // his
+        assertThat(hits.get(3)).isTrue();  // hers
+        assertThat(hits.get(4)).isFalse();
+    }
+
+    @Test
+    void testScanIgnoresNonAsciiCharacters() {
+        MultiPatternMatcher matcher = MultiPatternMatcher.build(List.of("cafe"));
+        BitSet hits = new BitSet();
+
+        matcher.scan("CAFÉ café Cafe", hits);
+
+        assertThat(hits.get(0)).isTrue();
+    }
+
+    @Test
+    void testExtractLiteral() {
+        assertThat(MultiPatternMatcher.extractLiteral(".*starbucks.*")).isEqualTo("starbucks");
+        assertThat(MultiPatternMatcher.extractLiteral("Whole Foods")).isEqualTo("Whole Foods");
+        assertThat(MultiPatternMatcher.extractLiteral("amazon\\.com")).isEqualTo("amazon.com");
+        assertThat(MultiPatternMatcher.extractLiteral(".*")).isNull();
+        assertThat(MultiPatternMatcher.extractLiteral("^uber")).isNull();
+        assertThat(MultiPatternMatcher.extractLiteral("shell|exxon")).isNull();
+        assertThat(MultiPatternMatcher.extractLiteral("\\d+")).isNull();
+    }
+
+    @Test
+    void testAutomatonAgreesWithSequentialEvaluation() {
+        // Given
+        Random random = new Random(42);
+        String[] words = {"coffee", "starbucks", "uber", "lyft", "shell", "amazon", "rent", "market", "target", "net"};
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            String merchant = random.nextInt(4) == 0 ? null : pattern(random, words);
+            String description = random.nextInt(3) == 0 ? null : pattern(random, words);
+            String logic = random.nextBoolean() ? "AND" : "OR";
+            rules.add(rule(i, merchant, description, logic));
+        }
+
+        CompiledRuleSet sequential = CompiledRuleSet.compile(rules, false);
+        CompiledRuleSet automaton = CompiledRuleSet.compile(rules, true);
+        assertThat(automaton.usesMultiPatternMatching()).isTrue();
+
+        // When & Then
+        for (int i = 0; i < 2000; i++) {
+            String merchant = random.nextInt(10) == 0 ? null : text(random, words);
+            String description = random.nextInt(10) == 0 ? null : text(random, words);
+            assertThat(automaton.match(merchant, description).getRuleId())
+                    .isEqualTo(sequential.match(merchant, description).getRuleId());
+        }
+    }
+
+    private static String pattern(Random random, String[] words) {
+        String word = words[random.nextInt(words.length)];
+        switch (random.nextInt(4)) {
+            case 0:
+                return ".*" + word + ".*";
+            case 1:
+                return word.toUpperCase();
+            case 2:
+                return "^" + word;
+            default:
+                return word + "|" + words[random.nextInt(words.length)];
+        }
+    }
+
+    private static String text(Random random, String[] words) {
+        StringBuilder text = new StringBuilder();
+        int count = random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            text.append(i > 0 ? " " : "").append(words[random.nextInt(words.length)]);
+        }
+        return random.nextBoolean() ? text.toString().toUpperCase() : text.toString();
+    }
+
+    private static Rule rule(int priority, String merchantPattern, String descriptionPattern, String logic) {
+        StringBuilder conditions = new StringBuilder("{");
+        if (merchantPattern != null) {
+            conditions.append("\"merchantPattern\": \"").append(merchantPattern).append("\", ");
+        }
+        if (descriptionPattern != null) {
+            conditions.append("\"descriptionPattern\": \"").append(descriptionPattern).append("\", ");
+        }
+        conditions.append("\"logic\": \"").append(logic).append("\"}");
+
+        Rule rule = new Rule();
+        rule.setId(UUID.randomUUID());
+        rule.setName("Rule " + priority);
+        rule.setConditions(conditions.toString());
+        rule.setActions("{\"targetCategoryId\": \"" + UUID.randomUUID() + "\"}");
+        rule.setPriority(priority);
+        rule.setEnabled(true);
+        return rule;
+    }
+}
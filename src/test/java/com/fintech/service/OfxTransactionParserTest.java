@@ -0,0 +1,96 @@
+package com.fintech.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OfxTransactionParserTest {
+
+    private final OfxTransactionParser parser = new OfxTransactionParser();
+
+    @Test
+    void testReadsSgmlStatementWithoutEndTags() throws IOException {
+        // Given: OFX 1.x with unclosed leaf elements and a Windows-1252 header
+        String ofx = "OFXHEADER:100\r\nDATA:OFXSGML\r\nVERSION:102\r\nENCODING:USASCII\r\nCHARSET:1252\r\n\r\n" +
+                "<OFX><SIGNONMSGSRSV1><SONRS><FI><ORG>Bank</FI></SONRS></SIGNONMSGSRSV1>\r\n" +
+                "<BANKMSGSRSV1><STMTTRNRS><STMTRS><CURDEF>USD<BANKTRANLIST>\r\n" +
+                "<STMTTRN>\r\n<TRNTYPE>DEBIT\r\n<DTPOSTED>20240115120000.000[-5:EST]\r\n<TRNAMT>-12.50\r\n" +
+                "<FITID>1\r\n<NAME>Café &amp; Bakery\r\n<MEMO>Lunch\r\n</STMTTRN>\r\n" +
+                "<STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20240131<TRNAMT>+1500,00<NAME>Employer</STMTTRN>\r\n" +
+                "<STMTTRN><DTPOSTED>2024-02-01<TRNAMT>1</STMTTRN>\r\n" +
+                "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\r\n";
+
+        // When
+        List<CsvTransactionParser.CsvTransactionRow> rows = readAll(ofx.getBytes(Charset.forName("windows-1252")));
+
+        // Then
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).getLineNumber()).isEqualTo(9);
+        assertThat(rows.get(0).getPostedAt()).isEqualTo(LocalDateTime.of(2024, 1, 15, 12, 0));
+        assertThat(rows.get(0).getAmount()).isEqualByComparingTo("-12.50");
+        assertThat(rows.get(0).getMerchant()).isEqualTo("Café & Bakery");
+        assertThat(rows.get(0).getDescription()).isEqualTo("Lunch");
+        assertThat(rows.get(0).getExternalId()).isEqualTo("1");
+        assertThat(rows.get(1).getExternalId()).isNull();
+        assertThat(rows.get(1).getAmount()).isEqualByComparingTo("1500.00");
+        assertThat(rows.get(1).getDescription()).isEqualTo("Employer");
+        assertThat(rows.get(2).getError()).isEqualTo("Error parsing line 18: Invalid DTPOSTED: 2024-02-01");
+    }
+
+    @Test
+    void testReadsXmlStatement() throws IOException {
+        // Given: OFX 2.x
+        String ofx = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<?OFX OFXHEADER=\"200\" VERSION=\"220\"?>\n" +
+                "<OFX><CREDITCARDMSGSRSV1><CCSTMTTRNRS><CCSTMTRS><BANKTRANLIST>\n" +
+                "<!-- exported -->\n" +
+                "<STMTTRN><TRNTYPE>DEBIT</TRNTYPE><DTPOSTED>202403051830</DTPOSTED><TRNAMT>-42.00</TRNAMT>\n" +
+                "<PAYEE><NAME>Bücher &lt;Online&gt;</NAME></PAYEE><MEMO/></STMTTRN>\n" +
+                "</BANKTRANLIST></CCSTMTRS></CCSTMTTRNRS></CREDITCARDMSGSRSV1></OFX>";
+
+        // When
+        List<CsvTransactionParser.CsvTransactionRow> rows = readAll(ofx.getBytes(StandardCharsets.UTF_8));
+
+        // Then
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).hasError()).isFalse();
+        assertThat(rows.get(0).getPostedAt()).isEqualTo(LocalDateTime.of(2024, 3, 5, 18, 30));
+        assertThat(rows.get(0).getAmount()).isEqualByComparingTo("-42.00");
+        assertThat(rows.get(0).getMerchant()).isEqualTo("Bücher <Online>");
+    }
+
+    @Test
+    void testRejectsStatementsForMoreThanOneAccount() {
+        // Given: a bank statement followed by a credit card statement
+        String ofx = "<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKACCTFROM><ACCTID>111</BANKACCTFROM><BANKTRANLIST>\n" +
+                "<STMTTRN><DTPOSTED>20240115<TRNAMT>-1.00<FITID>a1</STMTTRN>\n" +
+                "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1>\n" +
+                "<CREDITCARDMSGSRSV1><CCSTMTTRNRS><CCSTMTRS><CCACCTFROM><ACCTID>222</CCACCTFROM><BANKTRANLIST>\n" +
+                "<STMTTRN><DTPOSTED>20240116<TRNAMT>-2.00<FITID>b1</STMTTRN>\n" +
+                "</BANKTRANLIST></CCSTMTRS></CCSTMTTRNRS></CREDITCARDMSGSRSV1></OFX>";
+
+        // When / Then
+        assertThatThrownBy(() -> readAll(ofx.getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Line 4: the file holds more than one statement");
+    }
+
+    private List<CsvTransactionParser.CsvTransactionRow> readAll(byte[] bytes) throws IOException {
+        List<CsvTransactionParser.CsvTransactionRow> rows = new ArrayList<>();
+        try (TransactionRowReader reader = parser.openReader(new ByteArrayInputStream(bytes))) {
+            CsvTransactionParser.CsvTransactionRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,78 @@
+package com.fintech.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelCsvRowReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMatchesSequentialParseAcrossChunkBoundaries() throws IOException {
+        // Given: quoted line breaks and doubled quotes land on chunk cuts, plus blank and bad lines
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            if (i % 7 == 0) {
+                csv.append("2024-01-").append(10 + i % 18).append(",-").append(i).append(".25,\"Shop \"\"")
+                        .append(i).append("\"\"\",\"multi\nline, ").append(i).append("\"\r\n");
+            } else if (i % 11 == 0) {
+                csv.append("\n");
+            } else if (i % 13 == 0) {
+                csv.append("not a date,1,x,y\n");
+            } else {
+                csv.append("2024-02-").append(10 + i % 18).append(" 09:30:00,").append(i).append(",Store ")
+                        .append(i).append(",Purchase\n");
+            }
+        }
+        byte[] bytes = csv.toString().getBytes(Charset.defaultCharset());
+        Path file = tempDir.resolve("import.csv");
+        Files.write(file, bytes);
+
+        CsvTransactionParser parser = new CsvTransactionParser();
+        List<CsvTransactionParser.CsvTransactionRow> expected =
+                readAll(parser.openReader(new ByteArrayInputStream(bytes)));
+
+        // When
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<CsvTransactionParser.CsvTransactionRow> actual;
+        try (ParallelCsvRowReader reader = new ParallelCsvRowReader(parser, file, pool, 97,
+                CsvRowMapper.compile(CsvImportProfile.defaultProfile()))) {
+            assertThat(reader.getChunkCount()).isGreaterThan(10);
+            actual = readAll(reader);
+        } finally {
+            pool.shutdown();
+        }
+
+        // Then
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getLineNumber()).isEqualTo(expected.get(i).getLineNumber());
+            assertThat(actual.get(i).getError()).isEqualTo(expected.get(i).getError());
+            assertThat(actual.get(i).getPostedAt()).isEqualTo(expected.get(i).getPostedAt());
+            assertThat(actual.get(i).getAmount()).isEqualTo(expected.get(i).getAmount());
+            assertThat(actual.get(i).getMerchant()).isEqualTo(expected.get(i).getMerchant());
+            assertThat(actual.get(i).getDescription()).isEqualTo(expected.get(i).getDescription());
+        }
+    }
+
+    private static List<CsvTransactionParser.CsvTransactionRow> readAll(TransactionRowReader reader) throws IOException {
+        List<CsvTransactionParser.CsvTransactionRow> rows = new ArrayList<>();
+        CsvTransactionParser.CsvTransactionRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,79 @@
+package com.fintech.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QifTransactionParserTest {
+
+    @Test
+    void testReadsBankRecordsAndSkipsOtherSections() throws IOException {
+        // Given
+        String qif = "!Option:AutoSwitch\n!Account\nNChecking\nTBank\n^\n!Clear:AutoSwitch\n" +
+                "!Type:Cat\nNGroceries\nE\n^\n" +
+                "!Type:Bank\n" +
+                "D1/15'24\nT-1,234.56\nPLandlord\nMJanuary rent\nLHousing\n^\n" +
+                "D 2/ 1/2024\nU250.00\nT250.00\nPEmployer\nSGroceries\n$100.00\n^\n" +
+                "D12/31/99\nT-5\n^\n" +
+                "D2/30/2024\nT-1\n^\n" +
+                "D2024-03-01\nT10\nPRefund";
+
+        // When
+        List<CsvTransactionParser.CsvTransactionRow> rows = new ArrayList<>();
+        try (TransactionRowReader reader = new QifTransactionParser().openReader(new ByteArrayInputStream(qif.getBytes()))) {
+            CsvTransactionParser.CsvTransactionRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+
+        // Then
+        assertThat(rows).hasSize(5);
+        assertThat(rows.get(0).getLineNumber()).isEqualTo(12);
+        assertThat(rows.get(0).getPostedAt()).isEqualTo(LocalDateTime.of(2024, 1, 15, 0, 0));
+        assertThat(rows.get(0).getAmount()).isEqualByComparingTo("-1234.56");
+        assertThat(rows.get(0).getMerchant()).isEqualTo("Landlord");
+        assertThat(rows.get(0).getDescription()).isEqualTo("January rent");
+        assertThat(rows.get(0).getCategoryName()).isEqualTo("Housing");
+        assertThat(rows.get(1).getCategoryName()).isNull();
+        assertThat(rows.get(1).getPostedAt()).isEqualTo(LocalDateTime.of(2024, 2, 1, 0, 0));
+        assertThat(rows.get(1).getAmount()).isEqualByComparingTo("250.00");
+        assertThat(rows.get(1).getDescription()).isEqualTo("Employer");
+        assertThat(rows.get(2).getPostedAt()).isEqualTo(LocalDateTime.of(1999, 12, 31, 0, 0));
+        assertThat(rows.get(3).getError()).isEqualTo("Error parsing line 28: Invalid date: 2/30/2024");
+        assertThat(rows.get(4).getPostedAt()).isEqualTo(LocalDateTime.of(2024, 3, 1, 0, 0));
+        assertThat(rows.get(4).getMerchant()).isEqualTo("Refund");
+    }
+
+    @Test
+    void testRejectsTransactionsForMoreThanOneAccount() {
+        // Given: a multi-account export with a bank and a credit card section
+        String qif = "!Account\nNChecking\nTBank\n^\n!Type:Bank\nD1/15/2024\nT-10\n^\n" +
+                "!Account\nNVisa\nTCCard\n^\n!Type:CCard\nD1/16/2024\nT-20\n^\n";
+
+        // When / Then
+        assertThatThrownBy(() -> {
+            try (TransactionRowReader reader = new QifTransactionParser().openReader(new ByteArrayInputStream(qif.getBytes()))) {
+                while (reader.next() != null) {
+                    // Read to the end
+                }
+            }
+        }).isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Line 13: the file holds transactions for more than one account");
+    }
+
+    @Test
+    void testCategoryNames() {
+        assertThat(QifTransactionParser.categoryName("Food:Groceries/Vacation")).isEqualTo("Food:Groceries");
+        assertThat(QifTransactionParser.categoryName("Dining")).isEqualTo("Dining");
+        assertThat(QifTransactionParser.categoryName("[Savings]")).isNull();
+        assertThat(QifTransactionParser.categoryName("/Business")).isNull();
+    }
+}
@@ -0,0 +1,113 @@
+package com.fintech.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegexGuardTest {
+
+    @Test
+    void testCatastrophicPatternIsCutOffAndFlagged() {
+        // Given
+        RegexGuard guard = new RegexGuard(100_000);
+        // Polynomial blow-up the JDK's loop memoization doesn't help with; unbounded this runs for minutes
+        Pattern pattern = Pattern.compile("(.*a){12}x");
+        UUID ruleId = UUID.randomUUID();
+        String input = "a".repeat(60);
+
+        // When
+        boolean matched = guard.find(pattern, input, ruleId);
+
+        // Then
+        assertThat(matched).isFalse();
+        assertThat(guard.isFlagged(ruleId)).isTrue();
+
+        guard.clearFlag(ruleId);
+        assertThat(guard.isFlagged(ruleId)).isFalse();
+    }
+
+    @Test
+    void testFindsShareOneBudget() {
+        // Given: each find alone fits in the budget, together they don't
+        RegexGuard guard = new RegexGuard(100);
+        String input = "a".repeat(60) + " z1";
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        RegexGuard.Budget budget = guard.newBudget();
+
+        // When
+        boolean firstMatched = guard.find(Pattern.compile("x\\d"), input, first, budget);
+        boolean secondMatched = guard.find(Pattern.compile("y\\d"), input, second, budget);
+        boolean thirdMatched = guard.find(Pattern.compile("z\\d"), input, third, budget);
+
+        // Then: the rule that ran the budget out is flagged, the ones after it just don't match
+        assertThat(firstMatched).isFalse();
+        assertThat(secondMatched).isFalse();
+        assertThat(thirdMatched).isFalse();
+        assertThat(budget.getRemaining()).isZero();
+        assertThat(guard.isFlagged(first)).isFalse();
+        assertThat(guard.isFlagged(second)).isTrue();
+        assertThat(guard.isFlagged(third)).isFalse();
+        assertThat(guard.find(Pattern.compile("z\\d"), input, third)).isTrue();
+        assertThat(new RegexGuard(0).newBudget()).isNull();
+    }
+
+    @Test
+    void testOrdinaryPatternsMatchWithinBudget() {
+        RegexGuard guard = new RegexGuard(10_000);
+        UUID ruleId = UUID.randomUUID();
+
+        assertThat(guard.find(Pattern.compile(".*starbucks.*", Pattern.CASE_INSENSITIVE), "STARBUCKS #1234 SEATTLE", ruleId)).isTrue();
+        assertThat(guard.find(Pattern.compile("^uber\\s+\\w+"), "uber trip", ruleId)).isTrue();
+        assertThat(guard.find(Pattern.compile("lyft"), "uber trip", ruleId)).isFalse();
+        assertThat(guard.isFlagged(ruleId)).isFalse();
+    }
+
+    @Test
+    void testOrdinaryWildcardPatternsStayWithinDefaultBudgetOnLongDescriptions() {
+        // Given: the default budget and a 2000 character description; unstripped, .*starbucks.* alone reads ~6M characters here
+        RegexGuard guard = new RegexGuard(100_000);
+        UUID ruleId = UUID.randomUUID();
+        String description = "POS PURCHASE foo " + "x".repeat(1960) + " REF 12345678";
+        Pattern fooBar = RegexGuard.forFind(Pattern.compile(".*foo.*bar", Pattern.CASE_INSENSITIVE));
+        Pattern starbucks = RegexGuard.forFind(Pattern.compile(".*starbucks.*", Pattern.CASE_INSENSITIVE));
+
+        // When / Then
+        assertThat(guard.find(fooBar, description, ruleId)).isFalse();
+        assertThat(guard.find(fooBar, description + " bar", ruleId)).isTrue();
+        assertThat(guard.find(starbucks, description, ruleId)).isFalse();
+        assertThat(guard.find(starbucks, "STARBUCKS " + description, ruleId)).isTrue();
+        assertThat(guard.isFlagged(ruleId)).isFalse();
+    }
+
+    @Test
+    void testForFindDropsOnlyRedundantWildcards() {
+        assertThat(RegexGuard.forFind(Pattern.compile(".*foo.*bar")).pattern()).isEqualTo("foo.*bar");
+        assertThat(RegexGuard.forFind(Pattern.compile(".*?starbucks.*")).pattern()).isEqualTo("starbucks");
+        assertThat(RegexGuard.forFind(Pattern.compile("^.*uber.*$")).pattern()).isEqualTo("^.*uber.*$");
+        assertThat(RegexGuard.forFind(Pattern.compile("price\\.*")).pattern()).isEqualTo("price\\.*");
+        assertThat(RegexGuard.forFind(Pattern.compile(".*+x")).pattern()).isEqualTo(".*+x");
+        assertThat(RegexGuard.forFind(Pattern.compile(".*")).pattern()).isEmpty();
+        assertThat(RegexGuard.forFind(Pattern.compile(".*a", Pattern.CASE_INSENSITIVE)).flags()).isEqualTo(Pattern.CASE_INSENSITIVE);
+    }
+
+    @Test
+    void testCheckPatternRejectsNestedRepetition() {
+        assertThatThrownBy(() -> RegexGuard.checkPattern("(a+)+")).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> RegexGuard.checkPattern("(.*x)*y")).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> RegexGuard.checkPattern("((\\w+\\s?))+$")).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> RegexGuard.checkPattern("(a{2,})*")).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> RegexGuard.checkPattern("x".repeat(RegexGuard.MAX_PATTERN_LENGTH + 1))).isInstanceOf(RuntimeException.class);
+
+        assertThatCode(() -> RegexGuard.checkPattern(".*starbucks.*")).doesNotThrowAnyException();
+        assertThatCode(() -> RegexGuard.checkPattern("(uber|lyft)+")).doesNotThrowAnyException();
+        assertThatCode(() -> RegexGuard.checkPattern("(\\d{3})+")).doesNotThrowAnyException();
+        assertThatCode(() -> RegexGuard.checkPattern("[(+)]+ amazon\\(.*\\)")).doesNotThrowAnyException();
+    }
+}
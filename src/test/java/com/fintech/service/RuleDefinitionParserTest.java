@@ -0,0 +1,106 @@
+package com.fintech.service;
+
+import com.fintech.domain.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleDefinitionParserTest {
+
+    private static final UUID ACCOUNT_ID = UUID.randomUUID();
+    private static final LocalDateTime POSTED_AT = LocalDateTime.of(2024, 3, 15, 12, 0);
+
+    @Test
+    void testLegacyPatternConditionsKeepTheirMeaning() {
+        RuleCondition or = RuleDefinitionParser.parseConditions("{\"merchantPattern\": \".*starbucks.*\", \"descriptionPattern\": \".*coffee.*\"}");
+        RuleCondition and = RuleDefinitionParser.parseConditions("{\"merchantPattern\": \"starbucks\", \"descriptionPattern\": \"coffee\", \"logic\": \"AND\"}");
+        RuleCondition andMissingSide = RuleDefinitionParser.parseConditions("{\"merchantPattern\": \"starbucks\", \"logic\": \"AND\"}");
+
+        assertThat(or.test(RuleInput.of("Local Cafe", "Morning COFFEE"), null, null)).isTrue();
+        assertThat(and.test(RuleInput.of("Starbucks", "Sandwich"), null, null)).isFalse();
+        assertThat(and.test(RuleInput.of("Starbucks", "Coffee"), null, null)).isTrue();
+        assertThat(andMissingSide.test(RuleInput.of("Starbucks", "Coffee"), null, null)).isFalse();
+    }
+
+    @Test
+    void testPatternsMayContainCommasAndColons() {
+        RuleCondition condition = RuleDefinitionParser.parseConditions("{\"descriptionPattern\": \"ref:\\\\d{2,4}\"}");
+
+        assertThat(condition.test(RuleInput.of(null, "Payment ref:1234"), null, null)).isTrue();
+        assertThat(condition.test(RuleInput.of(null, "Payment ref:x"), null, null)).isFalse();
+    }
+
+    @Test
+    void testAmountAccountAndDatePredicates() {
+        RuleCondition condition = RuleDefinitionParser.parseConditions("{"
+                + "\"merchantPattern\": \"uber\", \"amountMin\": 10, \"amountMax\": 50.25,"
+                + "\"accountIds\": [\"" + ACCOUNT_ID + "\"],"
+                + "\"dateFrom\": \"2024-03-01\", \"dateTo\": \"2024-03-31\"}");
+
+        assertThat(condition.test(input("Uber", "12.00", ACCOUNT_ID, POSTED_AT), null, null)).isTrue();
+        assertThat(condition.test(input("Uber", "50.26", ACCOUNT_ID, POSTED_AT), null, null)).isFalse();
+        assertThat(condition.test(input("Uber", "12.00", UUID.randomUUID(), POSTED_AT), null, null)).isFalse();
+        assertThat(condition.test(input("Uber", "12.00", ACCOUNT_ID, POSTED_AT.plusMonths(1)), null, null)).isFalse();
+        assertThat(condition.test(input("Lyft", "12.00", ACCOUNT_ID, POSTED_AT), null, null)).isFalse();
+        assertThat(condition.test(RuleInput.of("Uber", null), null, null)).isFalse();
+    }
+
+    @Test
+    void testNestedAnyAllNot() {
+        RuleCondition condition = RuleDefinitionParser.parseConditions("{\"any\": ["
+                + "{\"merchantPattern\": \"amazon\", \"amountMax\": 20},"
+                + "{\"all\": [{\"descriptionPattern\": \"books\"}, {\"not\": {\"merchantPattern\": \"kindle\"}}]}"
+                + "]}");
+
+        assertThat(condition.test(input("Amazon", "10", null, null), null, null)).isTrue();
+        assertThat(condition.test(input("Amazon", "30", null, null), null, null)).isFalse();
+        assertThat(condition.test(new RuleInput("Bookshop", "Books", new BigDecimal("30"), null, null), null, null)).isTrue();
+        assertThat(condition.test(new RuleInput("Kindle", "Books", new BigDecimal("30"), null, null), null, null)).isFalse();
+    }
+
+    @Test
+    void testInvalidConditionsAreRejected() {
+        assertThatThrownBy(() -> RuleDefinitionParser.parseConditions("invalid json")).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> RuleDefinitionParser.parseConditions("{\"merchantPatern\": \"x\"}")).hasMessageContaining("merchantPatern");
+        assertThatThrownBy(() -> RuleDefinitionParser.parseConditions("{\"amountMin\": 5, \"amountMax\": 1}")).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> RuleDefinitionParser.parseConditions("{\"any\": []}")).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> RuleDefinitionParser.parseConditions("{\"merchantPattern\": \"(\"}")).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void testRuleSetUsesAllFieldsWithMultiPatternMatching() {
+        Rule small = rule(1, "{\"merchantPattern\": \"uber\", \"amountMax\": 20}");
+        Rule large = rule(2, "{\"merchantPattern\": \"uber\", \"amountMin\": 20.01}");
+        Rule notAmazon = rule(3, "{\"not\": {\"merchantPattern\": \"amazon\"}, \"accountIds\": [\"" + ACCOUNT_ID + "\"]}");
+
+        for (boolean multiPattern : new boolean[]{false, true}) {
+            CompiledRuleSet ruleSet = CompiledRuleSet.compile(List.of(small, large, notAmazon), multiPattern);
+
+            assertThat(ruleSet.match(input("UBER TRIP", "5", null, null)).getRuleId()).isEqualTo(small.getId());
+            assertThat(ruleSet.match(input("UBER TRIP", "25", null, null)).getRuleId()).isEqualTo(large.getId());
+            assertThat(ruleSet.match(input("Target", "25", ACCOUNT_ID, null)).getRuleId()).isEqualTo(notAmazon.getId());
+            assertThat(ruleSet.match(input("Amazon", "25", ACCOUNT_ID, null)).isMatch()).isFalse();
+        }
+    }
+
+    private static RuleInput input(String merchant, String amount, UUID accountId, LocalDateTime postedAt) {
+        return new RuleInput(merchant, null, new BigDecimal(amount), accountId, postedAt);
+    }
+
+    private static Rule rule(int priority, String conditions) {
+        Rule rule = new Rule();
+        rule.setId(UUID.randomUUID());
+        rule.setName("Rule " + priority);
+        rule.setConditions(conditions);
+        rule.setActions("{\"targetCategoryId\": \"" + UUID.randomUUID() + "\"}");
+        rule.setPriority(priority);
+        rule.setEnabled(true);
+        return rule;
+    }
+}
@@ -0,0 +1,165 @@
+package com.fintech.service;
+
+import com.fintech.domain.Rule;
+import com.fintech.dto.CreateRuleRequest;
+import com.fintech.dto.RuleDto;
+import com.fintech.dto.UpdateRuleRequest;
+import com.fintech.repo.RuleHitCountRepository;
+import com.fintech.repo.RuleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RuleSetCacheTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final RuleRepository ruleRepository = mock(RuleRepository.class);
+    // What other transactions see; a rule change only lands here on commit
+    private final List<Rule> committed = new ArrayList<>();
+    private RuleService ruleService;
+
+    @BeforeEach
+    void setUp() {
+        when(ruleRepository.findEnabledRulesByUserIdOrderByPriority(USER_ID)).thenAnswer(invocation -> {
+            List<Rule> rules = new ArrayList<>();
+            for (Rule rule : committed) {
+                rules.add(copy(rule));
+            }
+            return rules;
+        });
+        when(ruleRepository.findById(any())).thenAnswer(invocation -> committed.stream()
+                .filter(rule -> rule.getId().equals(invocation.getArgument(0)))
+                .findFirst()
+                .map(RuleSetCacheTest::copy));
+        when(ruleRepository.save(any(Rule.class))).thenAnswer(invocation -> {
+            Rule rule = invocation.getArgument(0);
+            if (rule.getId() == null) {
+                rule.setId(UUID.randomUUID());
+            }
+            return rule;
+        });
+
+        RuleSetCache ruleSetCache = new RuleSetCache();
+        ReflectionTestUtils.setField(ruleSetCache, "ruleRepository", ruleRepository);
+        ReflectionTestUtils.setField(ruleSetCache, "ruleMetrics", mock(RuleMetrics.class));
+        ReflectionTestUtils.setField(ruleSetCache, "multiPatternMatching", true);
+        ReflectionTestUtils.setField(ruleSetCache, "regexMaxSteps", 100_000L);
+        ruleSetCache.init();
+
+        ruleService = new RuleService();
+        ReflectionTestUtils.setField(ruleService, "ruleRepository", ruleRepository);
+        ReflectionTestUtils.setField(ruleService, "auditLogService", mock(AuditLogService.class));
+        ReflectionTestUtils.setField(ruleService, "ruleSetCache", ruleSetCache);
+        ReflectionTestUtils.setField(ruleService, "ruleMetrics", mock(RuleMetrics.class));
+        ReflectionTestUtils.setField(ruleService, "ruleHitCountRepository", mock(RuleHitCountRepository.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testUpdateEvictsAgainAfterCommit() {
+        // Given: a cached rule set with the coffee rule
+        Rule rule = rule("{\"merchantPattern\": \"coffee\"}");
+        committed.add(rule);
+        assertThat(ruleService.applyRulesToTransaction(USER_ID, "Coffee Shop", null).getRuleId()).isEqualTo(rule.getId());
+
+        // When: the rule changes inside a transaction, and another thread reads before it commits
+        TransactionSynchronizationManager.initSynchronization();
+        UpdateRuleRequest request = new UpdateRuleRequest();
+        request.setConditions("{\"merchantPattern\": \"tea\"}");
+        ruleService.updateRule(USER_ID, rule.getId(), request);
+        boolean staleMatch = ruleService.applyRulesToTransaction(USER_ID, "Coffee Shop", null).isMatch();
+        commit(rule.getId(), request.getConditions());
+
+        // Then: the set cached from uncommitted state is dropped on commit
+        assertThat(staleMatch).isTrue();
+        assertThat(ruleService.applyRulesToTransaction(USER_ID, "Coffee Shop", null).isMatch()).isFalse();
+        assertThat(ruleService.applyRulesToTransaction(USER_ID, "Tea House", null).getRuleId()).isEqualTo(rule.getId());
+        verify(ruleRepository, times(3)).findEnabledRulesByUserIdOrderByPriority(USER_ID);
+    }
+
+    @Test
+    void testCreateAndDeleteEvictTheUsersRuleSet() {
+        // Given: an empty, cached rule set; without a transaction each change is committed at once
+        doAnswer(invocation -> {
+            committed.removeIf(rule -> rule.getId().equals(((Rule) invocation.getArgument(0)).getId()));
+            return null;
+        }).when(ruleRepository).delete(any(Rule.class));
+        assertThat(ruleService.applyRulesToTransaction(USER_ID, "Coffee Shop", null).isMatch()).isFalse();
+
+        // When
+        CreateRuleRequest request = new CreateRuleRequest();
+        request.setName("Coffee");
+        request.setConditions("{\"merchantPattern\": \"coffee\"}");
+        request.setActions("{\"targetCategoryId\": \"" + UUID.randomUUID() + "\"}");
+        RuleDto created = ruleService.createRule(USER_ID, request);
+        committed.add(ruleFrom(created));
+        RuleService.RuleMatchResult afterCreate = ruleService.applyRulesToTransaction(USER_ID, "Coffee Shop", null);
+        ruleService.deleteRule(USER_ID, created.getId());
+        RuleService.RuleMatchResult afterDelete = ruleService.applyRulesToTransaction(USER_ID, "Coffee Shop", null);
+
+        // Then
+        assertThat(afterCreate.getRuleId()).isEqualTo(created.getId());
+        assertThat(afterDelete.isMatch()).isFalse();
+        verify(ruleRepository, times(3)).findEnabledRulesByUserIdOrderByPriority(USER_ID);
+    }
+
+    private void commit(UUID ruleId, String conditions) {
+        committed.stream().filter(rule -> rule.getId().equals(ruleId)).forEach(rule -> rule.setConditions(conditions));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private static Rule rule(String conditions) {
+        Rule rule = new Rule();
+        rule.setId(UUID.randomUUID());
+        rule.setUserId(USER_ID);
+        rule.setName("Rule");
+        rule.setConditions(conditions);
+        rule.setActions("{\"targetCategoryId\": \"" + UUID.randomUUID() + "\"}");
+        rule.setPriority(0);
+        rule.setEnabled(true);
+        return rule;
+    }
+
+    private static Rule ruleFrom(RuleDto dto) {
+        Rule rule = rule(dto.getConditions());
+        rule.setId(dto.getId());
+        rule.setActions(dto.getActions());
+        return rule;
+    }
+
+    private static Rule copy(Rule original) {
+        Rule rule = rule(original.getConditions());
+        rule.setId(original.getId());
+        rule.setName(original.getName());
+        rule.setActions(original.getActions());
+        rule.setPriority(original.getPriority());
+        rule.setEnabled(original.getEnabled());
+        return rule;
+    }
+}
@@ -0,0 +1,219 @@
+package com.fintech.service;
+
+import com.fintech.domain.Transaction;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.Reader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TransactionBatchWriterTest {
+
+    private static final LocalDateTime POSTED_AT = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void testSplitsInsertIntoStatementsOfRowsPerStatement() {
+        // Given: each statement reports every row of its VALUES list as written
+        TransactionBatchWriter writer = writer("batch", 2);
+        List<String> statements = new ArrayList<>();
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            statements.add(sql);
+            return rowsIn(sql);
+        });
+
+        // When
+        int written = writer.insert(transactions(5));
+
+        // Then
+        assertThat(written).isEqualTo(5);
+        assertThat(statements).extracting(TransactionBatchWriterTest::rowsIn).containsExactly(2, 2, 1);
+        assertThat(statements).allSatisfy(sql -> {
+            assertThat(sql).startsWith("INSERT INTO transactions (id, account_id, category_id, amount, description, "
+                    + "merchant, posted_at, transaction_type, status, external_id, metadata, created_at, updated_at) VALUES ");
+            assertThat(sql).doesNotContain("ON CONFLICT");
+        });
+    }
+
+    @Test
+    void testBindsColumnsInOrderRowAfterRow() throws Exception {
+        // Given
+        TransactionBatchWriter writer = writer("batch", 500);
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        when(jdbcTemplate.update(anyString(), setter.capture())).thenReturn(2);
+        Transaction first = transaction("ext-1");
+        first.setCategoryId(UUID.randomUUID());
+        first.setMetadata("{\"source\":\"csv\"}");
+        Transaction second = transaction("ext-2");
+        second.setStatus(null);
+
+        // When
+        writer.insert(List.of(first, second));
+        PreparedStatement statement = mock(PreparedStatement.class);
+        setter.getValue().setValues(statement);
+
+        // Then
+        Timestamp created = Timestamp.valueOf(first.getCreatedAt());
+        InOrder order = inOrder(statement);
+        order.verify(statement).setObject(1, first.getId());
+        order.verify(statement).setObject(2, first.getAccountId());
+        order.verify(statement).setObject(3, first.getCategoryId());
+        order.verify(statement).setBigDecimal(4, first.getAmount());
+        order.verify(statement).setString(5, "Coffee");
+        order.verify(statement).setString(6, "Cafe");
+        order.verify(statement).setTimestamp(7, Timestamp.valueOf(POSTED_AT));
+        order.verify(statement).setString(8, "DEBIT");
+        order.verify(statement).setString(9, "CLEARED");
+        order.verify(statement).setString(10, "ext-1");
+        order.verify(statement).setString(11, "{\"source\":\"csv\"}");
+        order.verify(statement).setTimestamp(12, created);
+        order.verify(statement).setTimestamp(13, created);
+        order.verify(statement).setObject(14, second.getId());
+        order.verify(statement).setObject(16, null);
+        order.verify(statement).setString(22, null);
+        order.verify(statement).setNull(24, Types.VARCHAR);
+        order.verify(statement).setTimestamp(26, created);
+        assertThat(first.getId()).isNotNull();
+        assertThat(first.getUpdatedAt()).isEqualTo(first.getCreatedAt());
+    }
+
+    @Test
+    void testRejectsMissingRequiredValuesBeforeWriting() {
+        // Given
+        TransactionBatchWriter writer = writer("batch", 500);
+        Transaction missingPostedAt = transaction("ext-2");
+        missingPostedAt.setPostedAt(null);
+        Transaction missingAmount = transaction("ext-3");
+        missingAmount.setAmount(null);
+
+        // When / Then
+        assertThatThrownBy(() -> writer.insert(List.of(transaction("ext-1"), missingPostedAt)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Transaction 2 of the batch (external id ext-2) has no postedAt");
+        assertThatThrownBy(() -> writer.insertIfAbsent(List.of(missingAmount)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Transaction 1 of the batch (external id ext-3) has no amount");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testCopyModeQuotesEveryValueAndLeavesNullsEmpty() throws Exception {
+        // Given
+        TransactionBatchWriter writer = writer("copy", 500);
+        Connection connection = mock(Connection.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        CopyManager copyManager = mock(CopyManager.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        StringWriter copied = new StringWriter();
+        when(copyManager.copyIn(anyString(), any(Reader.class))).thenAnswer(invocation -> {
+            invocation.getArgument(1, Reader.class).transferTo(copied);
+            return 1L;
+        });
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation ->
+                invocation.getArgument(0, ConnectionCallback.class).doInConnection(connection));
+        Transaction transaction = transaction("ext-1");
+        transaction.setDescription("Say \"hi\", then\nleave");
+        transaction.setMerchant("");
+
+        // When
+        int written = writer.insert(List.of(transaction));
+
+        // Then
+        assertThat(written).isEqualTo(1);
+        verify(copyManager).copyIn(eq("COPY transactions (id, account_id, category_id, amount, description, merchant, "
+                + "posted_at, transaction_type, status, external_id, metadata, created_at, updated_at) "
+                + "FROM STDIN WITH (FORMAT csv)"), any(Reader.class));
+        String created = transaction.getCreatedAt().toString();
+        assertThat(copied.toString()).isEqualTo("\"" + transaction.getId() + "\",\"" + transaction.getAccountId() + "\","
+                + ",\"-4.20\",\"Say \"\"hi\"\", then\nleave\",\"\",\"2024-03-01T12:00\",\"DEBIT\",\"CLEARED\",\"ext-1\","
+                + ",\"" + created + "\",\"" + created + "\"\n");
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    void testInsertIfAbsentSkipsConflictsAndCountsOnlyWrittenRows() {
+        // Given: copy mode is configured, but conflicts can only be skipped by INSERT
+        TransactionBatchWriter writer = writer("copy", 2);
+        List<String> statements = new ArrayList<>();
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            // One row of each statement already exists
+            return rowsIn(invocation.getArgument(0)) - 1;
+        });
+
+        // When
+        int written = writer.insertIfAbsent(transactions(3));
+
+        // Then
+        assertThat(written).isEqualTo(1);
+        assertThat(statements).hasSize(2);
+        assertThat(statements).allSatisfy(sql ->
+                assertThat(sql).endsWith(") ON CONFLICT (account_id, external_id) DO NOTHING"));
+        verify(jdbcTemplate, never()).execute(any(ConnectionCallback.class));
+        assertThat(writer.insertIfAbsent(List.of())).isZero();
+    }
+
+    private TransactionBatchWriter writer(String mode, int rowsPerStatement) {
+        TransactionBatchWriter writer = new TransactionBatchWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "mode", mode);
+        ReflectionTestUtils.setField(writer, "rowsPerStatement", rowsPerStatement);
+        return writer;
+    }
+
+    private static int rowsIn(String sql) {
+        return sql.split("CAST\\(\\? AS jsonb\\)", -1).length - 1;
+    }
+
+    private static List<Transaction> transactions(int count) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            transactions.add(transaction("ext-" + i));
+        }
+        return transactions;
+    }
+
+    private static Transaction transaction(String externalId) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(UUID.randomUUID());
+        transaction.setExternalId(externalId);
+        transaction.setAmount(new BigDecimal("-4.20"));
+        transaction.setDescription("Coffee");
+        transaction.setMerchant("Cafe");
+        transaction.setPostedAt(POSTED_AT);
+        transaction.setTransactionType(Transaction.TransactionType.DEBIT);
+        transaction.setStatus(Transaction.TransactionStatus.CLEARED);
+        return transaction;
+    }
+}
@@ -0,0 +1,39 @@
+package com.fintech.service;
+
+import com.fintech.domain.Transaction;
+import com.fintech.repo.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionServiceTest {
+
+    @Test
+    void testDeletingATransactionClearsTheAccountsImportDigests() {
+        // Given
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        ImportDigestService importDigestService = mock(ImportDigestService.class);
+        Transaction transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
+        transaction.setAccountId(UUID.randomUUID());
+        when(transactionRepository.findById(transaction.getId())).thenReturn(Optional.of(transaction));
+
+        TransactionService service = new TransactionService();
+        ReflectionTestUtils.setField(service, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(service, "importDigestService", importDigestService);
+        ReflectionTestUtils.setField(service, "auditLogService", mock(AuditLogService.class));
+
+        // When
+        service.deleteTransaction(transaction.getId());
+
+        // Then: re-uploading the import the row came from is checked row by row again
+        verify(transactionRepository).delete(transaction);
+        verify(importDigestService).clearDigests(transaction.getAccountId());
+    }
+}
@@ -0,0 +1,134 @@
+package com.fintech.service;
+
+import com.fintech.dto.WebhookMetricsDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class WebhookDispatcherTest {
+
+    private PartitionedExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testRejectsWhenQueueFullAndWhenShutDown() throws Exception {
+        // Given: one partition, held busy, and room for one queued event
+        WebhookEventService service = mock(WebhookEventService.class);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(service).processWebhookEvent(any());
+        WebhookDispatcher dispatcher = dispatcher(service, 1, 1);
+
+        // When
+        WebhookDispatcher.Outcome first = dispatcher.dispatch(UUID.randomUUID(), "ext-1");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        WebhookDispatcher.Outcome queued = dispatcher.dispatch(UUID.randomUUID(), "ext-2");
+        WebhookDispatcher.Outcome overflow = dispatcher.dispatch(UUID.randomUUID(), null);
+        WebhookMetricsDto busy = dispatcher.getMetrics();
+        release.countDown();
+        verify(service, timeout(5000).times(2)).processWebhookEvent(any());
+        executor.shutdown();
+        WebhookDispatcher.Outcome stopped = dispatcher.dispatch(UUID.randomUUID(), "ext-1");
+
+        // Then
+        assertThat(first).isEqualTo(WebhookDispatcher.Outcome.ACCEPTED);
+        assertThat(queued).isEqualTo(WebhookDispatcher.Outcome.ACCEPTED);
+        assertThat(overflow).isEqualTo(WebhookDispatcher.Outcome.QUEUE_FULL);
+        assertThat(stopped).isEqualTo(WebhookDispatcher.Outcome.SHUTTING_DOWN);
+        assertThat(busy.getQueueDepth()).isEqualTo(1);
+        assertThat(busy.getActiveWorkers()).isEqualTo(1);
+        assertThat(busy.getPartitions()).hasSize(1);
+        assertThat(busy.getPartitions().get(0).isBusy()).isTrue();
+        assertThat(busy.getPartitions().get(0).getQueueDepth()).isEqualTo(1);
+        WebhookMetricsDto metrics = dispatcher.getMetrics();
+        assertThat(metrics.getAccepted()).isEqualTo(2);
+        assertThat(metrics.getRejected()).isEqualTo(2);
+        assertThat(metrics.getPartitions().get(0).getCompleted()).isEqualTo(2);
+    }
+
+    @Test
+    void testRunsAnAccountsEventsInOrderAndOtherAccountsAlongside() throws Exception {
+        // Given: four partitions; events for one account hold their partition busy
+        WebhookEventService service = mock(WebhookEventService.class);
+        List<UUID> slowAccountOrder = Collections.synchronizedList(new ArrayList<>());
+        List<UUID> slowAccountEvents = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            slowAccountEvents.add(UUID.randomUUID());
+        }
+        UUID otherAccountEvent = UUID.randomUUID();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlapping = new AtomicInteger();
+        doAnswer(invocation -> {
+            UUID eventId = invocation.getArgument(0);
+            if (slowAccountEvents.contains(eventId)) {
+                if (running.incrementAndGet() > 1) {
+                    overlapping.incrementAndGet();
+                }
+                release.await(5, TimeUnit.SECONDS);
+                slowAccountOrder.add(eventId);
+                running.decrementAndGet();
+            }
+            return null;
+        }).when(service).processWebhookEvent(any());
+        WebhookDispatcher dispatcher = dispatcher(service, 4, 50);
+        String otherAccount = otherPartitionKey("ext-slow");
+
+        // When
+        for (UUID eventId : slowAccountEvents) {
+            dispatcher.dispatch(eventId, "ext-slow");
+        }
+        dispatcher.dispatch(otherAccountEvent, otherAccount);
+
+        // Then: the other account is not held up, and the slow one runs one event at a time in order
+        verify(service, timeout(5000)).processWebhookEvent(otherAccountEvent);
+        WebhookMetricsDto backlog = dispatcher.getMetrics();
+        int slowPartition = executor.partitionOf("ext-slow");
+        assertThat(backlog.getPartitions().get(slowPartition).getQueueDepth()).isEqualTo(19);
+        release.countDown();
+        verify(service, timeout(5000).times(21)).processWebhookEvent(any());
+        assertThat(slowAccountOrder).containsExactlyElementsOf(slowAccountEvents);
+        assertThat(overlapping.get()).isZero();
+    }
+
+    private String otherPartitionKey(String key) {
+        for (int i = 0; ; i++) {
+            if (executor.partitionOf("ext-" + i) != executor.partitionOf(key)) {
+                return "ext-" + i;
+            }
+        }
+    }
+
+    private WebhookDispatcher dispatcher(WebhookEventService service, int partitions, int queueCapacity) {
+        executor = new PartitionedExecutor("webhook-test-", partitions, queueCapacity, false);
+
+        WebhookDispatcher dispatcher = new WebhookDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "webhookEventService", service);
+        ReflectionTestUtils.setField(dispatcher, "webhookExecutor", executor);
+        dispatcher.init();
+        return dispatcher;
+    }
+}
@@ -0,0 +1,257 @@
+package com.fintech.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fintech.domain.Transaction;
+import com.fintech.domain.WebhookEvent;
+import com.fintech.dto.WebhookPayloadDto;
+import com.fintech.repo.TransactionRepository;
+import com.fintech.repo.WebhookEventRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class WebhookEventServiceTest {
+
+    @Test
+    void testRetryDelayDoublesWithJitterUpToMax() {
+        // Upper half of 30s, 60s, 120s ... capped at 3600s
+        assertThat(WebhookEventService.retryDelaySeconds(1, 30, 3600, 0.0)).isEqualTo(15);
+        assertThat(WebhookEventService.retryDelaySeconds(1, 30, 3600, 0.999)).isEqualTo(29);
+        assertThat(WebhookEventService.retryDelaySeconds(3, 30, 3600, 0.0)).isEqualTo(60);
+        assertThat(WebhookEventService.retryDelaySeconds(3, 30, 3600, 0.5)).isEqualTo(90);
+        assertThat(WebhookEventService.retryDelaySeconds(10, 30, 3600, 0.0)).isEqualTo(1800);
+        assertThat(WebhookEventService.retryDelaySeconds(200, 30, 3600, 0.999)).isBetween(1800L, 3600L);
+    }
+
+    @Test
+    void testFailuresScheduleRetriesUntilDeadLetter() {
+        // Given
+        WebhookEventRepository repository = mock(WebhookEventRepository.class);
+        WebhookEventService service = new WebhookEventService();
+        ReflectionTestUtils.setField(service, "webhookEventRepository", repository);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "initialRetryDelaySeconds", 30L);
+        ReflectionTestUtils.setField(service, "maxRetryDelaySeconds", 3600L);
+
+        WebhookEvent event = new WebhookEvent();
+        UUID id = UUID.randomUUID();
+        event.setId(id);
+        event.setStatus(WebhookEvent.EventStatus.PROCESSING);
+        event.setLockedBy("worker");
+        when(repository.findById(id)).thenReturn(Optional.of(event));
+
+        // When: the first failure
+        LocalDateTime before = LocalDateTime.now();
+        service.recordFailure(id, "deadlock detected");
+
+        // Then
+        assertThat(event.getStatus()).isEqualTo(WebhookEvent.EventStatus.FAILED);
+        assertThat(event.getRetryCount()).isEqualTo(1);
+        assertThat(event.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(15));
+        assertThat(event.getLockedBy()).isNull();
+        verify(repository).save(event);
+
+        // When: the last allowed attempt fails too
+        service.recordFailure(id, "deadlock detected");
+        service.recordFailure(id, "deadlock detected");
+
+        // Then
+        assertThat(event.getStatus()).isEqualTo(WebhookEvent.EventStatus.DEAD_LETTER);
+        assertThat(event.getRetryCount()).isEqualTo(3);
+        assertThat(event.getNextAttemptAt()).isNull();
+        assertThat(event.getErrorMessage()).isEqualTo("deadlock detected");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testMatchesPayloadWithOneQueryAndWritesOnlyChanges() throws Exception {
+        // Given: a stored transaction that changes, one redelivered unchanged, a new one, and two without an id
+        UUID accountId = UUID.randomUUID();
+        LocalDateTime postedAt = LocalDateTime.of(2024, 3, 1, 12, 0);
+        Transaction changed = stored(accountId, "tx-1", "-10.00", postedAt);
+        Transaction unchanged = stored(accountId, "tx-2", "-20.00", postedAt);
+
+        WebhookPayloadDto payload = new WebhookPayloadDto();
+        payload.setAccountId("ext-1");
+        payload.setTransactions(List.of(data("tx-1", "-12.50", postedAt), data(null, "-1.00", postedAt), data("tx-2", "-20.0", postedAt),
+                data("tx-3", "5.00", postedAt), data(null, "-2.00", postedAt)));
+
+        WebhookEventRepository eventRepository = mock(WebhookEventRepository.class);
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        ExternalAccountResolver resolver = mock(ExternalAccountResolver.class);
+        TransactionBatchWriter batchWriter = mock(TransactionBatchWriter.class);
+        AuditLogService auditLogService = mock(AuditLogService.class);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        WebhookEvent event = new WebhookEvent();
+        UUID eventId = UUID.randomUUID();
+        event.setId(eventId);
+        event.setEventType("transactions.new");
+        event.setStatus(WebhookEvent.EventStatus.PROCESSING);
+        event.setPayload(objectMapper.writeValueAsString(payload));
+        when(eventRepository.findById(eventId)).thenReturn(Optional.of(event));
+        when(resolver.resolve("mockbank", "ext-1")).thenReturn(new ExternalAccountResolver.AccountRef(accountId, UUID.randomUUID()));
+        when(transactionRepository.findByAccountIdAndExternalIdIn(eq(accountId), anyCollection())).thenReturn(List.of(changed, unchanged));
+        when(batchWriter.insertIfAbsent(any())).thenAnswer(invocation -> ((List<Transaction>) invocation.getArgument(0)).size());
+
+        WebhookEventService service = new WebhookEventService();
+        ReflectionTestUtils.setField(service, "webhookEventRepository", eventRepository);
+        ReflectionTestUtils.setField(service, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(service, "externalAccountResolver", resolver);
+        ReflectionTestUtils.setField(service, "categoryLookupCache", mock(CategoryLookupCache.class));
+        ReflectionTestUtils.setField(service, "auditLogService", auditLogService);
+        ReflectionTestUtils.setField(service, "transactionBatchWriter", batchWriter);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+
+        // When
+        service.processWebhookEvent(eventId);
+
+        // Then
+        verify(transactionRepository, times(1)).findByAccountIdAndExternalIdIn(eq(accountId), anyCollection());
+        ArgumentCaptor<List<Transaction>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(batchWriter).insertIfAbsent(inserted.capture());
+        assertThat(inserted.getValue()).extracting(Transaction::getExternalId).containsExactly("tx-3");
+
+        ArgumentCaptor<List<Transaction>> updated = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Transaction>> previous = ArgumentCaptor.forClass(List.class);
+        verify(auditLogService).logTransactionUpdates(updated.capture(), previous.capture());
+        assertThat(updated.getValue()).containsExactly(changed);
+        assertThat(changed.getAmount()).isEqualByComparingTo("-12.50");
+        assertThat(previous.getValue().get(0).getAmount()).isEqualByComparingTo("-10.00");
+        verify(transactionRepository).saveAll(List.of(changed));
+        verify(auditLogService).logImportAction(eq("Transaction"), eq(accountId), anyString(), eq(1), eq(2));
+        assertThat(event.getStatus()).isEqualTo(WebhookEvent.EventStatus.PROCESSED);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testStreamsRawPayloadWithAccountIdAfterTransactions() {
+        // Given: a payload as a sender might post it, with fields the DTO does not know
+        // and two transactions missing their postedAt or amount
+        UUID accountId = UUID.randomUUID();
+        String payload = "{\"eventType\":\"transactions.new\",\"meta\":{\"ids\":[1,2],\"source\":\"x\"},"
+                + "\"transactions\":[{\"transactionId\":\"tx-1\",\"amount\":-4.20,\"description\":\"Coffee\","
+                + "\"postedAt\":\"2024-03-01T12:00:00\"},null,{\"transactionId\":\"tx-2\",\"amount\":9.99,"
+                + "\"description\":\"Refund\",\"postedAt\":\"2024-03-02T09:30:00\"},"
+                + "{\"transactionId\":\"tx-3\",\"amount\":1.00},{\"transactionId\":\"tx-4\",\"postedAt\":\"2024-03-03T08:00:00\"}],"
+                + "\"accountId\":\"ext-1\"}";
+
+        WebhookEventRepository eventRepository = mock(WebhookEventRepository.class);
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        ExternalAccountResolver resolver = mock(ExternalAccountResolver.class);
+        TransactionBatchWriter batchWriter = mock(TransactionBatchWriter.class);
+        AuditLogService auditLogService = mock(AuditLogService.class);
+
+        WebhookEvent event = new WebhookEvent();
+        UUID eventId = UUID.randomUUID();
+        event.setId(eventId);
+        event.setEventType("transactions.new");
+        event.setStatus(WebhookEvent.EventStatus.PROCESSING);
+        event.setPayload(payload);
+        when(eventRepository.findById(eventId)).thenReturn(Optional.of(event));
+        when(resolver.resolve("mockbank", "ext-1")).thenReturn(new ExternalAccountResolver.AccountRef(accountId, UUID.randomUUID()));
+        when(transactionRepository.findByAccountIdAndExternalIdIn(eq(accountId), anyCollection())).thenReturn(List.of());
+        when(batchWriter.insertIfAbsent(any())).thenAnswer(invocation -> ((List<Transaction>) invocation.getArgument(0)).size());
+
+        WebhookEventService service = new WebhookEventService();
+        ReflectionTestUtils.setField(service, "webhookEventRepository", eventRepository);
+        ReflectionTestUtils.setField(service, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(service, "externalAccountResolver", resolver);
+        ReflectionTestUtils.setField(service, "categoryLookupCache", mock(CategoryLookupCache.class));
+        ReflectionTestUtils.setField(service, "auditLogService", auditLogService);
+        ReflectionTestUtils.setField(service, "transactionBatchWriter", batchWriter);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+
+        // When
+        service.processWebhookEvent(eventId);
+
+        // Then
+        ArgumentCaptor<List<Transaction>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(batchWriter).insertIfAbsent(inserted.capture());
+        assertThat(inserted.getValue()).extracting(Transaction::getExternalId).containsExactly("tx-1", "tx-2");
+        assertThat(inserted.getValue().get(1).getPostedAt()).isEqualTo(LocalDateTime.of(2024, 3, 2, 9, 30));
+        // The incomplete transactions fail on their own instead of failing the event
+        verify(auditLogService).logImportAction(eq("Transaction"), eq(accountId), anyString(), eq(2), eq(2));
+        assertThat(event.getStatus()).isEqualTo(WebhookEvent.EventStatus.PROCESSED);
+    }
+
+    @Test
+    void testReplayNeedsIdsOrABoundedDeadLetterBatch() {
+        // Given
+        WebhookEventRepository eventRepository = mock(WebhookEventRepository.class);
+        WebhookEventService service = new WebhookEventService();
+        ReflectionTestUtils.setField(service, "webhookEventRepository", eventRepository);
+        LocalDateTime before = LocalDateTime.of(2024, 3, 1, 0, 0);
+        when(eventRepository.replayDeadLetters(before, "mockbank", 50)).thenReturn(7);
+
+        // When / Then: no ids never means every dead letter
+        assertThatThrownBy(() -> service.replayEvents(null)).hasMessage("No event ids given to replay");
+        assertThatThrownBy(() -> service.replayEvents(List.of())).hasMessage("No event ids given to replay");
+        assertThatThrownBy(() -> service.replayDeadLetters(0, null, null))
+                .hasMessage("Replay limit must be between 1 and " + WebhookEventService.MAX_REPLAY_LIMIT);
+        assertThatThrownBy(() -> service.replayDeadLetters(WebhookEventService.MAX_REPLAY_LIMIT + 1, null, null))
+                .hasMessage("Replay limit must be between 1 and " + WebhookEventService.MAX_REPLAY_LIMIT);
+        verifyNoInteractions(eventRepository);
+
+        assertThat(service.replayDeadLetters(50, before, "mockbank")).isEqualTo(7);
+        service.replayDeadLetters(10, null, null);
+        verify(eventRepository).replayDeadLetters(any(LocalDateTime.class), isNull(), eq(10));
+    }
+
+    @Test
+    void testPartitionKeyIsTopLevelAccountId() {
+        WebhookEventService service = new WebhookEventService();
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+
+        assertThat(service.partitionKey("{\"eventType\":\"transactions.new\",\"accountId\":\"ext-1\",\"transactions\":[]}"))
+                .isEqualTo("ext-1");
+        assertThat(service.partitionKey("{\"transactions\":[{\"accountId\":\"nested\"}],\"accountId\":\"ext-2\"}"))
+                .isEqualTo("ext-2");
+        assertThat(service.partitionKey("{\"transactions\":[]}")).isNull();
+        assertThat(service.partitionKey("[1,2]")).isNull();
+        assertThat(service.partitionKey("{not json")).isNull();
+    }
+
+    private static Transaction stored(UUID accountId, String externalId, String amount, LocalDateTime postedAt) {
+        Transaction transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
+        transaction.setAccountId(accountId);
+        transaction.setExternalId(externalId);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setDescription("Coffee");
+        transaction.setMerchant("Cafe");
+        transaction.setPostedAt(postedAt);
+        transaction.setTransactionType(Transaction.TransactionType.DEBIT);
+        return transaction;
+    }
+
+    private static WebhookPayloadDto.TransactionData data(String externalId, String amount, LocalDateTime postedAt) {
+        WebhookPayloadDto.TransactionData data = new WebhookPayloadDto.TransactionData();
+        data.setTransactionId(externalId);
+        data.setAmount(new BigDecimal(amount));
+        data.setDescription("Coffee");
+        data.setMerchant("Cafe");
+        data.setPostedAt(postedAt);
+        return data;
+    }
+}
@@ -0,0 +1,95 @@
+package com.fintech.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebhookPollerTest {
+
+    private final WebhookEventService service = mock(WebhookEventService.class);
+    private final WebhookDispatcher dispatcher = mock(WebhookDispatcher.class);
+
+    @Test
+    void testClaimsUpToFreeQueueSlotsAndPollsAgainAfterFullBatch() {
+        // Given: room for 3 of a batch of 50, all accepted
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        Map<UUID, String> claimed = new LinkedHashMap<>();
+        claimed.put(first, "ext-1");
+        claimed.put(second, "ext-2");
+        claimed.put(third, null);
+        when(dispatcher.remainingCapacity()).thenReturn(3, 0);
+        when(service.claimPendingEvents(3)).thenReturn(claimed);
+        when(dispatcher.dispatch(any(), any())).thenReturn(WebhookDispatcher.Outcome.ACCEPTED);
+
+        // When
+        poller(50).poll();
+
+        // Then: a full batch polls again, which stops at the full queue
+        verify(service).releaseExpiredClaims();
+        verify(dispatcher).dispatch(first, "ext-1");
+        verify(dispatcher).dispatch(second, "ext-2");
+        verify(dispatcher).dispatch(third, null);
+        verify(service, never()).releaseEvent(any());
+        verify(service).claimPendingEvents(anyInt());
+        verify(dispatcher, times(2)).remainingCapacity();
+    }
+
+    @Test
+    void testFullPartitionEndsThePollAndReleasesTheRestOfTheBatch() {
+        // Given: free slots elsewhere, but the second event's partition is full
+        UUID first = UUID.randomUUID();
+        UUID refused = UUID.randomUUID();
+        UUID sameAccountLater = UUID.randomUUID();
+        Map<UUID, String> claimed = new LinkedHashMap<>();
+        claimed.put(first, "ext-1");
+        claimed.put(refused, "ext-busy");
+        claimed.put(sameAccountLater, "ext-busy");
+        when(dispatcher.remainingCapacity()).thenReturn(3);
+        when(service.claimPendingEvents(3)).thenReturn(claimed);
+        when(dispatcher.dispatch(first, "ext-1")).thenReturn(WebhookDispatcher.Outcome.ACCEPTED);
+        when(dispatcher.dispatch(refused, "ext-busy")).thenReturn(WebhookDispatcher.Outcome.QUEUE_FULL);
+
+        // When
+        poller(50).poll();
+
+        // Then: one claim only, and the later event for the busy account is not dispatched ahead of the refused one
+        verify(service, times(1)).claimPendingEvents(anyInt());
+        verify(service, never()).releaseEvent(first);
+        verify(service).releaseEvent(refused);
+        verify(service).releaseEvent(sameAccountLater);
+        verify(dispatcher, never()).dispatch(sameAccountLater, "ext-busy");
+    }
+
+    @Test
+    void testStopsAfterPartialBatch() {
+        when(dispatcher.remainingCapacity()).thenReturn(100);
+        when(service.claimPendingEvents(2)).thenReturn(Map.of(UUID.randomUUID(), "ext-1"));
+        when(dispatcher.dispatch(any(), any())).thenReturn(WebhookDispatcher.Outcome.ACCEPTED);
+
+        poller(2).poll();
+
+        verify(service).claimPendingEvents(2);
+    }
+
+    private WebhookPoller poller(int batchSize) {
+        WebhookPoller poller = new WebhookPoller();
+        ReflectionTestUtils.setField(poller, "webhookEventService", service);
+        ReflectionTestUtils.setField(poller, "webhookDispatcher", dispatcher);
+        ReflectionTestUtils.setField(poller, "enabled", true);
+        ReflectionTestUtils.setField(poller, "batchSize", batchSize);
+        return poller;
+    }
+}